@@ -0,0 +1,37 @@
+package burp.bench;
+
+import burp.utils.HttpUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Extracting host, port and scheme from resolved and unresolved URLs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpUtilsBenchmark {
+    @Param({
+        "https://api.example.com/api/v1/users/42?page=1",
+        "http://localhost:8080/graphql",
+        "{{baseUrl}}/api/v1/users/{{userId}}"
+    })
+    public String url;
+
+    @Benchmark
+    public HttpUtils.HostInfo parseUrl() {
+        return HttpUtils.parseUrl(url);
+    }
+}
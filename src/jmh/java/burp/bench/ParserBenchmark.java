@@ -0,0 +1,57 @@
+package burp.bench;
+
+import burp.models.PostmanCollection;
+import burp.parser.PostmanParser;
+import burp.test.SyntheticCollectionGenerator;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading a whole collection file into the model, as preview and variable analysis do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({ "100", "1000", "10000" })
+    public int size;
+
+    private final PostmanParser parser = new PostmanParser();
+    private File collection;
+
+    @Setup
+    public void setUp() throws Exception {
+        collection = collectionOf(size);
+    }
+
+    @TearDown
+    public void tearDown() {
+        collection.delete();
+    }
+
+    @Benchmark
+    public PostmanCollection parseCollection() throws Exception {
+        return parser.parseCollection(collection);
+    }
+
+    static File collectionOf(int requests) throws Exception {
+        SyntheticCollectionGenerator generator = new SyntheticCollectionGenerator();
+        generator.requests = requests;
+        return generator.writeTemp();
+    }
+}
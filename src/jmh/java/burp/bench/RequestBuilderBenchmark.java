@@ -0,0 +1,84 @@
+package burp.bench;
+
+import burp.models.PostmanCollection;
+import burp.parser.PostmanParser;
+import burp.parser.VariableResolver;
+import burp.test.SyntheticCollectionGenerator;
+import burp.utils.Log;
+import burp.utils.RequestBuilder;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering one request to raw HTTP bytes, per body mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBuilderBenchmark {
+    @Param({ "none", "raw", "urlencoded", "formdata", "graphql" })
+    public String mode;
+
+    private RequestBuilder builder;
+    private PostmanCollection.Request request;
+
+    @Setup
+    public void setUp() throws Exception {
+        // A small synthetic collection has requests of every body mode; benchmark the first of this one
+        SyntheticCollectionGenerator generator = new SyntheticCollectionGenerator();
+        generator.requests = 200;
+        File file = generator.writeTemp();
+        File environment = File.createTempFile("synthetic-environment", ".json");
+        PostmanParser parser = new PostmanParser();
+        PostmanCollection collection;
+        VariableResolver resolver = new VariableResolver();
+        try {
+            generator.writeEnvironment(environment);
+            collection = parser.parseCollection(file);
+            resolver.addEnvironmentVariables(parser.parseEnvironment(environment));
+            resolver.addCollectionVariables(collection);
+        } finally {
+            file.delete();
+            environment.delete();
+        }
+        request = firstWithMode(collection.item);
+        if (request == null) {
+            throw new IllegalStateException("No synthetic request with body mode " + mode);
+        }
+        builder = new RequestBuilder(Log.disabled(), resolver);
+    }
+
+    private PostmanCollection.Request firstWithMode(List<PostmanCollection.Item> items) {
+        for (PostmanCollection.Item item : items) {
+            PostmanCollection.Request found = item.item != null ? firstWithMode(item.item) : null;
+            if (found == null && item.request != null) {
+                String itemMode = item.request.body != null ? item.request.body.mode : "none";
+                found = mode.equals(itemMode) ? item.request : null;
+            }
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public byte[] buildRequest() throws Exception {
+        return builder.buildRequest(request);
+    }
+}
@@ -0,0 +1,56 @@
+package burp.bench;
+
+import burp.models.PostmanCollection;
+import burp.models.VariableAnalysis;
+import burp.parser.PostmanParser;
+import burp.parser.VariableResolver;
+import burp.utils.Log;
+import burp.utils.VariableDetector;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Finding every variable in a parsed collection and checking which ones resolve.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariableDetectorBenchmark {
+    @Param({ "100", "1000", "10000" })
+    public int size;
+
+    private PostmanCollection collection;
+    private VariableDetector detector;
+
+    @Setup
+    public void setUp() throws Exception {
+        File file = ParserBenchmark.collectionOf(size);
+        try {
+            collection = new PostmanParser().parseCollection(file);
+        } finally {
+            file.delete();
+        }
+        VariableResolver resolver = new VariableResolver();
+        resolver.addCollectionVariables(collection);
+        detector = new VariableDetector(resolver, Log.disabled());
+    }
+
+    @Benchmark
+    public VariableAnalysis analyzeCollection() {
+        return detector.analyzeCollection(collection);
+    }
+}
@@ -0,0 +1,63 @@
+package burp.bench;
+
+import burp.parser.VariableResolver;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resolving {{variables}} in typical strings, with small and large variable sets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariableResolverBenchmark {
+    @Param({ "10", "10000" })
+    public int variables;
+
+    private final VariableResolver resolver = new VariableResolver();
+    private String plain;
+    private String url;
+    private String body;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < variables; i++) {
+            resolver.addCustomVariable("var" + i, "value" + i);
+        }
+        resolver.addCustomVariable("baseUrl", "https://api.example.com");
+        resolver.addCustomVariable("userId", "42");
+        resolver.addCustomVariable("token", "{{var0}}-token"); // Resolves through another variable
+        plain = "https://api.example.com/api/v1/users/42/items?page=1&size=20";
+        url = "{{baseUrl}}/api/v1/users/{{userId}}/items?page=1&size=20&q={{missing}}";
+        body = "{\"owner\": \"{{userId}}\", \"auth\": \"{{token}}\", \"note\": \"" +
+               new String(new char[512]).replace('\0', 'x') + "\", \"last\": \"{{var" + (variables - 1) + "}}\"}";
+    }
+
+    @Benchmark
+    public String resolvePlain() {
+        return resolver.resolve(plain);
+    }
+
+    @Benchmark
+    public String resolveUrl() {
+        return resolver.resolve(url);
+    }
+
+    @Benchmark
+    public String resolveBody() {
+        return resolver.resolve(body);
+    }
+}
@@ -54,5 +54,11 @@ public class BurpExtender implements BurpExtension {
             mainPanel = importer.getMainPanel();
             api.userInterface().registerSuiteTab("Postman Importer", mainPanel);
         });
+        
+        api.extension().registerUnloadingHandler(() -> {
+            if (importer != null) {
+                importer.shutdown();
+            }
+        });
     }
 }
@@ -0,0 +1,1231 @@
+package burp;
+
+import burp.models.*;
+import burp.parser.*;
+import burp.utils.*;
+import burp.api.montoya.MontoyaApi;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The import core: streams a collection through parse -> resolve -> build -> dispatch and sends
+ * each request to Repeater, the sitemap or a RequestSink, with rate limiting, retries, the
+ * circuit breaker, the resume journal and response retention. It never touches Swing, so the
+ * extension's panel and the headless command line drive the same code.
+ */
+public class ImportEngine {
+    private static final int PIPELINE_QUEUE_SIZE = 256; // Requests parsed or built ahead of dispatch
+    private static final long CIRCUIT_OPEN_MS = 30000;       // Before a failing host gets a probe request
+    private static final long RETRY_BASE_DELAY_MS = 500;
+    private static final long RETRY_MAX_DELAY_MS = 30000;
+    private static final int PREFLIGHT_TIMEOUT_MS = 3000;
+    private static final String PERSISTED_QUERY_NOT_FOUND = "Persisted query not found, and the full query was not accepted";
+
+    private final MontoyaApi api;
+    private final Log log;
+    private final PostmanParser parser = new PostmanParser();
+    private final VariableResolver variableResolver;
+    private final RequestBuilder requestBuilder;
+    private final TabNamer tabNamer = new TabNamer();
+    private final HostProbe hostProbe = new HostProbe(PREFLIGHT_TIMEOUT_MS); // Caches results across imports
+    private volatile AdaptiveConcurrency activeConcurrency; // Limits of the import currently running, if adaptive
+    private volatile ImportMetrics activeMetrics; // Timings of the running or most recent import
+
+    /**
+     * api is only used for Repeater, the sitemap and Burp's HTTP client, so imports into a
+     * RequestSink work with an API that just provides logging. Variables already in the resolver
+     * (such as manual entries) take precedence over the environment and collection.
+     */
+    public ImportEngine(MontoyaApi api, Log log, VariableResolver variableResolver) {
+        this.api = api;
+        this.log = log;
+        this.variableResolver = variableResolver;
+        this.requestBuilder = new RequestBuilder(log, variableResolver);
+    }
+
+    /**
+     * Callbacks into whatever runs an import (a SwingWorker in the UI, or the command line).
+     */
+    public interface ImportListener {
+        boolean cancelled();
+        void log(String message);
+        void progress(int percent);
+
+        /**
+         * Whether the UI is too busy for more Repeater tabs right now; never outside Burp.
+         */
+        default boolean uiBusy() {
+            return false;
+        }
+
+        /**
+         * Asked when an earlier run of the same import did not finish and settings.resume is off:
+         * true skips what that run already did, false starts over. Never resumes by default.
+         */
+        default boolean confirmResume() {
+            return false;
+        }
+    }
+
+    /**
+     * Takes built requests in place of Repeater and the sitemap, e.g. to write them to files or
+     * hand them to another tool.
+     */
+    public interface RequestSink {
+        /**
+         * Sees every built request in collection order, on the pipeline thread, before it is sent.
+         * An IOException stops the import.
+         */
+        default void built(BuiltRequest request) throws IOException {
+        }
+
+        /**
+         * Takes the place of built() for a request that could not be built, in the same order.
+         */
+        default void buildFailed(int ordinal, String name, String path, String error) throws IOException {
+        }
+
+        /**
+         * Delivers one request, on a dispatch worker when concurrency is above 1. Throwing fails
+         * the request, and retryable failures are retried like sitemap sends.
+         */
+        void send(BuiltRequest request) throws Exception;
+    }
+
+    /**
+     * A rendered request as handed to a RequestSink.
+     */
+    public static class BuiltRequest {
+        public final int ordinal; // Position in the collection
+        public final String name;
+        public final String path;
+        public final HttpUtils.HostInfo hostInfo;
+        public final byte[] request;
+
+        BuiltRequest(int ordinal, String name, String path, HttpUtils.HostInfo hostInfo, byte[] request) {
+            this.ordinal = ordinal;
+            this.name = name;
+            this.path = path;
+            this.hostInfo = hostInfo;
+            this.request = request;
+        }
+    }
+
+    /**
+     * Current adaptive per-host limits of the running import, empty when none is running.
+     */
+    public Map<String, Integer> getHostConcurrencyLimits() {
+        AdaptiveConcurrency concurrency = activeConcurrency;
+        return concurrency == null ? Collections.emptyMap() : concurrency.snapshot();
+    }
+
+    /**
+     * Stage timings and throughput of the running import, or of the last one; null before any import.
+     */
+    public ImportMetrics getImportMetrics() {
+        return activeMetrics;
+    }
+
+    /**
+     * Starts timing the next import now, so work done before it (such as variable analysis) is
+     * part of its metrics.
+     */
+    public ImportMetrics startMetrics() {
+        ImportMetrics metrics = new ImportMetrics();
+        activeMetrics = metrics;
+        return metrics;
+    }
+
+    /**
+     * Imports every request of a collection to "repeater", "sitemap" or "both" on the calling thread.
+     */
+    public ImportResult runImport(File collectionFile, File environmentFile, String destination,
+                                  ImportSettings settings, ImportListener listener) {
+        return runImport(collectionFile, environmentFile, null, destination, null, settings, listener);
+    }
+
+    /**
+     * Imports only the requests whose collection paths are selected.
+     */
+    public ImportResult runImport(File collectionFile, File environmentFile, Set<String> selectedPaths,
+                                  String destination, ImportSettings settings, ImportListener listener) {
+        return runImport(collectionFile, environmentFile, selectedPaths, destination, null, settings, listener);
+    }
+
+    /**
+     * Renders every request of a collection and hands it to the sink instead of Burp. Nothing is
+     * journaled, and pre-flight checks, batching and response retention do not apply.
+     */
+    public ImportResult runImport(File collectionFile, File environmentFile, RequestSink sink,
+                                  ImportSettings settings, ImportListener listener) {
+        return runImport(collectionFile, environmentFile, null, "sink", sink, settings, listener);
+    }
+
+    private ImportResult runImport(File collectionFile, File environmentFile, Set<String> selectedPaths,
+                                   String destination, RequestSink sink, ImportSettings settings,
+                                   ImportListener listener) {
+        ImportResult result = new ImportResult();
+
+        try {
+            // Read collection info and variables; the requests themselves are streamed below
+            listener.log("Parsing collection file...");
+            CollectionHeader header = parser.readCollectionHeader(collectionFile);
+            result.collectionName = header.collection.info.name;
+
+            // Parse environment if provided
+            if (environmentFile != null) {
+                listener.log("Parsing environment file...");
+                PostmanEnvironment environment = parser.parseEnvironment(environmentFile);
+                variableResolver.addEnvironmentVariables(environment);
+            }
+
+            // Add collection variables
+            variableResolver.addCollectionVariables(header.collection);
+
+            int expectedRequests = selectedPaths != null ? selectedPaths.size() : header.requestCount;
+            result.totalRequests = expectedRequests;
+            if (selectedPaths != null) {
+                listener.log("Processing " + selectedPaths.size() + " selected requests...");
+            }
+
+            // Stream each request from the file into the import pipeline, passing on only the selected ones
+            ImportJournal journal = sink == null ?
+                openJournal(collectionFile, environmentFile, destination, selectedPaths, settings, listener) : null;
+            boolean finished = false;
+            try {
+                dispatchRequests(items -> {
+                    int[] ordinal = new int[1];
+                    parser.streamRequests(collectionFile, (name, path, request) -> {
+                        int id = ordinal[0]++;
+                        if (selectedPaths == null || selectedPaths.contains(path)) {
+                            items.accept(new RequestItem(id, name, path, request));
+                        }
+                    });
+                }, expectedRequests, journal, destination, sink, settings, result,
+                    sink != null ? "Rendered" : "Imported", "Failed", listener);
+                finished = !listener.cancelled();
+            } finally {
+                closeJournal(journal, finished);
+            }
+
+        } catch (Exception e) {
+            result.error = e.getMessage();
+            listener.log("Fatal error: " + e.getMessage());
+        }
+
+        return result;
+    }
+
+    /**
+     * Sends the failed requests of an earlier result again and returns the outcome of just those.
+     */
+    public ImportResult retryFailed(ImportResult previous, String destination, ImportSettings settings,
+                                    ImportListener listener) throws Exception {
+        ImportResult retryResult = new ImportResult();
+        retryResult.collectionName = previous.collectionName + " (Retry)";
+        retryResult.totalRequests = previous.failedRequestDetails.size();
+
+        StringBuilder byClass = new StringBuilder();
+        for (Map.Entry<FailureClass, Integer> entry : previous.failureCounts().entrySet()) {
+            byClass.append(byClass.length() > 0 ? ", " : "").append(entry.getKey().getLabel())
+                   .append(": ").append(entry.getValue());
+        }
+        listener.log("Retrying " + retryResult.totalRequests + " failed requests (" + byClass + ")...");
+
+        List<RequestItem> items = new ArrayList<>();
+        for (ImportResult.FailedRequestInfo failedInfo : previous.failedRequestDetails) {
+            // Requests with stored bytes are resent as rendered; the rest are built again
+            if (failedInfo.requestData instanceof RetryData) {
+                RetryData data = (RetryData) failedInfo.requestData;
+                items.add(new RequestItem(failedInfo.requestId, failedInfo.name, failedInfo.path,
+                    data.source, data.request != null ? data : null));
+            } else {
+                String error = "Invalid request data stored for retry";
+                retryResult.recordFailure(failedInfo.name, failedInfo.path, error, failedInfo.requestData);
+                listener.log("✗ Retry failed: " + failedInfo.name + " - " + error);
+            }
+        }
+
+        dispatchRequests(sink -> {
+            for (RequestItem item : items) {
+                sink.accept(item);
+            }
+        }, items.size(), null, destination, null, settings, retryResult, "Retry successful", "Retry failed",
+            listener);
+
+        return retryResult;
+    }
+
+    // Per-import state shared by every request sent during one dispatchRequests call
+    private static class ImportSession {
+        final boolean toRepeater;
+        final boolean toSitemap;
+        final RequestSink sink; // Takes every request instead of Repeater and the sitemap when set
+        final RateLimiter limiter;
+        final AdaptiveConcurrency concurrency; // Null when per-host limits are fixed
+        final CircuitBreaker breaker;
+        final RetryPolicy retry;
+        final HostPreflight preflight; // Null when hosts are not checked before their first send
+        final boolean skipUnreachableHosts;
+        final ImportJournal journal; // Null when outcomes are not journaled (retries)
+        final TabThrottle tabs;
+        final ResponseRetention retention;
+        final FailureStore failures;
+        final ImportMetrics metrics;
+        final AtomicInteger tabsNotOpened = new AtomicInteger(); // "Both" requests sent to the sitemap only
+        final java.util.function.BooleanSupplier cancelled;
+
+        ImportSession(boolean toRepeater, boolean toSitemap, RequestSink sink, RateLimiter limiter,
+                      AdaptiveConcurrency concurrency, CircuitBreaker breaker, RetryPolicy retry,
+                      HostPreflight preflight, boolean skipUnreachableHosts, ImportJournal journal, TabThrottle tabs,
+                      ResponseRetention retention, FailureStore failures, ImportMetrics metrics,
+                      java.util.function.BooleanSupplier cancelled) {
+            this.toRepeater = toRepeater;
+            this.toSitemap = toSitemap;
+            this.sink = sink;
+            this.limiter = limiter;
+            this.concurrency = concurrency;
+            this.breaker = breaker;
+            this.retry = retry;
+            this.preflight = preflight;
+            this.skipUnreachableHosts = skipUnreachableHosts;
+            this.journal = journal;
+            this.tabs = tabs;
+            this.retention = retention;
+            this.failures = failures;
+            this.metrics = metrics;
+            this.cancelled = cancelled;
+        }
+
+        // Waits out any Retry-After pause and takes a rate limiter token before a request is sent
+        void beforeSend(String hostKey) throws InterruptedException {
+            if (concurrency != null && !concurrency.awaitResume(hostKey, cancelled)) {
+                throw new CancellationException("Import cancelled");
+            }
+            limiter.acquireOrCancel(hostKey);
+        }
+
+        void afterSend(String hostKey, long startNanos, burp.api.montoya.http.message.HttpRequestResponse response) {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            metrics.recordSitemap(hostKey, elapsedNanos);
+            if (concurrency == null || response == null || response.response() == null) {
+                return;
+            }
+            burp.api.montoya.http.message.responses.HttpResponse httpResponse = response.response();
+            concurrency.onResponse(hostKey, elapsedNanos, httpResponse.statusCode(),
+                httpResponse.headerValue("Retry-After"), httpResponse.headerValue("X-RateLimit-Remaining"));
+        }
+    }
+
+    // Requests flow parse -> build -> dispatch through bounded queues, so the first one goes out
+    // while the rest of the collection is still being read, and memory stays flat on huge imports
+    private void dispatchRequests(StagedPipeline.Producer<RequestItem> source, int expectedRequests,
+                                  ImportJournal journal, String destination, RequestSink requestSink,
+                                  ImportSettings settings, ImportResult result, String successLabel,
+                                  String failureLabel, ImportListener listener)
+            throws Exception {
+        // Stage timings for the live status line and the summary; parse and analysis may already be in
+        ImportMetrics started = activeMetrics;
+        ImportMetrics metrics = started != null && !started.isFinished() ? started : new ImportMetrics();
+        metrics.restartClock();
+        activeMetrics = metrics;
+
+        AtomicInteger completed = new AtomicInteger();
+        Runnable progress = () -> {
+            metrics.requestCompleted();
+            listener.progress(Math.min(100, completed.incrementAndGet() * 100 / Math.max(1, expectedRequests)));
+        };
+
+        // Failed requests keep their rendered bytes so Retry can resend them without building again
+        FailureStore failures = failureStore(result);
+
+        // Requests an interrupted run already finished are carried over instead of sent again
+        StagedPipeline.Producer<RequestItem> pending = source;
+        if (journal != null && journal.resumedCount() > 0) {
+            listener.log("Resuming interrupted import: " + journal.resumedCount() + " requests already done (" +
+                         journal.resumedFailureCount() + " failed) will not be sent again");
+            pending = sink -> source.produce(item -> {
+                FailureClass failedBefore = journal.failedBefore(item.ordinal);
+                if (journal.succeededBefore(item.ordinal)) {
+                    result.recordSuccess();
+                    progress.run();
+                } else if (failedBefore != null) {
+                    result.recordFailure(item.ordinal, item.name, item.path, "Failed in the interrupted import",
+                        failedBefore, retryData(item, null, failures));
+                    progress.run();
+                } else {
+                    sink.accept(item);
+                }
+            });
+        }
+
+        boolean repeater = requestSink == null && !"sitemap".equalsIgnoreCase(destination);
+        boolean sitemap = requestSink == null && !"repeater".equalsIgnoreCase(destination);
+
+        // Every live request takes a token first; waiting gives up as soon as the import is cancelled
+        RateLimiter limiter = new RateLimiter(settings.globalRequestsPerSecond, settings.perHostRequestsPerSecond,
+            settings.rateLimitBurst, settings.rateLimitJitterMs, listener::cancelled);
+
+        // GraphQL operations bound for the sitemap can be grouped into batch requests per endpoint
+        int batchSize = settings.graphQLBatchSize;
+        GraphQLBatcher<PreparedRequest> batcher = batchSize > 1 && sitemap && !repeater ?
+            new GraphQLBatcher<>(batchSize) : null;
+
+        // Sends block on the network, so they run on a worker pool; Repeater-only imports stay in order
+        int concurrency = settings.concurrency;
+        boolean live = !repeater || sitemap;
+        AdaptiveConcurrency adaptive = live && settings.adaptiveConcurrency ?
+            new AdaptiveConcurrency(settings.perHostConcurrency, concurrency) : null;
+        // Transient failures are retried with backoff; a host that keeps failing is skipped
+        CircuitBreaker breaker = settings.circuitBreakerThreshold > 0 ?
+            new CircuitBreaker(settings.circuitBreakerThreshold, CIRCUIT_OPEN_MS) : CircuitBreaker.disabled();
+        RetryPolicy retry = live ? new RetryPolicy(settings.maxRetries, RETRY_BASE_DELAY_MS, RETRY_MAX_DELAY_MS) :
+            RetryPolicy.none();
+        // Each host is checked in the background when the import first meets it, rather than
+        // finding unreachable hosts one failed request at a time
+        HostPreflight preflight = sitemap && settings.preflight ? new HostPreflight(hostProbe,
+            probe -> listener.log("Pre-flight: " + (probe.reachable ? "✓ " : "✗ ") + probe)) : null;
+        // Tabs open at a steady pace, and hold back while Burp's UI is busy, so a big import can't freeze it
+        TabThrottle tabs = repeater ? new TabThrottle(settings.repeaterTabsPerSecond, settings.repeaterTabBatch,
+            settings.maxRepeaterTabs, listener::uiBusy, listener::cancelled) : TabThrottle.unlimited();
+        if (repeater && settings.maxRepeaterTabs > 0 && expectedRequests > settings.maxRepeaterTabs) {
+            listener.log("⚠ " + expectedRequests + " requests but at most " + settings.maxRepeaterTabs +
+                         " Repeater tabs are opened per import; raise the limit or import a selection");
+        }
+        // Large response bodies are trimmed before they reach the sitemap
+        ResponseRetention retention = new ResponseRetention(settings.responseRetention,
+            (int) Math.min(Integer.MAX_VALUE, settings.maxResponseBodyKb * 1024L), settings.droppedResponseTypes);
+        ImportSession session = new ImportSession(repeater, sitemap, requestSink, limiter, adaptive, breaker,
+            retry, preflight, settings.skipUnreachableHosts, journal, tabs, retention, failures, metrics,
+            listener::cancelled);
+        // While every worker is busy, the send order policy picks which waiting request goes next
+        RequestDispatcher dispatcher = concurrency > 1 && live ?
+            new RequestDispatcher(concurrency, settings.perHostConcurrency, settings.virtualThreads, adaptive,
+                DispatchScheduler.forOrder(settings.dispatchOrder, settings.priorityFolders)) : null;
+        if (dispatcher != null) {
+            dispatcher.setQueueLimit(PIPELINE_QUEUE_SIZE);
+        }
+        activeConcurrency = adaptive;
+        log.setFlushListener(nanos -> metrics.record(ImportMetrics.Stage.LOG_FLUSH, nanos));
+
+        // Parse time per request is what the source spends between hand-offs, not time blocked on a full queue
+        StagedPipeline.Producer<RequestItem> unparsed = pending;
+        StagedPipeline.Producer<RequestItem> timedSource = sink -> {
+            long[] parseStart = { System.nanoTime() };
+            unparsed.produce(item -> {
+                metrics.record(ImportMetrics.Stage.PARSE, System.nanoTime() - parseStart[0]);
+                sink.accept(item);
+                parseStart[0] = System.nanoTime();
+            });
+        };
+
+        StagedPipeline<RequestItem, PreparedRequest> pipeline =
+            new StagedPipeline<>(PIPELINE_QUEUE_SIZE, settings.builderThreads, listener::cancelled);
+        List<HostProbe.Result> unreachableHosts = Collections.emptyList();
+        try {
+            pipeline.run(timedSource, item -> {
+                long buildStart = System.nanoTime();
+                PreparedRequest prepared = prepareRequest(item, settings, session);
+                metrics.record(ImportMetrics.Stage.BUILD, System.nanoTime() - buildStart);
+                return prepared;
+            }, (item, prepared, error) -> {
+                if (requestSink != null) {
+                    try {
+                        if (error != null) {
+                            requestSink.buildFailed(item.ordinal, item.name, item.path, error.getMessage());
+                        } else {
+                            requestSink.built(prepared.built());
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                if (error != null) {
+                    recordFailure(item, FailureClass.OTHER, error.getMessage(), result, failureLabel, listener, session);
+                    progress.run();
+                    return;
+                }
+                if (preflight != null) {
+                    preflight.seen(prepared.hostInfo);
+                }
+                if (batcher != null && isBatchableGraphQL(item)) {
+                    GraphQLBatcher.Batch<PreparedRequest> batch = batcher.add(prepared, prepared.hostInfo,
+                        prepared.request);
+                    if (batch != null) {
+                        submitBatch(batch, dispatcher, result, successLabel, failureLabel, listener, session, progress);
+                    }
+                } else if (dispatcher != null) {
+                    // Blocks while the dispatcher's queue is full, which in turn pauses parsing
+                    dispatcher.submit(DispatchScheduler.Task.forRequest(hostKey(prepared.hostInfo), item.path,
+                        prepared.request, () -> {
+                            processAndRecord(prepared, result, successLabel, failureLabel, listener, session);
+                            progress.run();
+                        }), listener::cancelled);
+                } else {
+                    processAndRecord(prepared, result, successLabel, failureLabel, listener, session);
+                    progress.run();
+                }
+            });
+            if (batcher != null && !listener.cancelled()) {
+                for (GraphQLBatcher.Batch<PreparedRequest> batch : batcher.flush()) {
+                    submitBatch(batch, dispatcher, result, successLabel, failureLabel, listener, session, progress);
+                }
+            }
+            if (preflight != null && !listener.cancelled()) {
+                unreachableHosts = preflight.unreachable();
+            }
+        } finally {
+            // Also lets requests already handed over finish if parsing failed part way through
+            if (dispatcher != null) {
+                dispatcher.awaitCompletion(listener::cancelled);
+            }
+            activeConcurrency = null;
+            log.setFlushListener(null);
+            if (preflight != null) {
+                preflight.close();
+            }
+        }
+
+        if (retention.getTrimmedCount() > 0) {
+            listener.log(String.format("Response retention: trimmed %d response%s, %.1f MB not stored in the sitemap",
+                retention.getTrimmedCount(), retention.getTrimmedCount() == 1 ? "" : "s",
+                retention.getBytesSaved() / (1024.0 * 1024.0)));
+        }
+        if (tabs.getPausedMillis() > 0) {
+            listener.log("Repeater tab creation paused " + tabs.getPausedMillis() + " ms while Burp's UI was busy");
+        }
+        if (result.skippedCount > 0) {
+            listener.log("⚠ " + result.skippedCount + " requests were skipped: the limit of " + tabs.getMaxTabs() +
+                         " Repeater tabs per import was reached");
+        }
+        if (session.tabsNotOpened.get() > 0) {
+            listener.log("⚠ " + session.tabsNotOpened.get() + " requests went to the sitemap only: the limit of " +
+                         tabs.getMaxTabs() + " Repeater tabs per import was reached");
+        }
+
+        if (!unreachableHosts.isEmpty()) {
+            listener.log("Pre-flight: " + unreachableHosts.size() + " of " + preflight.size() + " hosts unreachable" +
+                (settings.skipUnreachableHosts ? " - their requests were skipped once Burp could not reach them either" :
+                    " - their requests probably failed (enable 'Skip unreachable hosts' to skip them)"));
+        }
+
+        Set<String> openHosts = breaker.openHosts();
+        if (!openHosts.isEmpty()) {
+            listener.log("⚠ Stopped sending to hosts that kept failing: " + String.join(", ", openHosts));
+        }
+
+        metrics.finish();
+        result.metricsReport = metrics.report();
+    }
+
+    private void processAndRecord(PreparedRequest prepared, ImportResult result,
+                                  String successLabel, String failureLabel, ImportListener listener,
+                                  ImportSession session) {
+        RequestItem item = prepared.item;
+        try {
+            if (sendRequest(prepared, session)) {
+                recordSuccess(item, result, "✓ " + successLabel + ": " + item.name, listener, session);
+            } else {
+                // Not journaled, so resuming the import still opens its tab
+                result.recordSkipped();
+                listener.log("– Skipped: " + item.name + " - Repeater tab limit reached");
+            }
+        } catch (CancellationException e) {
+            // Cancelled while waiting for the rate limiter - the request was never sent
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            recordFailure(prepared, e, result, failureLabel, listener, session);
+        }
+    }
+
+    private void recordSuccess(RequestItem item, ImportResult result, String message, ImportListener listener,
+                               ImportSession session) {
+        result.recordSuccess();
+        listener.log(message);
+        journal(session, item, null);
+    }
+
+    private void recordFailure(PreparedRequest prepared, Exception error, ImportResult result,
+                               String failureLabel, ImportListener listener, ImportSession session) {
+        FailureClass failureClass = error instanceof RequestFailure ?
+            ((RequestFailure) error).getFailureClass() : FailureClass.classify(error);
+        recordFailure(prepared.item, prepared, failureClass, error.getMessage(), result, failureLabel, listener,
+            session);
+    }
+
+    private void recordFailure(RequestItem item, FailureClass failureClass, String error, ImportResult result,
+                               String failureLabel, ImportListener listener, ImportSession session) {
+        recordFailure(item, null, failureClass, error, result, failureLabel, listener, session);
+    }
+
+    private void recordFailure(RequestItem item, PreparedRequest prepared, FailureClass failureClass, String error,
+                               ImportResult result, String failureLabel, ImportListener listener,
+                               ImportSession session) {
+        result.recordFailure(item.ordinal, item.name, item.path, error, failureClass,
+            retryData(item, prepared, session.failures));
+        listener.log("✗ " + failureLabel + ": " + item.name + " - [" + failureClass.getLabel() + "] " + error);
+        journal(session, item, failureClass);
+    }
+
+    // Keeps only what Retry needs: the rendered bytes when they can be resent as they are, otherwise
+    // the parsed request (build failures, and persisted queries whose bytes depend on the destination)
+    private RetryData retryData(RequestItem item, PreparedRequest prepared, FailureStore failures) {
+        if (prepared != null && !prepared.destinationSpecific) {
+            try {
+                FailureStore.Ref request = failures.put(prepared.request);
+                FailureStore.Ref sitemapRequest = prepared.sitemapRequest == prepared.request ? null :
+                    failures.put(prepared.sitemapRequest);
+                return new RetryData(prepared.hostInfo, request, sitemapRequest, null);
+            } catch (IOException e) {
+                log.error(Log.Category.IMPORT, "Could not store failed request for retry: " + e.getMessage());
+            }
+        }
+        return new RetryData(null, null, null, item.request);
+    }
+
+    // One store per import result, released when that result is replaced
+    private static synchronized FailureStore failureStore(ImportResult result) {
+        if (!(result.retryStorage instanceof FailureStore)) {
+            result.retryStorage = new FailureStore();
+        }
+        return (FailureStore) result.retryStorage;
+    }
+
+    // Best effort - an import is never failed because its journal could not be written
+    private void journal(ImportSession session, RequestItem item, FailureClass failure) {
+        if (session.journal == null) {
+            return;
+        }
+        try {
+            if (failure == null) {
+                session.journal.recordSuccess(item.ordinal);
+            } else {
+                session.journal.recordFailure(item.ordinal, failure);
+            }
+        } catch (java.io.IOException e) {
+            log.error(Log.Category.IMPORT, "Could not write import journal: " + e.getMessage());
+        }
+    }
+
+    private ImportJournal openJournal(File collectionFile, File environmentFile, String destination,
+                                      Collection<String> selectedPaths, ImportSettings settings,
+                                      ImportListener listener) {
+        try {
+            List<String> selection = selectedPaths == null ? Collections.emptyList() : new ArrayList<>(selectedPaths);
+            Collections.sort(selection);
+            // Everything that changes the requests sent: manual variable overrides are not in
+            // the files, and persisted queries or batching change the bodies
+            StringBuilder variables = new StringBuilder();
+            for (Map.Entry<String, String> variable : new TreeMap<>(variableResolver.getVariables()).entrySet()) {
+                variables.append(variable.getKey()).append('=').append(variable.getValue()).append('\n');
+            }
+            String key = ImportJournal.fingerprint(new File[] {collectionFile, environmentFile},
+                destination.toLowerCase(), String.join("\n", selection), variables.toString(),
+                "persistedQueries=" + settings.persistedQueries, "graphQLBatchSize=" + settings.graphQLBatchSize);
+            File directory = ImportJournal.defaultDirectory();
+            boolean resume = ImportJournal.exists(directory, key) && (settings.resume || listener.confirmResume());
+            return ImportJournal.open(directory, key, resume);
+        } catch (Exception e) {
+            log.error(Log.Category.IMPORT, "Import journal unavailable, this import cannot be resumed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void closeJournal(ImportJournal journal, boolean finished) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close(finished);
+        } catch (java.io.IOException e) {
+            log.error(Log.Category.IMPORT, "Could not close import journal: " + e.getMessage());
+        }
+    }
+
+    // Batches go through the dispatcher like single requests, so they share its concurrency and per-host limits
+    private void submitBatch(GraphQLBatcher.Batch<PreparedRequest> batch, RequestDispatcher dispatcher,
+                             ImportResult result, String successLabel, String failureLabel,
+                             ImportListener listener, ImportSession session, Runnable progress)
+            throws InterruptedException {
+        Runnable work = () -> {
+            processBatch(batch, result, successLabel, failureLabel, listener, session);
+            for (int i = 0; i < batch.size(); i++) {
+                progress.run();
+            }
+        };
+        if (dispatcher != null) {
+            dispatcher.submit(new DispatchScheduler.Task(batch.hostKey(), batch.operations().get(0).item.path,
+                "POST", batch.bodyLength(), work), listener::cancelled);
+        } else {
+            work.run();
+        }
+    }
+
+    private void processBatch(GraphQLBatcher.Batch<PreparedRequest> batch, ImportResult result,
+                              String successLabel, String failureLabel, ImportListener listener,
+                              ImportSession session) {
+        List<burp.api.montoya.http.message.HttpRequestResponse> parts;
+        try {
+            parts = batch.size() > 1 ? sendBatch(batch, session) : null;
+        } catch (CancellationException e) {
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            // A failed batch fails every operation in it
+            for (PreparedRequest prepared : batch.operations()) {
+                recordFailure(prepared, e, result, failureLabel, listener, session);
+            }
+            return;
+        }
+
+        if (parts == null) {
+            // A lone operation, or an endpoint that does not batch - each is sent on its own
+            for (PreparedRequest prepared : batch.operations()) {
+                processAndRecord(prepared, result, successLabel, failureLabel, listener, session);
+            }
+            return;
+        }
+        for (int i = 0; i < parts.size(); i++) {
+            recordBatchedOperation(batch.operations().get(i), parts.get(i), result, successLabel, failureLabel,
+                listener, session);
+        }
+    }
+
+    // Sends a batch with the same failure handling as sendToSitemap. Returns the response split per
+    // operation, or null if the endpoint answered but does not support batching
+    private List<burp.api.montoya.http.message.HttpRequestResponse> sendBatch(
+            GraphQLBatcher.Batch<PreparedRequest> batch, ImportSession session) throws Exception {
+        String hostKey = batch.hostKey();
+        String batchName = "batch of " + batch.size() + " operations";
+        burp.api.montoya.http.message.requests.HttpRequest batchRequest = batch.request();
+
+        HostProbe.Result unreachable = session.preflight != null && session.skipUnreachableHosts ?
+            session.preflight.skipReason(hostKey) : null;
+        if (unreachable != null) {
+            throw new RequestFailure(unreachable.failure, "Skipped - host unreachable in pre-flight check and " +
+                "through Burp (" + unreachable.detail + ")");
+        }
+
+        for (int retries = 0; ; retries++) {
+            if (!session.breaker.allowRequest(hostKey)) {
+                throw new RequestFailure(FailureClass.CIRCUIT_OPEN,
+                    "Skipped - " + batchRequest.httpService().host() + " failed repeatedly (circuit breaker open)");
+            }
+
+            burp.api.montoya.http.message.HttpRequestResponse response = null;
+            FailureClass failureClass;
+            String errorMsg;
+            try {
+                session.beforeSend(hostKey);
+                long startNanos = System.nanoTime();
+                response = api.http().sendRequest(batchRequest);
+                session.afterSend(hostKey, startNanos, response);
+                if (response.response() == null) {
+                    failureClass = FailureClass.CONNECT;
+                    errorMsg = "No response received - host may be down or unreachable";
+                } else {
+                    failureClass = FailureClass.forStatus(response.response().statusCode());
+                    errorMsg = "HTTP " + response.response().statusCode();
+                }
+                if (session.preflight != null) {
+                    session.preflight.recordSend(hostKey, response.response() != null);
+                }
+                if (failureClass == null) {
+                    session.breaker.onSuccess(hostKey);
+                    return GraphQLBatcher.split(batch, response);
+                }
+            } catch (CancellationException | InterruptedException e) {
+                session.breaker.release(hostKey);
+                throw e;
+            } catch (Exception e) {
+                failureClass = FailureClass.classify(e);
+                errorMsg = describeSitemapError(e, batchName);
+                if (session.preflight != null) {
+                    session.preflight.recordSend(hostKey, false);
+                }
+            }
+
+            if (session.breaker.onFailure(hostKey, failureClass)) {
+                log.error(Log.Category.SITEMAP, "Circuit breaker opened for " + hostKey + " after repeated " +
+                          failureClass.getLabel() + " failures");
+            }
+            if (!session.retry.shouldRetry(failureClass, retries)) {
+                throw new RequestFailure(failureClass, (retries > 0 ?
+                    errorMsg + " (after " + (retries + 1) + " attempts)" : errorMsg) + " - " + batchName);
+            }
+
+            log.info(Log.Category.SITEMAP, "Retrying " + batchName + " to " + hostKey + " after " +
+                     failureClass.getLabel() + " failure (attempt " + (retries + 2) + ")");
+            session.retry.awaitBackoff(retries, session.cancelled);
+        }
+    }
+
+    private void recordBatchedOperation(PreparedRequest prepared,
+                                        burp.api.montoya.http.message.HttpRequestResponse response,
+                                        ImportResult result, String successLabel, String failureLabel,
+                                        ImportListener listener, ImportSession session) {
+        RequestItem item = prepared.item;
+        if (isPersistedQueryNotFound(response)) {
+            // Batched persisted query the server has not seen yet - resend this one with the full query
+            String fullBody = RequestBuilder.expandPersistedQuery(response.request().bodyToString(),
+                prepared.persistedQuery);
+            if (fullBody != null) {
+                String hostKey = hostKey(response.request().httpService());
+                try {
+                    session.beforeSend(hostKey);
+                    long startNanos = System.nanoTime();
+                    response = api.http().sendRequest(response.request().withBody(fullBody));
+                    session.afterSend(hostKey, startNanos, response);
+                } catch (CancellationException e) {
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    recordFailure(item, FailureClass.classify(e), describeSitemapError(e, item.name),
+                        result, failureLabel, listener, session);
+                    return;
+                }
+                FailureClass failureClass = response.response() == null ? FailureClass.CONNECT :
+                    FailureClass.forStatus(response.response().statusCode());
+                if (failureClass != null) {
+                    addToSitemap(response, item.name, session);
+                    recordFailure(item, prepared, failureClass, response.response() == null ?
+                        "No response received - host may be down or unreachable" :
+                        "HTTP " + response.response().statusCode(), result, failureLabel, listener, session);
+                    return;
+                }
+            }
+            if (isPersistedQueryNotFound(response)) {
+                addToSitemap(response, item.name, session);
+                recordFailure(item, prepared, FailureClass.OTHER, PERSISTED_QUERY_NOT_FOUND, result,
+                    failureLabel, listener, session);
+                return;
+            }
+        }
+
+        addToSitemap(response, item.name, session);
+        recordSuccess(item, result, "✓ " + successLabel + ": " + item.name + " (batched)", listener, session);
+    }
+
+    private boolean isBatchableGraphQL(RequestItem item) {
+        PostmanCollection.Request request = item.request;
+        return request != null && request.body != null && "graphql".equals(request.body.mode) &&
+               (request.method == null || "POST".equalsIgnoreCase(request.method));
+    }
+
+    private HttpUtils.HostInfo resolveHostInfo(RequestItem item) throws Exception {
+        if (item.retry != null) {
+            return item.retry.hostInfo;
+        }
+
+        // Extract host and port from URL
+        String resolvedUrl = requestBuilder.resolveUrl(item.request);
+        if (resolvedUrl == null) {
+            throw new Exception("Unable to extract URL from request");
+        }
+        return HttpUtils.parseUrl(resolvedUrl);
+    }
+
+    // Build stage: renders the request bytes and resolves the target, off the dispatch thread
+    private PreparedRequest prepareRequest(RequestItem item, ImportSettings settings, ImportSession session)
+            throws Exception {
+        // Retried requests are resent exactly as they were rendered the first time
+        RetryData retry = item.retry;
+        if (retry != null) {
+            byte[] request = retry.request.load();
+            byte[] sitemapRequest = retry.sitemapRequest != null ? retry.sitemapRequest.load() : request;
+            return new PreparedRequest(item, retry.hostInfo, request, sitemapRequest, false, null);
+        }
+
+        // Sitemap and sink requests may use GraphQL persisted queries; Repeater tabs always get the full query
+        boolean persistedQuery = settings.persistedQueries && item.request.body != null &&
+                                 "graphql".equals(item.request.body.mode);
+
+        // Build the HTTP request
+        byte[] request = requestBuilder.buildRequest(item.request, persistedQuery && !session.toRepeater);
+        byte[] sitemapRequest = persistedQuery && session.toRepeater && session.toSitemap ?
+            requestBuilder.buildRequest(item.request, true) : request;
+        // Kept with the request until its response is in, for servers that do not know the hash yet
+        String fullQuery = persistedQuery && session.toSitemap ? requestBuilder.resolveGraphQLQuery(item.request) : null;
+
+        return new PreparedRequest(item, resolveHostInfo(item), request, sitemapRequest, persistedQuery, fullQuery);
+    }
+
+    // False if the request was skipped rather than sent: a Repeater-only import past its tab limit
+    private boolean sendRequest(PreparedRequest prepared, ImportSession session) throws Exception {
+        RequestItem item = prepared.item;
+        HttpUtils.HostInfo hostInfo = prepared.hostInfo;
+
+        if (session.sink != null) {
+            sendToSink(prepared, session);
+        } else if (!session.toSitemap) {
+            return openRepeaterTab(hostInfo, prepared.request, item, session);
+        } else if (session.toRepeater) {
+            if (!openRepeaterTab(hostInfo, prepared.request, item, session)) {
+                session.tabsNotOpened.incrementAndGet();
+            }
+            sendToSitemap(hostInfo, prepared.sitemapRequest, prepared.persistedQuery, item.name, session);
+        } else {
+            sendToSitemap(hostInfo, prepared.request, prepared.persistedQuery, item.name, session);
+        }
+        return true;
+    }
+
+    private void sendToSink(PreparedRequest prepared, ImportSession session) throws Exception {
+        BuiltRequest built = prepared.built();
+        for (int retries = 0; ; retries++) {
+            try {
+                session.sink.send(built);
+                return;
+            } catch (CancellationException | InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                FailureClass failureClass = e instanceof RequestFailure ?
+                    ((RequestFailure) e).getFailureClass() : FailureClass.classify(e);
+                if (!session.retry.shouldRetry(failureClass, retries)) {
+                    throw e;
+                }
+            }
+            session.retry.awaitBackoff(retries, session.cancelled);
+        }
+    }
+
+    // Waits for the tab throttle; false if this import already opened its maximum number of tabs
+    private boolean openRepeaterTab(HttpUtils.HostInfo hostInfo, byte[] request, RequestItem item,
+                                    ImportSession session) throws InterruptedException {
+        if (!session.tabs.acquire()) {
+            return false;
+        }
+        long startNanos = System.nanoTime();
+        sendToRepeater(hostInfo, request, repeaterTabName(item));
+        session.metrics.record(ImportMetrics.Stage.REPEATER, System.nanoTime() - startNanos);
+        return true;
+    }
+
+    // Unique tab name; only taken for requests that actually open a tab
+    private String repeaterTabName(RequestItem item) {
+        return tabNamer.nextName(TabNamer.baseName(item.path, item.name));
+    }
+
+    private void sendToRepeater(HttpUtils.HostInfo hostInfo, byte[] request, String tabName) {
+        // Create HTTP service
+        burp.api.montoya.http.HttpService httpService = burp.api.montoya.http.HttpService.httpService(
+            hostInfo.host,
+            hostInfo.port,
+            hostInfo.useHttps
+        );
+
+        // Create HTTP request from raw bytes
+        burp.api.montoya.http.message.requests.HttpRequest httpRequest = 
+            burp.api.montoya.http.message.requests.HttpRequest.httpRequest(httpService, 
+                burp.api.montoya.core.ByteArray.byteArray(request));
+
+        // Send to repeater with tab name
+        api.repeater().sendToRepeater(httpRequest, tabName);
+    }
+
+    private void sendToSitemap(HttpUtils.HostInfo hostInfo, byte[] request, String persistedQuery,
+                               String requestName, ImportSession session) throws Exception {
+        // Create HTTP service
+        burp.api.montoya.http.HttpService httpService = burp.api.montoya.http.HttpService.httpService(
+            hostInfo.host,
+            hostInfo.port,
+            hostInfo.useHttps
+        );
+
+        // Debug logging
+        log.debug(Log.Category.SITEMAP, () -> "Creating sitemap request for " + requestName);
+        log.debug(Log.Category.SITEMAP, () -> "Host: " + hostInfo.host + ", Port: " + hostInfo.port + ", HTTPS: " + hostInfo.useHttps);
+
+        String hostKey = hostKey(httpService);
+        burp.api.montoya.http.message.requests.HttpRequest httpRequest = 
+            burp.api.montoya.http.message.requests.HttpRequest.httpRequest(httpService, 
+                burp.api.montoya.core.ByteArray.byteArray(request));
+
+        // Only skipped once Burp failed to reach the host too, as the probe bypasses any upstream proxy
+        HostProbe.Result unreachable = session.preflight != null && session.skipUnreachableHosts ?
+            session.preflight.skipReason(hostKey) : null;
+        if (unreachable != null) {
+            throw new RequestFailure(unreachable.failure, "Skipped - host unreachable in pre-flight check and " +
+                "through Burp (" + unreachable.detail + ")");
+        }
+
+        for (int retries = 0; ; retries++) {
+            // A host that keeps failing is skipped instead of failing every remaining request slowly
+            if (!session.breaker.allowRequest(hostKey)) {
+                throw new RequestFailure(FailureClass.CIRCUIT_OPEN,
+                    "Skipped - " + hostInfo.host + " failed repeatedly (circuit breaker open)");
+            }
+
+            burp.api.montoya.http.message.HttpRequestResponse response = null;
+            FailureClass failureClass;
+            String errorMsg;
+            try {
+                response = sendOnce(httpRequest, persistedQuery, hostKey, requestName, session);
+                if (response.response() == null) {
+                    failureClass = FailureClass.CONNECT;
+                    errorMsg = "No response received - host may be down or unreachable";
+                } else if (isPersistedQueryNotFound(response)) {
+                    failureClass = FailureClass.OTHER;
+                    errorMsg = PERSISTED_QUERY_NOT_FOUND;
+                } else {
+                    failureClass = FailureClass.forStatus(response.response().statusCode());
+                    errorMsg = "HTTP " + response.response().statusCode();
+                }
+                if (failureClass == null) {
+                    session.breaker.onSuccess(hostKey);
+                    if (session.preflight != null) {
+                        session.preflight.recordSend(hostKey, true);
+                    }
+                    addToSitemap(response, requestName, session);
+                    return;
+                }
+            } catch (CancellationException | InterruptedException e) {
+                // Never reported, so a cancelled probe must not keep the host blocked
+                session.breaker.release(hostKey);
+                throw e;
+            } catch (Exception e) {
+                failureClass = FailureClass.classify(e);
+                errorMsg = describeSitemapError(e, requestName);
+            }
+            if (session.preflight != null) {
+                session.preflight.recordSend(hostKey, response != null && response.response() != null);
+            }
+
+            if (session.breaker.onFailure(hostKey, failureClass)) {
+                log.error(Log.Category.SITEMAP, "Circuit breaker opened for " + hostKey + " after repeated " +
+                          failureClass.getLabel() + " failures");
+            }
+            if (!session.retry.shouldRetry(failureClass, retries)) {
+                // Keep the last error response in the sitemap even though the request counts as failed
+                addToSitemap(response, requestName, session);
+                throw new RequestFailure(failureClass, retries > 0 ?
+                    errorMsg + " (after " + (retries + 1) + " attempts)" : errorMsg);
+            }
+
+            log.info(Log.Category.SITEMAP, "Retrying " + requestName + " after " + failureClass.getLabel() +
+                     " failure (attempt " + (retries + 2) + ")");
+            session.retry.awaitBackoff(retries, session.cancelled);
+        }
+    }
+
+    // Sends once, waiting for a rate limiter token (and any Retry-After pause) first
+    private burp.api.montoya.http.message.HttpRequestResponse sendOnce(
+            burp.api.montoya.http.message.requests.HttpRequest httpRequest, String persistedQuery, String hostKey,
+            String requestName, ImportSession session) throws Exception {
+        session.beforeSend(hostKey);
+
+        // Make actual HTTP request to populate sitemap
+        log.debug(Log.Category.SITEMAP, () -> "Making HTTP request to " + hostKey);
+        long startNanos = System.nanoTime();
+        burp.api.montoya.http.message.HttpRequestResponse response = api.http().sendRequest(httpRequest);
+        session.afterSend(hostKey, startNanos, response);
+
+        // Server does not know the persisted query hash yet - resend with the full query
+        if (isPersistedQueryNotFound(response)) {
+            String fullBody = RequestBuilder.expandPersistedQuery(httpRequest.bodyToString(), persistedQuery);
+            if (fullBody != null) {
+                log.debug(Log.Category.SITEMAP, () -> "Persisted query not found, resending " + requestName + " in full");
+                session.beforeSend(hostKey);
+                startNanos = System.nanoTime();
+                response = api.http().sendRequest(httpRequest.withBody(fullBody));
+                session.afterSend(hostKey, startNanos, response);
+            }
+        }
+        return response;
+    }
+
+    private void addToSitemap(burp.api.montoya.http.message.HttpRequestResponse response, String requestName,
+                              ImportSession session) {
+        if (response != null) {
+            log.debug(Log.Category.SITEMAP, () -> "Received response for " + requestName);
+
+            if (response.response() != null) {
+                // Add to sitemap through HTTP history
+                api.siteMap().add(retain(response, session.retention));
+                short statusCode = response.response().statusCode();
+                log.info(Log.Category.SITEMAP, "Sitemap: " + requestName + " -> HTTP " + statusCode);
+
+                log.debug(Log.Category.SITEMAP, () -> "Added " + requestName + " to sitemap");
+                // Also log the URL for verification
+                log.debug(Log.Category.SITEMAP, () -> "Sitemap URL: " + response.request().url());
+            } else {
+                log.debug(Log.Category.SITEMAP, () -> "Response was null for " + requestName);
+            }
+        } else {
+            log.debug(Log.Category.SITEMAP, () -> "No response received for " + requestName);
+        }
+    }
+
+    // Applies the retention policy, marking trimmed responses with their original body length
+    private burp.api.montoya.http.message.HttpRequestResponse retain(
+            burp.api.montoya.http.message.HttpRequestResponse response, ResponseRetention retention) {
+        if (retention.getMode() == RetentionMode.FULL) {
+            return response;
+        }
+        burp.api.montoya.http.message.responses.HttpResponse httpResponse = response.response();
+        burp.api.montoya.core.ByteArray body = httpResponse.body();
+        int length = body.length();
+        int kept = retention.keptBodyLength(httpResponse.headerValue("Content-Type"), length);
+        if (kept >= length) {
+            return response;
+        }
+
+        burp.api.montoya.core.ByteArray keptBody = kept > 0 ?
+            body.subArray(0, kept).withAppended(ResponseRetention.truncationMarker(length)) :
+            burp.api.montoya.core.ByteArray.byteArray(new byte[0]);
+        burp.api.montoya.http.message.responses.HttpResponse trimmed = httpResponse.withBody(keptBody)
+            .withAddedHeader(ResponseRetention.TRIMMED_HEADER, String.valueOf(length));
+        retention.recordTrimmed(length - keptBody.length());
+        log.debug(Log.Category.SITEMAP, () -> "Trimmed response body from " + length + " to " + keptBody.length() + " bytes");
+        return burp.api.montoya.http.message.HttpRequestResponse.httpRequestResponse(
+            response.request(), trimmed, response.annotations());
+    }
+
+    private String describeSitemapError(Exception e, String requestName) {
+        // Check for specific network error types and provide clean error messages
+        String message = String.valueOf(e.getMessage());
+        String errorMsg;
+        if (e.getCause() instanceof java.net.UnknownHostException || 
+            message.contains("UnknownHostException")) {
+            // Extract hostname from the exception for cleaner error message
+            String hostname = extractHostnameFromError(message);
+            if (hostname != null) {
+                errorMsg = "DNS resolution failed for hostname: " + hostname + " (VPN/internal network required?)";
+            } else {
+                errorMsg = "Hostname not accessible - check network connectivity or VPN connection";
+            }
+            log.error(Log.Category.SITEMAP, "Sitemap connectivity issue for " + requestName + ": " + errorMsg);
+        } else if (e.getCause() instanceof java.net.ConnectException || 
+                   message.contains("ConnectException")) {
+            errorMsg = "Connection refused or timeout - service may be down or firewalled";
+            log.error(Log.Category.SITEMAP, "Sitemap connection failed for " + requestName + ": " + errorMsg);
+        } else {
+            errorMsg = "Request failed: " + extractCleanErrorMessage(e);
+            log.error(Log.Category.SITEMAP, "Failed to send " + requestName + " to sitemap: " + errorMsg);
+        }
+        return errorMsg;
+    }
+
+    private static String hostKey(burp.api.montoya.http.HttpService service) {
+        return service.host() + ":" + service.port();
+    }
+
+    private static String hostKey(HttpUtils.HostInfo hostInfo) {
+        return hostInfo.host + ":" + hostInfo.port;
+    }
+
+    private boolean isPersistedQueryNotFound(burp.api.montoya.http.message.HttpRequestResponse response) {
+        if (response == null || response.response() == null) {
+            return false;
+        }
+        String body = response.response().bodyToString();
+        return body.contains("PersistedQueryNotFound") || body.contains("PERSISTED_QUERY_NOT_FOUND");
+    }
+
+    private String extractHostnameFromError(String errorMessage) {
+        // Try to extract hostname from UnknownHostException message
+        // Example: "java.lang.RuntimeException: java.net.UnknownHostException: hostname.example.com"
+        if (errorMessage.contains("UnknownHostException")) {
+            String[] parts = errorMessage.split("UnknownHostException:");
+            if (parts.length > 1) {
+                String hostname = parts[1].trim();
+                // Remove any trailing text that might be part of the exception
+                int spaceIndex = hostname.indexOf(' ');
+                if (spaceIndex > 0) {
+                    hostname = hostname.substring(0, spaceIndex);
+                }
+                return hostname;
+            }
+        }
+        return null;
+    }
+
+    private String extractCleanErrorMessage(Exception e) {
+        String message = e.getMessage();
+        if (message == null) {
+            return e.getClass().getSimpleName();
+        }
+
+        // Clean up common exception chain patterns
+        if (message.startsWith("java.lang.RuntimeException:")) {
+            message = message.substring("java.lang.RuntimeException:".length()).trim();
+        }
+        if (message.startsWith("java.net.")) {
+            int colonIndex = message.indexOf(':');
+            if (colonIndex > 0) {
+                message = message.substring(colonIndex + 1).trim();
+            }
+        }
+
+        return message.isEmpty() ? e.getClass().getSimpleName() : message;
+    }
+
+    private static class PreparedRequest {
+        final RequestItem item;
+        final HttpUtils.HostInfo hostInfo;
+        final byte[] request;
+        final byte[] sitemapRequest; // Same as request unless the sitemap copy uses a persisted query
+        final boolean destinationSpecific; // Bytes depend on the destination (persisted queries)
+        final String persistedQuery; // Full query behind a hash-only sitemap body, null if none
+
+        PreparedRequest(RequestItem item, HttpUtils.HostInfo hostInfo, byte[] request, byte[] sitemapRequest,
+                        boolean destinationSpecific, String persistedQuery) {
+            this.item = item;
+            this.hostInfo = hostInfo;
+            this.request = request;
+            this.sitemapRequest = sitemapRequest;
+            this.destinationSpecific = destinationSpecific;
+            this.persistedQuery = persistedQuery;
+        }
+
+        BuiltRequest built() {
+            return new BuiltRequest(item.ordinal, item.name, item.path, hostInfo, request);
+        }
+    }
+
+    // Stored with a failed request. Rendered requests carry their bytes and host, and no parsed
+    // request, so a finished import doesn't keep collection objects alive
+    private static class RetryData {
+        final HttpUtils.HostInfo hostInfo;
+        final FailureStore.Ref request; // Null when the request has to be built again
+        final FailureStore.Ref sitemapRequest; // Null when the same as request
+        final PostmanCollection.Request source; // Null when the rendered bytes are stored
+
+        RetryData(HttpUtils.HostInfo hostInfo, FailureStore.Ref request, FailureStore.Ref sitemapRequest,
+                  PostmanCollection.Request source) {
+            this.hostInfo = hostInfo;
+            this.request = request;
+            this.sitemapRequest = sitemapRequest;
+            this.source = source;
+        }
+    }
+
+    private static class RequestItem {
+        final int ordinal; // Position in the collection, which identifies the request in the import journal
+        final String name;
+        final String path;
+        final PostmanCollection.Request request; // Null for retries of already rendered requests
+        final RetryData retry; // Set when retrying a request that was rendered before
+
+        RequestItem(int ordinal, String name, String path, PostmanCollection.Request request) {
+            this(ordinal, name, path, request, null);
+        }
+
+        RequestItem(int ordinal, String name, String path, PostmanCollection.Request request, RetryData retry) {
+            this.ordinal = ordinal;
+            this.name = name;
+            this.path = path;
+            this.request = request;
+            this.retry = retry;
+        }
+    }
+}
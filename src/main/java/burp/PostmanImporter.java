@@ -5,8 +5,8 @@
  * Author: Abdulrahman Oyekunle
  * GitHub: https://github.com/nerdygenii/postman-burp-importer
  * 
- * This class handles the core functionality of importing Postman collections,
- * processing variables, and converting requests to Burp Suite format.
+ * This class drives imports from the extension's UI: previews, variable
+ * resolution and request selection. The import itself runs in ImportEngine.
  */
 
 package burp;
@@ -20,38 +20,66 @@ import com.google.gson.*;
 import javax.swing.*;
 import java.io.File;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class PostmanImporter {
     private final MontoyaApi api;
+    private final Log log;
     private final ImporterPanel ui;
     private final PostmanParser parser;
     private final VariableResolver variableResolver;
-    private final RequestBuilder requestBuilder;
     private final VariableDetector variableDetector; // Added variable detector
-    private final Set<String> existingTabs = ConcurrentHashMap.newKeySet();
-    private final boolean debugMode = true; // Set to false to reduce logging
+    private final ImportEngine engine; // Runs the imports this class sets up from the UI
+    private static final int EDT_BUSY_MS = 200;
+    private final EdtMonitor edtMonitor = new EdtMonitor(EDT_BUSY_MS);
     private ImportResult lastImportResult; // Store last import result for retry functionality
     private boolean variablesAlreadyResolved = false; // Flag to prevent double dialog
     
     public PostmanImporter(MontoyaApi api) {
         this.api = api;
+        this.log = new Log(api.logging());
         this.parser = new PostmanParser();
         this.variableResolver = new VariableResolver();
-        this.requestBuilder = new RequestBuilder(api, variableResolver);
-        this.variableDetector = new VariableDetector(variableResolver, api); // Pass API for logging
+        this.variableDetector = new VariableDetector(variableResolver, log);
+        this.engine = new ImportEngine(api, log, variableResolver);
         this.ui = new ImporterPanel(this);
     }
     
+    public Log getLog() {
+        return log;
+    }
+    
+    /**
+     * Current adaptive per-host limits of the running import, empty when none is running.
+     */
+    public Map<String, Integer> getHostConcurrencyLimits() {
+        return engine.getHostConcurrencyLimits();
+    }
+    
+    /**
+     * Stage timings and throughput of the running import, or of the last one; null before any import.
+     */
+    public ImportMetrics getImportMetrics() {
+        return engine.getImportMetrics();
+    }
+    
+    /**
+     * Flushes pending log output and stops background work when the extension unloads.
+     */
+    public void shutdown() {
+        if (lastImportResult != null) {
+            lastImportResult.releaseRetryStorage();
+        }
+        ui.dispose();
+        log.close();
+    }
+    
     public JPanel getMainPanel() {
         return ui.getPanel();
     }
     
     public void clearEnvironmentVariables() {
         variableResolver.clearAllVariables();
-        if (debugMode) {
-            api.logging().logToOutput("Environment variables cleared");
-        }
+        log.info(Log.Category.VARIABLES, "Environment variables cleared");
     }
     
     public void retryFailedRequests(String destination) {
@@ -63,38 +91,28 @@ public class PostmanImporter {
         SwingWorker<ImportResult, String> worker = new SwingWorker<ImportResult, String>() {
             @Override
             protected ImportResult doInBackground() throws Exception {
-                ImportResult retryResult = new ImportResult();
-                retryResult.collectionName = lastImportResult.collectionName + " (Retry)";
-                retryResult.totalRequests = lastImportResult.failedRequestDetails.size();
-                
-                publish("Retrying " + retryResult.totalRequests + " failed requests...");
-                
-                for (int i = 0; i < lastImportResult.failedRequestDetails.size(); i++) {
-                    if (isCancelled()) break;
-                    
-                    ImportResult.FailedRequestInfo failedInfo = lastImportResult.failedRequestDetails.get(i);
-                    
-                    try {
-                        // Cast the stored request data back to RequestItem
-                        if (failedInfo.requestData instanceof RequestItem) {
-                            RequestItem item = (RequestItem) failedInfo.requestData;
-                            processRequest(item, destination);
-                            retryResult.successCount++;
-                            publish("✓ Retry successful: " + failedInfo.name);
-                        } else {
-                            throw new Exception("Invalid request data stored for retry");
+                return runMonitored(destination, () -> engine.retryFailed(lastImportResult, destination,
+                    ui.getSettings(), new ImportEngine.ImportListener() {
+                        @Override
+                        public boolean cancelled() {
+                            return isCancelled();
                         }
-                    } catch (Exception e) {
-                        retryResult.failedRequestDetails.add(new ImportResult.FailedRequestInfo(
-                            failedInfo.name, failedInfo.path, e.getMessage(), failedInfo.requestData));
-                        retryResult.failedRequests.add(failedInfo.name + ": " + e.getMessage());
-                        publish("✗ Retry failed: " + failedInfo.name + " - " + e.getMessage());
-                    }
-                    
-                    setProgress((i + 1) * 100 / retryResult.totalRequests);
-                }
-                
-                return retryResult;
+
+                        @Override
+                        public void log(String message) {
+                            publish(message);
+                        }
+
+                        @Override
+                        public void progress(int percent) {
+                            setProgress(percent);
+                        }
+
+                        @Override
+                        public boolean uiBusy() {
+                            return edtMonitor.isBusy();
+                        }
+                    }));
             }
             
             @Override
@@ -111,7 +129,7 @@ public class PostmanImporter {
                     
                     // Merge retry results with original results
                     ImportResult mergedResult = mergeRetryResults(lastImportResult, retryResult);
-                    lastImportResult = mergedResult; // Update for future retries
+                    replaceLastImportResult(mergedResult); // Update for future retries
                     
                     ui.showImportSummary(mergedResult);
                     
@@ -132,6 +150,7 @@ public class PostmanImporter {
             }
         });
         
+        engine.startMetrics();
         ui.setImportInProgress();
         worker.execute();
     }
@@ -141,14 +160,28 @@ public class PostmanImporter {
         merged.collectionName = original.collectionName;
         merged.totalRequests = original.totalRequests;
         merged.successCount = original.successCount + retry.successCount;
+        merged.skippedCount = original.skippedCount + retry.skippedCount;
         
-        // Only keep requests that failed in the retry
-        merged.failedRequests.addAll(retry.failedRequests);
+        // Only keep requests that failed in the retry, along with the bytes needed to retry them again
         merged.failedRequestDetails.addAll(retry.failedRequestDetails);
+        merged.retryStorage = retry.retryStorage;
+        retry.retryStorage = null;
+        merged.metricsReport = retry.metricsReport;
         
         return merged;
     }
     
+    // The previous result's failed requests can no longer be retried, so their stored bytes go
+    private void replaceLastImportResult(ImportResult result) {
+        if (lastImportResult != null && lastImportResult != result) {
+            lastImportResult.releaseRetryStorage();
+        }
+        if (result.getFailureCount() == 0) {
+            result.releaseRetryStorage();
+        }
+        lastImportResult = result;
+    }
+    
     // New method for generating previews
     public void showPreview(File collectionFile, File environmentFile) {
         // Reset variable resolution flag for new preview
@@ -175,7 +208,7 @@ public class PostmanImporter {
                 
                 // Analyze variables
                 publish("Analyzing variables...");
-                VariableDetector tempDetector = new VariableDetector(tempResolver, api);
+                VariableDetector tempDetector = new VariableDetector(tempResolver, log);
                 VariableAnalysis variableAnalysis = tempDetector.analyzeCollection(collection);
                 
                 // Generate previews with variable information
@@ -213,25 +246,20 @@ public class PostmanImporter {
         boolean hasUnresolvedVariables = previews.stream()
             .anyMatch(RequestPreview::hasUnresolvedVariables);
         
-        // PREVIEW WORKFLOW DECISION POINT
-        api.logging().logToOutput("🎯🎯🎯 PREVIEW DECISION POINT: hasUnresolvedVariables=" + hasUnresolvedVariables + " 🎯🎯🎯");
-        
-        if (debugMode) {
-            api.logging().logToOutput("DEBUG checkAndHandleVariables: hasUnresolvedVariables=" + hasUnresolvedVariables);
-            api.logging().logToOutput("DEBUG checkAndHandleVariables: previews count=" + previews.size());
+        if (log.isEnabled(Log.Level.DEBUG, Log.Category.VARIABLES)) {
+            log.debug(Log.Category.VARIABLES, () -> "checkAndHandleVariables: hasUnresolvedVariables=" + hasUnresolvedVariables);
+            log.debug(Log.Category.VARIABLES, () -> "checkAndHandleVariables: previews count=" + previews.size());
             for (RequestPreview preview : previews) {
-                api.logging().logToOutput("DEBUG checkAndHandleVariables: preview '" + preview.getName() + 
+                log.debug(Log.Category.VARIABLES, () -> "checkAndHandleVariables: preview '" + preview.getName() + 
                     "' hasUnresolvedVars=" + preview.hasUnresolvedVariables() + 
                     " unresolvedVars=" + preview.getUnresolvedVariables());
             }
         }
         
         if (hasUnresolvedVariables) {
-            api.logging().logToOutput("🎉🎉🎉 SHOWING PREVIEW VARIABLE DIALOG NOW! 🎉🎉🎉");
             // Show variable resolution dialog regardless of environment file
             showVariableResolutionDialog(previews, collectionFile, environmentFile);
         } else {
-            api.logging().logToOutput("❌❌❌ PREVIEW: NO VARIABLES DETECTED - SHOWING SELECTION DIALOG ❌❌❌");
             // Proceed directly to selection dialog
             showSelectionDialog(previews, collectionFile, environmentFile);
         }
@@ -351,20 +379,16 @@ public class PostmanImporter {
         
         // Resolve URL for preview
         String url = "Unknown URL";
-        String rawUrl = null;
         try {
-            rawUrl = extractRawUrl(request.url);
+            String rawUrl = extractRawUrl(request.url);
             if (rawUrl != null) {
-                url = resolver.resolve(rawUrl);
-                if (debugMode) {
-                    api.logging().logToOutput("DEBUG createRequestPreview: '" + item.name + "' rawUrl='" + rawUrl + "' resolvedUrl='" + url + "'");
-                }
+                String resolvedUrl = resolver.resolve(rawUrl);
+                url = resolvedUrl;
+                log.debug(Log.Category.VARIABLES, () -> "createRequestPreview: '" + item.name + "' rawUrl='" + rawUrl + "' resolvedUrl='" + resolvedUrl + "'");
             }
         } catch (Exception e) {
             url = "Error resolving URL: " + e.getMessage();
-            if (debugMode) {
-                api.logging().logToOutput("DEBUG createRequestPreview: '" + item.name + "' URL resolution failed: " + e.getMessage());
-            }
+            log.debug(Log.Category.VARIABLES, () -> "createRequestPreview: '" + item.name + "' URL resolution failed: " + e.getMessage());
         }
         
         // Check for various features
@@ -379,17 +403,13 @@ public class PostmanImporter {
         Set<String> requestVariables = detector.findVariablesInRequest(request);
         Set<String> unresolvedVariables = new HashSet<>();
         
-        if (debugMode) {
-            api.logging().logToOutput("DEBUG createRequestPreview: '" + item.name + "' requestVariables=" + requestVariables);
-        }
+        log.debug(Log.Category.VARIABLES, () -> "createRequestPreview: '" + item.name + "' requestVariables=" + requestVariables);
         
         for (String variable : requestVariables) {
             String testValue = "{{" + variable + "}}";
             String resolved = resolver.resolve(testValue);
             
-            if (debugMode) {
-                api.logging().logToOutput("DEBUG createRequestPreview: '" + item.name + "' variable='" + variable + "' testValue='" + testValue + "' resolved='" + resolved + "'");
-            }
+            log.debug(Log.Category.VARIABLES, () -> "createRequestPreview: '" + item.name + "' variable='" + variable + "' testValue='" + testValue + "' resolved='" + resolved + "'");
             
             // Variable is unresolved if:
             // 1. Still contains the original variable syntax
@@ -400,19 +420,13 @@ public class PostmanImporter {
             
             if (isUnresolved) {
                 unresolvedVariables.add(variable);
-                if (debugMode) {
-                    api.logging().logToOutput("DEBUG createRequestPreview: '" + item.name + "' variable '" + variable + "' is UNRESOLVED (resolved to empty/null)");
-                }
+                log.debug(Log.Category.VARIABLES, () -> "createRequestPreview: '" + item.name + "' variable '" + variable + "' is UNRESOLVED (resolved to empty/null)");
             } else {
-                if (debugMode) {
-                    api.logging().logToOutput("DEBUG createRequestPreview: '" + item.name + "' variable '" + variable + "' WAS RESOLVED to: '" + resolved + "'");
-                }
+                log.debug(Log.Category.VARIABLES, () -> "createRequestPreview: '" + item.name + "' variable '" + variable + "' WAS RESOLVED to: '" + resolved + "'");
             }
         }
         
-        if (debugMode) {
-            api.logging().logToOutput("DEBUG createRequestPreview: '" + item.name + "' final unresolvedVariables=" + unresolvedVariables);
-        }
+        log.debug(Log.Category.VARIABLES, () -> "createRequestPreview: '" + item.name + "' final unresolvedVariables=" + unresolvedVariables);
         
         // Enhanced GraphQL detection and naming
         String displayName = item.name;
@@ -461,63 +475,33 @@ public class PostmanImporter {
         SwingWorker<ImportResult, String> worker = new SwingWorker<ImportResult, String>() {
             @Override
             protected ImportResult doInBackground() throws Exception {
-                ImportResult result = new ImportResult();
-                
-                try {
-                    // Parse collection
-                    publish("Parsing collection file...");
-                    PostmanCollection collection = parser.parseCollection(collectionFile);
-                    result.collectionName = collection.info.name;
-                    
-                    // Parse environment if provided
-                    if (environmentFile != null) {
-                        publish("Parsing environment file...");
-                        PostmanEnvironment environment = parser.parseEnvironment(environmentFile);
-                        variableResolver.addEnvironmentVariables(environment);
-                    }
-                    
-                    // Add collection variables
-                    variableResolver.addCollectionVariables(collection);
-                    
-                    // Flatten all requests
-                    List<RequestItem> requests = flattenRequests(collection.item, "");
-                    
-                    // Filter to only selected requests
-                    List<RequestItem> selectedRequests = new ArrayList<>();
-                    for (RequestItem item : requests) {
-                        if (selectedPaths.contains(item.path)) {
-                            selectedRequests.add(item);
+                return runMonitored(destination, () -> engine.runImport(collectionFile, environmentFile,
+                    selectedPaths, destination, ui.getSettings(), new ImportEngine.ImportListener() {
+                        @Override
+                        public boolean cancelled() {
+                            return isCancelled();
                         }
-                    }
-                    
-                    result.totalRequests = selectedRequests.size();
-                    publish("Processing " + selectedRequests.size() + " selected requests...");
-                    
-                    // Process each selected request
-                    for (int i = 0; i < selectedRequests.size(); i++) {
-                        if (isCancelled()) break;
-                        
-                        RequestItem item = selectedRequests.get(i);
-                        try {
-                            processRequest(item, destination);
-                            result.successCount++;
-                            publish("✓ Imported: " + item.name);
-                        } catch (Exception e) {
-                            result.failedRequestDetails.add(new ImportResult.FailedRequestInfo(
-                                item.name, item.path, e.getMessage(), item));
-                            result.failedRequests.add(item.name + ": " + e.getMessage());
-                            publish("✗ Failed: " + item.name + " - " + e.getMessage());
+
+                        @Override
+                        public void log(String message) {
+                            publish(message);
                         }
-                        
-                        setProgress((i + 1) * 100 / selectedRequests.size());
-                    }
-                    
-                } catch (Exception e) {
-                    result.error = e.getMessage();
-                    publish("Fatal error: " + e.getMessage());
-                }
-                
-                return result;
+
+                        @Override
+                        public void progress(int percent) {
+                            setProgress(percent);
+                        }
+
+                        @Override
+                        public boolean uiBusy() {
+                            return edtMonitor.isBusy();
+                        }
+
+                        @Override
+                        public boolean confirmResume() {
+                            return confirmResumeOnEdt();
+                        }
+                    }));
             }
             
             @Override
@@ -531,7 +515,7 @@ public class PostmanImporter {
             protected void done() {
                 try {
                     ImportResult result = get();
-                    lastImportResult = result; // Store for retry functionality
+                    replaceLastImportResult(result); // Store for retry functionality
                     ui.showImportSummary(result);
                 } catch (Exception e) {
                     ui.showError("Import failed: " + e.getMessage());
@@ -546,6 +530,7 @@ public class PostmanImporter {
             }
         });
         
+        engine.startMetrics();
         ui.setImportInProgress();
         worker.execute();
     }
@@ -558,28 +543,26 @@ public class PostmanImporter {
         // Reset variable resolution flag for new import
         variablesAlreadyResolved = false;
         
-        if (debugMode) {
-            api.logging().logToOutput("🚨🚨🚨 NEW VERSION 1.0.4 - FIXED CODE IS RUNNING! 🚨🚨🚨");
-            api.logging().logToOutput("DEBUG PostmanImporter: Starting importCollection with destination=" + destination);
-            api.logging().logToOutput("DEBUG PostmanImporter: collectionFile=" + collectionFile);
-            api.logging().logToOutput("DEBUG PostmanImporter: environmentFile=" + environmentFile);
-        }
+        log.debug(Log.Category.IMPORT, () -> "PostmanImporter: Starting importCollection with destination=" + destination);
+        log.debug(Log.Category.IMPORT, () -> "PostmanImporter: collectionFile=" + collectionFile);
+        log.debug(Log.Category.IMPORT, () -> "PostmanImporter: environmentFile=" + environmentFile);
         
-        // First check for variables, similar to showPreview
-        SwingWorker<List<RequestPreview>, String> worker = new SwingWorker<List<RequestPreview>, String>() {
+        // Timed from here, so the summary includes parsing and variable analysis
+        ImportMetrics metrics = engine.startMetrics();
+        
+        // First check for variables, streaming the collection so it is never held in memory whole
+        VariableResolver tempResolver = new VariableResolver();
+        VariableDetector tempDetector = new VariableDetector(tempResolver, log);
+        SwingWorker<VariableAnalysis, String> worker = new SwingWorker<VariableAnalysis, String>() {
             @Override
-            protected List<RequestPreview> doInBackground() throws Exception {
-                if (debugMode) {
-                    api.logging().logToOutput("DEBUG PostmanImporter: SwingWorker started - analyzing collection");
-                }
+            protected VariableAnalysis doInBackground() throws Exception {
+                log.debug(Log.Category.IMPORT, () -> "PostmanImporter: SwingWorker started - analyzing collection");
                 
                 publish("Analyzing collection...");
-                
-                // Parse collection
-                PostmanCollection collection = parser.parseCollection(collectionFile);
+                long analysisStart = System.nanoTime();
+                CollectionHeader header = parser.readCollectionHeader(collectionFile);
                 
                 // Parse environment if provided
-                VariableResolver tempResolver = new VariableResolver();
                 if (environmentFile != null) {
                     publish("Loading environment variables...");
                     PostmanEnvironment environment = parser.parseEnvironment(environmentFile);
@@ -587,16 +570,13 @@ public class PostmanImporter {
                 }
                 
                 // Add collection variables
-                tempResolver.addCollectionVariables(collection);
+                tempResolver.addCollectionVariables(header.collection);
                 
                 // Analyze variables
                 publish("Analyzing variables...");
-                VariableDetector tempDetector = new VariableDetector(tempResolver, api);
-                VariableAnalysis variableAnalysis = tempDetector.analyzeCollection(collection);
-                
-                // Generate previews with variable information
-                publish("Generating request previews...");
-                return generatePreviews(collection, tempResolver, tempDetector, variableAnalysis);
+                VariableAnalysis variableAnalysis = tempDetector.analyzeCollection(parser, collectionFile);
+                metrics.record(ImportMetrics.Stage.ANALYZE, System.nanoTime() - analysisStart);
+                return variableAnalysis;
             }
             
             @Override
@@ -609,11 +589,11 @@ public class PostmanImporter {
             @Override
             protected void done() {
                 try {
-                    List<RequestPreview> previews = get();
+                    VariableAnalysis variableAnalysis = get();
                     ui.appendLog("Analysis complete. Checking for variables...");
                     
                     // Check if we need to handle variables first
-                    checkVariablesAndImport(previews, collectionFile, environmentFile, destination);
+                    checkVariablesAndImport(variableAnalysis, tempDetector, collectionFile, environmentFile, destination);
                 } catch (Exception e) {
                     ui.showError("Import failed: " + e.getMessage());
                     ui.appendLog("Import error: " + e.getMessage());
@@ -626,61 +606,36 @@ public class PostmanImporter {
         worker.execute();
     }
     
-    private void checkVariablesAndImport(List<RequestPreview> previews, File collectionFile, File environmentFile, String destination) {
+    private void checkVariablesAndImport(VariableAnalysis variableAnalysis, VariableDetector detector,
+                                         File collectionFile, File environmentFile, String destination) {
         // Check if there are any unresolved variables across all requests
-        boolean hasUnresolvedVariables = previews.stream()
-            .anyMatch(RequestPreview::hasUnresolvedVariables);
-        
-        // IMPOSSIBLE TO MISS DEBUG MESSAGE
-        api.logging().logToOutput("🔥🔥🔥 DECISION POINT: hasUnresolvedVariables=" + hasUnresolvedVariables + " 🔥🔥🔥");
-        api.logging().logToOutput("🔥🔥🔥 VARIABLES ALREADY RESOLVED: " + variablesAlreadyResolved + " 🔥🔥🔥");
+        boolean hasUnresolvedVariables = variableAnalysis.hasVariables();
         
-        if (debugMode) {
-            api.logging().logToOutput("DEBUG checkVariablesAndImport: hasUnresolvedVariables=" + hasUnresolvedVariables);
-            api.logging().logToOutput("DEBUG checkVariablesAndImport: variablesAlreadyResolved=" + variablesAlreadyResolved);
-            api.logging().logToOutput("DEBUG checkVariablesAndImport: previews count=" + previews.size());
-            for (RequestPreview preview : previews) {
-                api.logging().logToOutput("DEBUG checkVariablesAndImport: preview '" + preview.getName() + 
-                    "' hasUnresolvedVars=" + preview.hasUnresolvedVariables() + 
-                    " unresolvedVars=" + preview.getUnresolvedVariables());
-            }
+        if (log.isEnabled(Log.Level.DEBUG, Log.Category.VARIABLES)) {
+            log.debug(Log.Category.VARIABLES, () -> "checkVariablesAndImport: hasUnresolvedVariables=" + hasUnresolvedVariables);
+            log.debug(Log.Category.VARIABLES, () -> "checkVariablesAndImport: variablesAlreadyResolved=" + variablesAlreadyResolved);
+            log.debug(Log.Category.VARIABLES, () -> "checkVariablesAndImport: requests=" + variableAnalysis.getTotalRequests() +
+                " unresolvedVars=" + variableAnalysis.getUnresolvedVariables());
         }
         
         // Only show dialog if variables are unresolved AND haven't been resolved already
         if (hasUnresolvedVariables && !variablesAlreadyResolved) {
-            api.logging().logToOutput("🚨🚨🚨 SHOWING VARIABLE DIALOG NOW! 🚨🚨🚨");
-            if (debugMode) {
-                api.logging().logToOutput("DEBUG checkVariablesAndImport: *** SHOWING VARIABLE RESOLUTION DIALOG ***");
-            }
+            log.debug(Log.Category.VARIABLES, () -> "checkVariablesAndImport: showing variable resolution dialog");
+            
             // Show variable resolution dialog regardless of environment file
-            showVariableResolutionDialogForImport(previews, collectionFile, environmentFile, destination);
+            showVariableResolutionDialogForImport(variableAnalysis, detector, collectionFile, environmentFile, destination);
         } else {
-            if (variablesAlreadyResolved) {
-                api.logging().logToOutput("✅✅✅ VARIABLES ALREADY RESOLVED - SKIPPING DIALOG ✅✅✅");
-            } else {
-                api.logging().logToOutput("❌❌❌ NO VARIABLES DETECTED - SKIPPING DIALOG ❌❌❌");
-            }
-            if (debugMode) {
-                api.logging().logToOutput("DEBUG checkVariablesAndImport: *** NO UNRESOLVED VARIABLES - PROCEEDING WITH DIRECT IMPORT ***");
-            }
+            log.debug(Log.Category.VARIABLES, () -> variablesAlreadyResolved ?
+                "checkVariablesAndImport: variables already resolved - skipping dialog" :
+                "checkVariablesAndImport: no unresolved variables - proceeding with direct import");
             // Proceed directly with import using all requests
             proceedWithDirectImport(collectionFile, environmentFile, destination);
         }
     }
     
-    private void showVariableResolutionDialogForImport(List<RequestPreview> previews, File collectionFile, File environmentFile, String destination) {
+    private void showVariableResolutionDialogForImport(VariableAnalysis variableAnalysis, VariableDetector tempDetector,
+                                                       File collectionFile, File environmentFile, String destination) {
         try {
-            PostmanCollection collection = parser.parseCollection(collectionFile);
-            VariableResolver tempResolver = new VariableResolver();
-            if (environmentFile != null) {
-                PostmanEnvironment environment = parser.parseEnvironment(environmentFile);
-                tempResolver.addEnvironmentVariables(environment);
-            }
-            tempResolver.addCollectionVariables(collection);
-            
-            VariableDetector tempDetector = new VariableDetector(tempResolver, api);
-            VariableAnalysis variableAnalysis = tempDetector.analyzeCollection(collection);
-            
             if (!variableAnalysis.getUnresolvedVariables().isEmpty()) {
                 VariableResolutionDialog dialog = new VariableResolutionDialog(
                     (JFrame) SwingUtilities.getWindowAncestor(ui.getPanel()),
@@ -708,12 +663,11 @@ public class PostmanImporter {
                                 // Add manually entered variables to resolver
                                 for (Map.Entry<String, String> entry : manualVariables.entrySet()) {
                                     variableResolver.addCustomVariable(entry.getKey(), entry.getValue());
-                                    api.logging().logToOutput("🔧🔧🔧 ADDED VARIABLE: " + entry.getKey() + " = " + entry.getValue() + " 🔧🔧🔧");
+                                    log.debug(Log.Category.VARIABLES, () -> "Added manual variable: " + entry.getKey());
                                 }
                                 
                                 // Mark variables as resolved to prevent double dialog
                                 variablesAlreadyResolved = true;
-                                api.logging().logToOutput("🔧🔧🔧 VARIABLES MANUALLY RESOLVED - FLAG SET 🔧🔧🔧");
                                 
                                 proceedWithDirectImport(collectionFile, environmentFile, destination);
                             } else {
@@ -725,7 +679,6 @@ public class PostmanImporter {
                         case IGNORE_CONTINUE:
                             // Mark variables as resolved to prevent double dialog
                             variablesAlreadyResolved = true;
-                            api.logging().logToOutput("🔧🔧🔧 VARIABLES IGNORED - FLAG SET 🔧🔧🔧");
                             
                             ui.appendLog("Proceeding with import, ignoring unresolved variables...");
                             proceedWithDirectImport(collectionFile, environmentFile, destination);
@@ -754,53 +707,33 @@ public class PostmanImporter {
         SwingWorker<ImportResult, String> worker = new SwingWorker<ImportResult, String>() {
             @Override
             protected ImportResult doInBackground() throws Exception {
-                ImportResult result = new ImportResult();
-                
-                try {
-                    // Parse collection
-                    publish("Parsing collection file...");
-                    PostmanCollection collection = parser.parseCollection(collectionFile);
-                    result.collectionName = collection.info.name;
-                    
-                    // Parse environment if provided
-                    if (environmentFile != null) {
-                        publish("Parsing environment file...");
-                        PostmanEnvironment environment = parser.parseEnvironment(environmentFile);
-                        variableResolver.addEnvironmentVariables(environment);
-                    }
-                    
-                    // Add collection variables
-                    variableResolver.addCollectionVariables(collection);
-                    
-                    // Flatten all requests
-                    List<RequestItem> requests = flattenRequests(collection.item, "");
-                    result.totalRequests = requests.size();
-                    
-                    // Process each request
-                    for (int i = 0; i < requests.size(); i++) {
-                        if (isCancelled()) break;
-                        
-                        RequestItem item = requests.get(i);
-                        try {
-                            processRequest(item, destination);
-                            result.successCount++;
-                            publish("✓ Imported: " + item.name);
-                        } catch (Exception e) {
-                            result.failedRequestDetails.add(new ImportResult.FailedRequestInfo(
-                                item.name, item.path, e.getMessage(), item));
-                            result.failedRequests.add(item.name + ": " + e.getMessage());
-                            publish("✗ Failed: " + item.name + " - " + e.getMessage());
+                return runMonitored(destination, () -> engine.runImport(collectionFile, environmentFile,
+                    destination, ui.getSettings(), new ImportEngine.ImportListener() {
+                        @Override
+                        public boolean cancelled() {
+                            return isCancelled();
                         }
-                        
-                        setProgress((i + 1) * 100 / requests.size());
-                    }
-                    
-                } catch (Exception e) {
-                    result.error = e.getMessage();
-                    publish("Fatal error: " + e.getMessage());
-                }
-                
-                return result;
+
+                        @Override
+                        public void log(String message) {
+                            publish(message);
+                        }
+
+                        @Override
+                        public void progress(int percent) {
+                            setProgress(percent);
+                        }
+
+                        @Override
+                        public boolean uiBusy() {
+                            return edtMonitor.isBusy();
+                        }
+
+                        @Override
+                        public boolean confirmResume() {
+                            return confirmResumeOnEdt();
+                        }
+                    }));
             }
             
             @Override
@@ -814,7 +747,7 @@ public class PostmanImporter {
             protected void done() {
                 try {
                     ImportResult result = get();
-                    lastImportResult = result; // Store for retry functionality
+                    replaceLastImportResult(result); // Store for retry functionality
                     ui.showImportSummary(result);
                 } catch (Exception e) {
                     ui.showError("Import failed: " + e.getMessage());
@@ -833,180 +766,38 @@ public class PostmanImporter {
         worker.execute();
     }
     
-    private List<RequestItem> flattenRequests(List<PostmanCollection.Item> items, String path) {
-        List<RequestItem> requests = new ArrayList<>();
-        
-        // Add null check to prevent NullPointerException
-        if (items == null) {
-            return requests;
-        }
-        
-        for (PostmanCollection.Item item : items) {
-            String currentPath = path.isEmpty() ? item.name : path + "/" + item.name;
-            
-            if (item.request != null) {
-                requests.add(new RequestItem(item.name, currentPath, item.request));
-            }
-            
-            if (item.item != null && !item.item.isEmpty()) {
-                requests.addAll(flattenRequests(item.item, currentPath));
-            }
-        }
-        
-        return requests;
-    }
-    
-    private void processRequest(RequestItem item) throws Exception {
-        processRequest(item, "repeater");
-    }
-    
-    private void processRequest(RequestItem item, String destination) throws Exception {
-        // Build the HTTP request
-        byte[] request = requestBuilder.buildRequest(item.request);
-        
-        // Extract host and port from URL
-        String rawUrl = extractRawUrl(item.request.url);
-        if (rawUrl == null) {
-            throw new Exception("Unable to extract URL from request");
-        }
-        String resolvedUrl = variableResolver.resolve(rawUrl);
-        HttpUtils.HostInfo hostInfo = HttpUtils.parseUrl(resolvedUrl);
-        
-        // Generate unique tab name for Repeater
-        String tabName = generateUniqueTabName(item.name);
-        
-        switch (destination.toLowerCase()) {
-            case "repeater":
-                sendToRepeater(hostInfo, request, tabName);
-                break;
-                
-            case "sitemap":
-                sendToSitemap(hostInfo, request, item.name);
-                break;
-                
-            case "both":
-                sendToRepeater(hostInfo, request, tabName);
-                // Add configurable delay to avoid overwhelming the target
-                int delayMs = ui.getDelayMs();
-                if (delayMs > 0) {
-                    Thread.sleep(delayMs);
-                }
-                sendToSitemap(hostInfo, request, item.name);
-                break;
-                
-            default:
-                sendToRepeater(hostInfo, request, tabName);
-                break;
+    // Asks whether to resume an interrupted import, starting over if the question can't be asked
+    private boolean confirmResumeOnEdt() {
+        try {
+            return ui.confirmResume();
+        } catch (Exception e) {
+            log.error(Log.Category.IMPORT, "Could not ask about resuming, starting over: " + e.getMessage());
+            return false;
         }
-        
-        existingTabs.add(tabName);
     }
     
-    private void sendToRepeater(HttpUtils.HostInfo hostInfo, byte[] request, String tabName) {
-        // Create HTTP service
-        burp.api.montoya.http.HttpService httpService = burp.api.montoya.http.HttpService.httpService(
-            hostInfo.host,
-            hostInfo.port,
-            hostInfo.useHttps
-        );
-        
-        // Create HTTP request from raw bytes
-        burp.api.montoya.http.message.requests.HttpRequest httpRequest = 
-            burp.api.montoya.http.message.requests.HttpRequest.httpRequest(httpService, 
-                burp.api.montoya.core.ByteArray.byteArray(request));
-        
-        // Send to repeater with tab name
-        api.repeater().sendToRepeater(httpRequest, tabName);
-    }
-    
-    private void sendToSitemap(HttpUtils.HostInfo hostInfo, byte[] request, String requestName) throws Exception {
-        // Create HTTP service
-        burp.api.montoya.http.HttpService httpService = burp.api.montoya.http.HttpService.httpService(
-            hostInfo.host,
-            hostInfo.port,
-            hostInfo.useHttps
-        );
-        
-        // Debug logging
-        if (debugMode) {
-            api.logging().logToOutput("DEBUG: Creating sitemap request for " + requestName);
-            api.logging().logToOutput("DEBUG: Host: " + hostInfo.host + ", Port: " + hostInfo.port + ", HTTPS: " + hostInfo.useHttps);
+    // Watches the event thread while Repeater tabs may open, and counts the log panel's flushes in
+    // the import metrics, around an import run by the engine
+    private ImportResult runMonitored(String destination, java.util.concurrent.Callable<ImportResult> run)
+            throws Exception {
+        boolean repeater = !"sitemap".equalsIgnoreCase(destination);
+        if (repeater) {
+            edtMonitor.start();
         }
-        
-        try {
-            // Make actual HTTP request to populate sitemap
-            if (debugMode) {
-                api.logging().logToOutput("DEBUG: Making HTTP request to " + hostInfo.host);
-            }
-            burp.api.montoya.http.message.requests.HttpRequest httpRequest = 
-                burp.api.montoya.http.message.requests.HttpRequest.httpRequest(httpService, 
-                    burp.api.montoya.core.ByteArray.byteArray(request));
-            burp.api.montoya.http.message.HttpRequestResponse response = api.http().sendRequest(httpRequest);
-            
-            if (response != null) {
-                if (debugMode) {
-                    api.logging().logToOutput("DEBUG: Received response for " + requestName);
-                }
-                
-                if (response.response() != null) {
-                    // Add to sitemap through HTTP history
-                    api.siteMap().add(response);
-                    short statusCode = response.response().statusCode();
-                    api.logging().logToOutput("Sitemap: " + requestName + " -> HTTP " + statusCode);
-                    
-                    if (debugMode) {
-                        api.logging().logToOutput("DEBUG: Added " + requestName + " to sitemap");
-                        // Also log the URL for verification
-                        String url = response.request().url();
-                        api.logging().logToOutput("DEBUG: Sitemap URL: " + url);
-                    }
-                } else {
-                    api.logging().logToOutput("DEBUG: Response was null for " + requestName);
-                }
-            } else {
-                api.logging().logToOutput("DEBUG: No response received for " + requestName);
-            }
-            
-            // Add configurable delay to be respectful to the target server
-            int delayMs = ui.getDelayMs();
-            if (delayMs > 0) {
-                Thread.sleep(delayMs);
+        ui.setLogFlushListener(nanos -> {
+            ImportMetrics metrics = engine.getImportMetrics();
+            if (metrics != null) {
+                metrics.record(ImportMetrics.Stage.LOG_FLUSH, nanos);
             }
-            
-        } catch (Exception e) {
-            // Check for specific network error types and provide clean error messages
-            String errorMsg;
-            if (e.getCause() instanceof java.net.UnknownHostException || 
-                e.getMessage().contains("UnknownHostException")) {
-                // Extract hostname from the exception for cleaner error message
-                String hostname = extractHostnameFromError(e.getMessage());
-                if (hostname != null) {
-                    errorMsg = "DNS resolution failed for hostname: " + hostname + " (VPN/internal network required?)";
-                } else {
-                    errorMsg = "Hostname not accessible - check network connectivity or VPN connection";
-                }
-                api.logging().logToError("Sitemap connectivity issue for " + requestName + ": " + errorMsg);
-            } else if (e.getCause() instanceof java.net.ConnectException || 
-                       e.getMessage().contains("ConnectException")) {
-                errorMsg = "Connection refused or timeout - service may be down or firewalled";
-                api.logging().logToError("Sitemap connection failed for " + requestName + ": " + errorMsg);
-            } else {
-                errorMsg = "Request failed: " + extractCleanErrorMessage(e);
-                api.logging().logToError("Failed to send " + requestName + " to sitemap: " + errorMsg);
+        });
+        try {
+            return run.call();
+        } finally {
+            if (repeater) {
+                edtMonitor.stop();
             }
-            throw new Exception(errorMsg);
-        }
-    }
-    
-    private String generateUniqueTabName(String baseName) {
-        String tabName = baseName;
-        int counter = 1;
-        
-        while (existingTabs.contains(tabName)) {
-            tabName = baseName + " (" + counter++ + ")";
+            ui.setLogFlushListener(null);
         }
-        
-        return tabName;
     }
     
     private String extractRawUrl(Object urlData) {
@@ -1034,44 +825,6 @@ public class PostmanImporter {
         return null;
     }
     
-    private String extractHostnameFromError(String errorMessage) {
-        // Try to extract hostname from UnknownHostException message
-        // Example: "java.lang.RuntimeException: java.net.UnknownHostException: hostname.example.com"
-        if (errorMessage.contains("UnknownHostException")) {
-            String[] parts = errorMessage.split("UnknownHostException:");
-            if (parts.length > 1) {
-                String hostname = parts[1].trim();
-                // Remove any trailing text that might be part of the exception
-                int spaceIndex = hostname.indexOf(' ');
-                if (spaceIndex > 0) {
-                    hostname = hostname.substring(0, spaceIndex);
-                }
-                return hostname;
-            }
-        }
-        return null;
-    }
-    
-    private String extractCleanErrorMessage(Exception e) {
-        String message = e.getMessage();
-        if (message == null) {
-            return e.getClass().getSimpleName();
-        }
-        
-        // Clean up common exception chain patterns
-        if (message.startsWith("java.lang.RuntimeException:")) {
-            message = message.substring("java.lang.RuntimeException:".length()).trim();
-        }
-        if (message.startsWith("java.net.")) {
-            int colonIndex = message.indexOf(':');
-            if (colonIndex > 0) {
-                message = message.substring(colonIndex + 1).trim();
-            }
-        }
-        
-        return message.isEmpty() ? e.getClass().getSimpleName() : message;
-    }
-    
     private boolean isGraphQLRequest(PostmanCollection.Request request) {
         // Check if this is a GraphQL request
         if (request.body == null || request.body.raw == null) {
@@ -1143,16 +896,4 @@ public class PostmanImporter {
         
         return null;
     }
-    
-    private static class RequestItem {
-        final String name;
-        final String path;
-        final PostmanCollection.Request request;
-        
-        RequestItem(String name, String path, PostmanCollection.Request request) {
-            this.name = name;
-            this.path = path;
-            this.request = request;
-        }
-    }
 }
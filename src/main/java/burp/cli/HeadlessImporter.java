@@ -0,0 +1,367 @@
+package burp.cli;
+
+import burp.ImportEngine;
+import burp.api.montoya.MontoyaApi;
+import burp.models.FailureClass;
+import burp.models.ImportResult;
+import burp.models.ImportSettings;
+import burp.parser.VariableResolver;
+import burp.utils.ImportJournal;
+import burp.utils.Log;
+import burp.utils.RequestArchive;
+import burp.utils.RequestFailure;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the import core outside Burp and writes each rendered raw request to a directory or POSTs
+ * it to a local HTTP endpoint (or just validates the collection). Useful for pre-rendering and
+ * checking huge collections on build servers and for measuring throughput.
+ *
+ * Run with: java -cp postman-burp-importer.jar:montoya-api.jar burp.cli.HeadlessImporter collection.json [options]
+ */
+public class HeadlessImporter {
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_FAILURES = 1;
+    private static final int EXIT_USAGE = 2;
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+
+    private final Options options;
+    private final PrintStream out;
+    private final PrintStream err;
+    private final AtomicLong renderedBytes = new AtomicLong();
+
+    static class Options {
+        File collection;
+        File environment;
+        Map<String, String> variables = new LinkedHashMap<>();
+        File outputDirectory;
+        String postUrl;
+        File exportFile;
+        int builderThreads = 2;
+        int concurrency = 4;
+        boolean persistedQueries;
+        boolean verbose;
+    }
+
+    HeadlessImporter(Options options, PrintStream out, PrintStream err) {
+        this.options = options;
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs the importer with command line arguments and returns the process exit code:
+     * 0 if every request rendered (and was delivered), 1 if any failed, 2 for bad arguments.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        Options options;
+        try {
+            options = parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            printUsage(err);
+            return EXIT_USAGE;
+        }
+
+        try {
+            return new HeadlessImporter(options, out, err).run();
+        } catch (Exception e) {
+            err.println("Fatal error: " + e.getMessage());
+            return EXIT_FAILURES;
+        }
+    }
+
+    private int run() throws Exception {
+        MontoyaApi api = StubMontoyaApi.create(out, err);
+        Log log = new Log(api.logging());
+        log.setLevel(options.verbose ? Log.Level.INFO : Log.Level.WARN);
+        try {
+            return render(api, log);
+        } finally {
+            log.close();
+        }
+    }
+
+    private int render(MontoyaApi api, Log log) throws Exception {
+        long start = System.nanoTime();
+
+        // Explicit values win over the environment and collection, as manual entries do in Burp
+        VariableResolver resolver = new VariableResolver();
+        for (Map.Entry<String, String> variable : options.variables.entrySet()) {
+            resolver.addCustomVariable(variable.getKey(), variable.getValue());
+        }
+        ImportEngine engine = new ImportEngine(api, log, resolver);
+
+        if (options.outputDirectory != null) {
+            Files.createDirectories(options.outputDirectory.toPath());
+        }
+        RequestArchive.Writer archive = null;
+        if (options.exportFile != null) {
+            String sourceKey = ImportJournal.fingerprint(new File[] {options.collection, options.environment},
+                options.variables.toString(), String.valueOf(options.persistedQueries));
+            archive = RequestArchive.create(options.exportFile, sourceKey);
+        }
+        boolean exported = false;
+
+        out.println("Rendering requests from " + options.collection.getName() + "...");
+        Delivery delivery = new Delivery(archive);
+        ImportResult result;
+        try {
+            result = engine.runImport(options.collection, options.environment, delivery, settings(),
+                new ImportEngine.ImportListener() {
+                    @Override
+                    public boolean cancelled() {
+                        return false;
+                    }
+
+                    @Override
+                    public void log(String message) {
+                        if (message.startsWith("✗")) {
+                            err.println(message);
+                        } else if (options.verbose) {
+                            out.println(message);
+                        }
+                    }
+
+                    @Override
+                    public void progress(int percent) {
+                        // No progress bar when headless
+                    }
+                });
+            if (result.error != null) {
+                err.println("Fatal error: " + result.error);
+                return EXIT_FAILURES;
+            }
+            if (archive != null) {
+                archive.close();
+                exported = true;
+            }
+        } finally {
+            if (archive != null && !exported) {
+                archive.abort();
+            }
+        }
+        result.releaseRetryStorage();
+
+        int failed = result.getFailureCount();
+        double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+        out.printf("Rendered %d requests (%d failed), %.1f MB in %.2f s - %.0f requests/s%n",
+            result.successCount, failed, renderedBytes.get() / (1024.0 * 1024.0), seconds,
+            (result.successCount + failed) / seconds);
+        if (exported) {
+            out.println("Exported " + archive.size() + " requests to " + options.exportFile +
+                (delivery.buildFailures > 0 ?
+                    " (" + delivery.buildFailures + " that could not be built as placeholders)" : ""));
+        }
+        return failed > 0 ? EXIT_FAILURES : EXIT_OK;
+    }
+
+    // Nothing here talks to the collection's hosts, so their limits and safeguards are off
+    private ImportSettings settings() {
+        ImportSettings settings = new ImportSettings();
+        settings.builderThreads = options.builderThreads;
+        settings.concurrency = options.postUrl != null ? options.concurrency : 1;
+        settings.perHostConcurrency = settings.concurrency;
+        settings.perHostRequestsPerSecond = 0;
+        settings.adaptiveConcurrency = false;
+        settings.maxRetries = 0;
+        settings.circuitBreakerThreshold = 0;
+        settings.preflight = false;
+        settings.resume = false;
+        settings.persistedQueries = options.persistedQueries;
+        return settings;
+    }
+
+    // Archives every request in collection order, failed ones as placeholders, then writes or POSTs it
+    private class Delivery implements ImportEngine.RequestSink {
+        private final RequestArchive.Writer archive;
+        int buildFailures; // Only touched on the pipeline thread
+
+        Delivery(RequestArchive.Writer archive) {
+            this.archive = archive;
+        }
+
+        @Override
+        public void built(ImportEngine.BuiltRequest request) throws IOException {
+            if (archive != null) {
+                archive.add(request.path, request.hostInfo, request.request);
+            }
+        }
+
+        @Override
+        public void buildFailed(int ordinal, String name, String path, String error) throws IOException {
+            buildFailures++;
+            if (archive != null) {
+                archive.addFailed(path, error);
+            }
+        }
+
+        @Override
+        public void send(ImportEngine.BuiltRequest request) throws Exception {
+            if (options.postUrl != null) {
+                post(request);
+            } else if (options.outputDirectory != null) {
+                try {
+                    Files.write(new File(options.outputDirectory, fileName(request)).toPath(), request.request);
+                } catch (IOException e) {
+                    throw new IOException("Could not write file: " + e.getMessage(), e);
+                }
+            }
+            renderedBytes.addAndGet(request.request.length);
+        }
+    }
+
+    // POSTs the raw request as message/http, with the real target in headers
+    private void post(ImportEngine.BuiltRequest built) throws Exception {
+        int status;
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(options.postUrl).openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout((int) TimeUnit.SECONDS.toMillis(30));
+            connection.setRequestProperty("Content-Type", "message/http");
+            connection.setRequestProperty("X-Target-Host", built.hostInfo.host + ":" + built.hostInfo.port);
+            connection.setRequestProperty("X-Target-Https", String.valueOf(built.hostInfo.useHttps));
+            connection.setFixedLengthStreamingMode(built.request.length);
+            try (OutputStream body = connection.getOutputStream()) {
+                body.write(built.request);
+            }
+            status = connection.getResponseCode();
+            try (InputStream response = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (response != null) {
+                    byte[] buffer = new byte[4096];
+                    while (response.read(buffer) != -1) {
+                        // Drain so the connection can be reused
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IOException("Could not deliver: " + e.getMessage(), e);
+        }
+        if (status >= 400) {
+            FailureClass failureClass = FailureClass.forStatus(status);
+            throw new RequestFailure(failureClass != null ? failureClass : FailureClass.OTHER,
+                "Endpoint answered HTTP " + status);
+        }
+    }
+
+    // Collection order first, so a directory listing reads like the collection
+    private static String fileName(ImportEngine.BuiltRequest item) {
+        String name = String.valueOf(item.name).replaceAll("[^A-Za-z0-9._-]+", "_");
+        if (name.length() > 60) {
+            name = name.substring(0, 60);
+        }
+        return String.format("%05d-%s.http", item.ordinal + 1, name);
+    }
+
+    static Options parseArgs(String[] args) {
+        Options options = new Options();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--env":
+                    options.environment = existingFile(value(args, ++i, arg));
+                    break;
+                case "--var":
+                    String variable = value(args, ++i, arg);
+                    int equals = variable.indexOf('=');
+                    if (equals <= 0) {
+                        throw new IllegalArgumentException("--var expects name=value, got: " + variable);
+                    }
+                    options.variables.put(variable.substring(0, equals), variable.substring(equals + 1));
+                    break;
+                case "--out":
+                    options.outputDirectory = new File(value(args, ++i, arg));
+                    break;
+                case "--post":
+                    options.postUrl = value(args, ++i, arg);
+                    break;
+                case "--export":
+                    options.exportFile = new File(value(args, ++i, arg));
+                    break;
+                case "--threads":
+                    options.builderThreads = positive(value(args, ++i, arg), arg);
+                    break;
+                case "--concurrency":
+                    options.concurrency = positive(value(args, ++i, arg), arg);
+                    break;
+                case "--persisted-queries":
+                    options.persistedQueries = true;
+                    break;
+                case "--verbose":
+                    options.verbose = true;
+                    break;
+                default:
+                    if (arg.startsWith("--") || options.collection != null) {
+                        throw new IllegalArgumentException("Unexpected argument: " + arg);
+                    }
+                    options.collection = existingFile(arg);
+            }
+        }
+        if (options.collection == null) {
+            throw new IllegalArgumentException("No collection file given");
+        }
+        if (options.outputDirectory != null && options.postUrl != null) {
+            throw new IllegalArgumentException("Use either --out or --post, not both");
+        }
+        return options;
+    }
+
+    private static String value(String[] args, int index, String flag) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(flag + " needs a value");
+        }
+        return args[index];
+    }
+
+    private static int positive(String value, String flag) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(flag + " expects a positive number, got: " + value);
+    }
+
+    private static File existingFile(String path) {
+        File file = new File(path);
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("File not found: " + path);
+        }
+        return file;
+    }
+
+    private static void printUsage(PrintStream stream) {
+        stream.println("Usage: java -cp <extension jar>:<montoya-api jar> burp.cli.HeadlessImporter <collection.json> [options]");
+        stream.println("  --env <file>           Postman environment file");
+        stream.println("  --var <name=value>     Set a variable (repeatable, overrides environment and collection)");
+        stream.println("  --out <dir>            Write each rendered request to <dir>/NNNNN-<name>.http");
+        stream.println("  --post <url>           POST each rendered request (message/http) to a local endpoint");
+        stream.println("  --export <file>        Also write every rendered request to one indexed archive file");
+        stream.println("  --threads <n>          Threads rendering requests (default 2)");
+        stream.println("  --concurrency <n>      Requests POSTed at once with --post (default 4)");
+        stream.println("  --persisted-queries    Render GraphQL operations as persisted query hashes");
+        stream.println("  --verbose              List every rendered request");
+        stream.println("Without --out or --post the collection is only rendered and validated.");
+        stream.println("Exit code: 0 if every request rendered, 1 if any failed, 2 for bad arguments.");
+    }
+}
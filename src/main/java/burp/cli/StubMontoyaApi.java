@@ -0,0 +1,95 @@
+package burp.cli;
+
+import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.logging.Logging;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+
+/**
+ * In-process stand-in for the Burp API, for running the import core outside Burp.
+ * Logging goes to the console; every other Burp service throws, since there is no
+ * Repeater, Sitemap or HTTP stack to hand requests to.
+ */
+public class StubMontoyaApi {
+
+    public static MontoyaApi create(PrintStream out, PrintStream err) {
+        Logging logging = new ConsoleLogging(out, err);
+        return (MontoyaApi) Proxy.newProxyInstance(MontoyaApi.class.getClassLoader(), new Class<?>[] {MontoyaApi.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "logging":
+                        return logging;
+                    case "toString":
+                        return "StubMontoyaApi";
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName() + "() is not available outside Burp");
+                }
+            });
+    }
+
+    @SuppressWarnings("deprecation")
+    private static class ConsoleLogging implements Logging {
+        private final PrintStream out;
+        private final PrintStream err;
+
+        ConsoleLogging(PrintStream out, PrintStream err) {
+            this.out = out;
+            this.err = err;
+        }
+
+        @Override
+        public PrintStream output() {
+            return out;
+        }
+
+        @Override
+        public PrintStream error() {
+            return err;
+        }
+
+        @Override
+        public void logToOutput(String message) {
+            out.println(message);
+        }
+
+        @Override
+        public void logToError(String message) {
+            err.println(message);
+        }
+
+        @Override
+        public void logToError(Throwable cause) {
+            cause.printStackTrace(err);
+        }
+
+        @Override
+        public void raiseDebugEvent(String message) {
+            out.println(message);
+        }
+
+        @Override
+        public void raiseInfoEvent(String message) {
+            out.println(message);
+        }
+
+        @Override
+        public void raiseErrorEvent(String message) {
+            err.println(message);
+        }
+
+        @Override
+        public void raiseCriticalEvent(String message) {
+            err.println(message);
+        }
+
+        @Override
+        public void logToError(String message, Throwable cause) {
+            err.println(message);
+            cause.printStackTrace(err);
+        }
+    }
+}
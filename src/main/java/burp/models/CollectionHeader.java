@@ -0,0 +1,10 @@
+package burp.models;
+
+/**
+ * Collection-level data read ahead of a streaming import: info, variables and auth
+ * (with an empty item list), plus the number of requests the collection contains.
+ */
+public class CollectionHeader {
+    public PostmanCollection collection;
+    public int requestCount;
+}
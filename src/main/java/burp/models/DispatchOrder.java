@@ -0,0 +1,23 @@
+package burp.models;
+
+/**
+ * Which waiting request a sitemap import sends next when a worker frees up.
+ */
+public enum DispatchOrder {
+    FIFO("Collection order"),
+    SAFE_METHODS_FIRST("Safe methods first"),
+    FOLDER_PRIORITY("Priority folders first"),
+    SHORTEST_BODY_FIRST("Shortest body first"),
+    HOST_GROUPED("Group by host");
+
+    private final String label;
+
+    DispatchOrder(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
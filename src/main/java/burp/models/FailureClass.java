@@ -0,0 +1,96 @@
+package burp.models;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+
+/**
+ * Why a request failed, which decides whether it is worth retrying and whether it
+ * counts against the host's circuit breaker.
+ */
+public enum FailureClass {
+    DNS("DNS", false, true),
+    CONNECT("Connect", true, true),
+    TIMEOUT("Timeout", true, true),
+    HTTP_5XX("HTTP 5xx", true, true),
+    THROTTLED("Throttled", true, false),   // Adaptive concurrency already backs off on 429
+    CIRCUIT_OPEN("Host skipped", false, false),
+    OTHER("Other", false, false);
+
+    private final String label;
+    private final boolean retryable;
+    private final boolean hostFailure;
+
+    FailureClass(String label, boolean retryable, boolean hostFailure) {
+        this.label = label;
+        this.retryable = retryable;
+        this.hostFailure = hostFailure;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Transient failures that may succeed if sent again after a pause.
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    /**
+     * Failures that say something about the host rather than the request.
+     */
+    public boolean isHostFailure() {
+        return hostFailure;
+    }
+
+    /**
+     * Classifies a send error by its exception chain, falling back to the message text
+     * since Burp often wraps network errors in a generic exception.
+     */
+    public static FailureClass classify(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof UnknownHostException) {
+                return DNS;
+            }
+            if (cause instanceof SocketTimeoutException) {
+                return TIMEOUT;
+            }
+            if (cause instanceof ConnectException || cause instanceof NoRouteToHostException) {
+                return CONNECT;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+
+        String message = String.valueOf(error != null ? error.getMessage() : null).toLowerCase();
+        if (message.contains("unknownhost") || message.contains("name or service not known") ||
+            message.contains("nodename nor servname")) {
+            return DNS;
+        }
+        if (message.contains("timed out") || message.contains("timeout")) {
+            return TIMEOUT;
+        }
+        if (message.contains("connectexception") || message.contains("connection refused") ||
+            message.contains("connection reset") || message.contains("no route to host")) {
+            return CONNECT;
+        }
+        return OTHER;
+    }
+
+    /**
+     * Classifies a response status; null if the status is not a failure.
+     */
+    public static FailureClass forStatus(int statusCode) {
+        if (statusCode == 429) {
+            return THROTTLED;
+        }
+        if (statusCode >= 500 && statusCode <= 599) {
+            return HTTP_5XX;
+        }
+        return null;
+    }
+}
@@ -1,27 +1,93 @@
 package burp.models;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ImportResult {
     public String collectionName;
     public int totalRequests;
     public int successCount;
-    public List<String> failedRequests = new ArrayList<>();
+    public int skippedCount; // Neither sent nor failed, e.g. past the Repeater tab limit
     public List<FailedRequestInfo> failedRequestDetails = new ArrayList<>();
     public String error;
+    public String metricsReport; // Stage timings and throughput of the run, null if not measured
+    public Closeable retryStorage; // Backs the retry data of failed requests, e.g. spilled request bytes
+    
+    // Failures share one copy of each distinct message ("HTTP 503" x 10,000)
+    private final Map<String, String> errorMessages = new HashMap<>();
+    
+    // Requests may complete on several dispatcher threads at once
+    public synchronized void recordSuccess() {
+        successCount++;
+    }
+    
+    public synchronized void recordSkipped() {
+        skippedCount++;
+    }
+    
+    public synchronized void recordFailure(String name, String path, String errorMessage, Object requestData) {
+        recordFailure(-1, name, path, errorMessage, FailureClass.OTHER, requestData);
+    }
+    
+    public synchronized void recordFailure(int requestId, String name, String path, String errorMessage,
+                                           FailureClass failureClass, Object requestData) {
+        String message = errorMessages.computeIfAbsent(String.valueOf(errorMessage), m -> m);
+        failedRequestDetails.add(new FailedRequestInfo(requestId, name, path, message, failureClass, requestData));
+    }
+    
+    public synchronized int getFailureCount() {
+        return failedRequestDetails.size();
+    }
+    
+    // Failure counts by class, in enum order, for the import summary
+    public synchronized Map<FailureClass, Integer> failureCounts() {
+        Map<FailureClass, Integer> counts = new EnumMap<>(FailureClass.class);
+        for (FailedRequestInfo info : failedRequestDetails) {
+            counts.merge(info.failureClass, 1, Integer::sum);
+        }
+        return counts;
+    }
+    
+    /**
+     * Releases the retry data once this result can no longer be retried.
+     */
+    public void releaseRetryStorage() {
+        if (retryStorage != null) {
+            try {
+                retryStorage.close();
+            } catch (IOException e) {
+                // Only temp files behind it
+            }
+            retryStorage = null;
+        }
+    }
     
     public static class FailedRequestInfo {
-        public String name;
-        public String path;
-        public String errorMessage;
-        public Object requestData; // Store the actual request for retry
+        public final int requestId; // Position in the collection, -1 if unknown
+        public final String name;
+        public final String path;
+        public final String errorMessage;
+        public final FailureClass failureClass;
+        public final Object requestData; // What Retry needs to send the request again
         
-        public FailedRequestInfo(String name, String path, String errorMessage, Object requestData) {
+        public FailedRequestInfo(int requestId, String name, String path, String errorMessage,
+                                 FailureClass failureClass, Object requestData) {
+            this.requestId = requestId;
             this.name = name;
             this.path = path;
             this.errorMessage = errorMessage;
+            this.failureClass = failureClass;
             this.requestData = requestData;
         }
+        
+        @Override
+        public String toString() {
+            return name + ": " + errorMessage;
+        }
     }
 }
@@ -0,0 +1,46 @@
+package burp.models;
+
+/**
+ * Import options, read once when an import starts. The UI fills one in from its controls;
+ * headless runs use the defaults or command line flags, so the import core never touches Swing.
+ */
+public class ImportSettings {
+    public static final String DEFAULT_DROPPED_RESPONSE_TYPES =
+        "image/, video/, audio/, font/, application/octet-stream, application/zip, application/pdf";
+    
+    // Rate limiting
+    public double perHostRequestsPerSecond = 5.0;  // 0 = unlimited
+    public double globalRequestsPerSecond = 0;     // 0 = unlimited
+    public int rateLimitBurst = 1;
+    public int rateLimitJitterMs = 0;
+    
+    // GraphQL
+    public boolean persistedQueries = false;
+    public int graphQLBatchSize = 1;               // 1 = no batching
+    
+    // Concurrency
+    public int builderThreads = 2;                 // Render requests ahead of dispatch
+    public int concurrency = 4;
+    public int perHostConcurrency = 2;
+    public boolean virtualThreads = true;          // Only where the JVM supports them
+    public boolean adaptiveConcurrency = true;
+    public DispatchOrder dispatchOrder = DispatchOrder.FIFO;
+    public String priorityFolders = "";            // Comma-separated, highest first, for FOLDER_PRIORITY
+    
+    // Repeater
+    public double repeaterTabsPerSecond = 20;      // 0 = unlimited
+    public int repeaterTabBatch = 10;              // Tabs opened back to back before pacing applies
+    public int maxRepeaterTabs = 1000;             // Per import, 0 = no cap
+    
+    // Sitemap response retention
+    public RetentionMode responseRetention = RetentionMode.FULL;  // LIMITED and HEADERS_ONLY are opt-in
+    public int maxResponseBodyKb = 2048;
+    public String droppedResponseTypes = DEFAULT_DROPPED_RESPONSE_TYPES;
+    
+    // Failures
+    public int maxRetries = 2;
+    public int circuitBreakerThreshold = 5;        // 0 = never skip a host
+    public boolean preflight = false;              // Probes connect directly, not through Burp's upstream proxy
+    public boolean skipUnreachableHosts = false;
+    public boolean resume = false;                 // Resume unfinished imports without asking
+}
@@ -0,0 +1,21 @@
+package burp.models;
+
+/**
+ * How much of each response a sitemap import stores.
+ */
+public enum RetentionMode {
+    FULL("Full responses"),
+    LIMITED("Limit body size"),
+    HEADERS_ONLY("Headers only");
+
+    private final String label;
+
+    RetentionMode(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -3,14 +3,32 @@ package burp.parser;
 import burp.models.*;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileReader;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 public class PostmanParser {
     private final Gson gson;
     
+    /**
+     * Receives each request of a streamed collection, in collection order.
+     */
+    public interface RequestVisitor {
+        void visit(String name, String path, PostmanCollection.Request request) throws Exception;
+    }
+    
     public PostmanParser() {
         this.gson = new GsonBuilder()
             .setPrettyPrinting()
@@ -52,6 +70,169 @@ public class PostmanParser {
         }
     }
     
+    /**
+     * Reads everything except the requests themselves, and counts the requests, without
+     * building the item tree. Collection variables often come after the items, so this pass
+     * has to finish before the first request can be resolved.
+     */
+    public CollectionHeader readCollectionHeader(File file) throws Exception {
+        CollectionHeader header = new CollectionHeader();
+        header.collection = new PostmanCollection();
+        header.collection.item = new ArrayList<>();
+        
+        try (JsonReader reader = openReader(file)) {
+            int[] count = new int[1];
+            readCollectionObject(reader, header.collection, (name, path, request) -> count[0]++, false);
+            header.requestCount = count[0];
+        }
+        
+        if (header.collection.variable == null) {
+            header.collection.variable = new ArrayList<>();
+        }
+        if (header.collection.info == null) {
+            header.collection.info = new PostmanCollection.Info();
+            header.collection.info.name = "Unnamed Collection";
+        }
+        return header;
+    }
+    
+    /**
+     * Streams the requests of a collection to the visitor one at a time, with their folder path,
+     * so a huge collection never has to be held in memory as a whole.
+     */
+    public void streamRequests(File file, RequestVisitor visitor) throws Exception {
+        try (JsonReader reader = openReader(file)) {
+            readCollectionObject(reader, new PostmanCollection(), visitor, true);
+        }
+    }
+    
+    private JsonReader openReader(File file) throws Exception {
+        JsonReader reader = new JsonReader(new BufferedReader(
+            new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), 1 << 16));
+        reader.setLenient(true);
+        return reader;
+    }
+    
+    private void readCollectionObject(JsonReader reader, PostmanCollection collection, RequestVisitor visitor,
+                                      boolean parseRequests) throws Exception {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "collection":
+                    // Wrapped format (like crAPI) - the real collection is one level down
+                    if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        readCollectionObject(reader, collection, visitor, parseRequests);
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                case "info":
+                    collection.info = gson.fromJson(reader, PostmanCollection.Info.class);
+                    break;
+                case "variable":
+                    collection.variable = gson.fromJson(reader,
+                        new TypeToken<List<PostmanCollection.Variable>>() { }.getType());
+                    break;
+                case "auth":
+                    collection.auth = gson.fromJson(reader, PostmanCollection.Auth.class);
+                    break;
+                case "item":
+                    readItems(reader, "", visitor, parseRequests);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+    
+    private void readItems(JsonReader reader, String parentPath, RequestVisitor visitor,
+                           boolean parseRequests) throws Exception {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                readItem(reader, parentPath, visitor, parseRequests);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+    }
+    
+    private void readItem(JsonReader reader, String parentPath, RequestVisitor visitor,
+                          boolean parseRequests) throws Exception {
+        String name = null;
+        PostmanCollection.Request request = null;
+        boolean hasRequest = false;
+        boolean childrenRead = false;
+        JsonElement deferredChildren = null;
+        
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "name":
+                    name = reader.nextString();
+                    break;
+                case "request":
+                    hasRequest = true;
+                    if (parseRequests) {
+                        request = gson.fromJson(reader, PostmanCollection.Request.class);
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                case "item":
+                    if (name != null) {
+                        // Usual key order - the folder's own request (if any) is reported before its children
+                        emit(visitor, name, parentPath, request, hasRequest);
+                        hasRequest = false;
+                        readItems(reader, childPath(parentPath, name), visitor, parseRequests);
+                        childrenRead = true;
+                    } else {
+                        // Children before the folder name - keep them until the name is known
+                        deferredChildren = JsonParser.parseReader(reader);
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        emit(visitor, name, parentPath, request, hasRequest);
+        if (deferredChildren != null && !childrenRead) {
+            try (JsonReader children = new JsonReader(new StringReader(deferredChildren.toString()))) {
+                readItems(children, childPath(parentPath, name), visitor, parseRequests);
+            }
+        }
+    }
+    
+    private static void emit(RequestVisitor visitor, String name, String parentPath,
+                             PostmanCollection.Request request, boolean hasRequest) throws Exception {
+        if (hasRequest) {
+            visitor.visit(name, childPath(parentPath, name), request);
+        }
+    }
+    
+    // Same path format as the importer's flattened request list
+    private static String childPath(String parentPath, String name) {
+        return parentPath.isEmpty() ? name : parentPath + "/" + name;
+    }
+    
     public PostmanEnvironment parseEnvironment(File file) throws Exception {
         try (FileReader reader = new FileReader(file)) {
             return gson.fromJson(reader, PostmanEnvironment.class);
@@ -51,6 +51,31 @@ public class VariableResolver {
         return result.toString();
     }
     
+    public String resolveVariable(String name) {
+        // Single variable lookup for pre-tokenized templates - same result as resolve("{{" + name + "}}")
+        String varName = name.trim();
+        return variables.getOrDefault(varName, "{{" + varName + "}}");
+    }
+    
+    // Returns the index just past the closing braces of the {{variable}} starting at start, or -1.
+    // Same rule as VARIABLE_PATTERN: at least one character and no line breaks in between.
+    public static int findVariableEnd(String text, int start) {
+        int i = start + 2;
+        if (i < text.length() && text.charAt(i) == '}') {
+            i++;
+        }
+        for (; i + 1 < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r') {
+                return -1;
+            }
+            if (c == '}' && text.charAt(i + 1) == '}') {
+                return i + 2;
+            }
+        }
+        return -1;
+    }
+    
     public Map<String, String> getVariables() {
         return new HashMap<>(variables);
     }
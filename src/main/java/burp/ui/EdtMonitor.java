@@ -0,0 +1,62 @@
+package burp.ui;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches how quickly the Swing event thread answers: a background thread keeps one small probe
+ * queued with invokeLater, and the EDT counts as busy while a probe has waited longer than the
+ * threshold. Lets background work (such as opening Repeater tabs) back off while Burp's UI is
+ * struggling instead of piling more events onto it.
+ */
+public class EdtMonitor {
+    private static final long POLL_MS = 50;
+
+    private final long thresholdNanos;
+    private volatile long probePostedAt;
+    private volatile boolean probePending;
+    private Thread thread;
+
+    public EdtMonitor(long thresholdMs) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, thresholdMs));
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(this::poll, "Postman Importer EDT monitor");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+        probePending = false;
+    }
+
+    /**
+     * True while the event thread has left a probe waiting longer than the threshold.
+     */
+    public boolean isBusy() {
+        return probePending && System.nanoTime() - probePostedAt > thresholdNanos;
+    }
+
+    private void poll() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (!probePending) {
+                    probePostedAt = System.nanoTime();
+                    probePending = true;
+                    SwingUtilities.invokeLater(() -> probePending = false);
+                }
+                Thread.sleep(POLL_MS);
+            }
+        } catch (InterruptedException e) {
+            // Stopped
+        }
+    }
+}
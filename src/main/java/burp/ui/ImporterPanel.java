@@ -1,17 +1,29 @@
 package burp.ui;
 
 import burp.PostmanImporter;
+import burp.models.DispatchOrder;
+import burp.models.FailureClass;
 import burp.models.ImportResult;
+import burp.models.ImportSettings;
+import burp.models.RetentionMode;
+import burp.utils.ImportMetrics;
+import burp.utils.Log;
+import burp.utils.WorkerThreads;
 import javax.swing.*;
 import javax.swing.border.*;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.io.File;
+import java.util.Map;
+import java.util.function.LongConsumer;
 
 public class ImporterPanel {
     private final PostmanImporter importer;
     private final JPanel mainPanel;
-    private JTextArea logArea;  // Removed final
+    private final LogListModel logModel = new LogListModel();
+    private JList<String> logList;
     private JProgressBar progressBar;  // Removed final
     private JButton importButton;  // Removed final
     private JButton previewButton;  // Added preview button field
@@ -23,7 +35,32 @@ public class ImporterPanel {
     private JRadioButton repeaterOption;
     private JRadioButton sitemapOption;
     private JRadioButton bothOption;
-    private JSpinner delaySpinner;  // Added for rate limiting configuration
+    private JSpinner perHostRateSpinner;  // Token-bucket rate limiting configuration
+    private JSpinner globalRateSpinner;
+    private JSpinner burstSpinner;
+    private JSpinner jitterSpinner;
+    private JCheckBox persistedQueriesCheckBox;
+    private JSpinner batchSizeSpinner;
+    private JSpinner concurrencySpinner;
+    private JSpinner perHostSpinner;
+    private JCheckBox virtualThreadsCheckBox;
+    private JCheckBox adaptiveConcurrencyCheckBox;
+    private JSpinner retriesSpinner;
+    private JSpinner circuitBreakerSpinner;
+    private JCheckBox preflightCheckBox;
+    private JCheckBox skipUnreachableCheckBox;
+    private JCheckBox resumeCheckBox;
+    private JSpinner tabRateSpinner;
+    private JSpinner tabBatchSpinner;
+    private JSpinner maxTabsSpinner;
+    private JComboBox<RetentionMode> retentionCombo;
+    private JComboBox<DispatchOrder> dispatchOrderCombo;
+    private JTextField priorityFoldersField;
+    private JSpinner maxBodySpinner;
+    private JTextField droppedTypesField;
+    private JLabel hostLimitsLabel;
+    private JLabel metricsLabel;
+    private Timer hostLimitsTimer;
     private File selectedCollection;
     private File selectedEnvironment;
     
@@ -127,33 +164,263 @@ public class ImporterPanel {
         
         // Rate limiting configuration
         gbc.gridx = 0; gbc.gridy = 4; gbc.gridwidth = 1;
-        filePanel.add(new JLabel("Rate limit delay (ms):"), gbc);
+        filePanel.add(new JLabel("Rate limit (req/s):"), gbc);
         
         gbc.gridx = 1; gbc.gridy = 4; gbc.gridwidth = 2;
-        JPanel delayPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
-        delaySpinner = new JSpinner(new SpinnerNumberModel(200, 0, 5000, 50));
-        delaySpinner.setPreferredSize(new Dimension(80, 25));
-        delaySpinner.setToolTipText("Delay between requests in milliseconds (0-5000ms, default: 200ms)");
-        delayPanel.add(delaySpinner);
-        delayPanel.add(Box.createHorizontalStrut(5));
-        delayPanel.add(new JLabel("(0 = no delay, default: 200ms)"));
-        filePanel.add(delayPanel, gbc);
+        JPanel ratePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        perHostRateSpinner = new JSpinner(new SpinnerNumberModel(5.0, 0.0, 1000.0, 1.0));
+        perHostRateSpinner.setPreferredSize(new Dimension(80, 25));
+        perHostRateSpinner.setToolTipText("Requests per second to each host (0 = unlimited, default: 5)");
+        ratePanel.add(perHostRateSpinner);
+        ratePanel.add(Box.createHorizontalStrut(5));
+        ratePanel.add(new JLabel("per host"));
+        ratePanel.add(Box.createHorizontalStrut(10));
+        globalRateSpinner = new JSpinner(new SpinnerNumberModel(0.0, 0.0, 10000.0, 1.0));
+        globalRateSpinner.setPreferredSize(new Dimension(80, 25));
+        globalRateSpinner.setToolTipText("Requests per second across all hosts (0 = unlimited)");
+        ratePanel.add(globalRateSpinner);
+        ratePanel.add(Box.createHorizontalStrut(5));
+        ratePanel.add(new JLabel("total"));
+        ratePanel.add(Box.createHorizontalStrut(10));
+        ratePanel.add(new JLabel("Burst:"));
+        ratePanel.add(Box.createHorizontalStrut(5));
+        burstSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 1000, 1));
+        burstSpinner.setPreferredSize(new Dimension(60, 25));
+        burstSpinner.setToolTipText("Requests that may go out back to back after an idle period");
+        ratePanel.add(burstSpinner);
+        ratePanel.add(Box.createHorizontalStrut(10));
+        ratePanel.add(new JLabel("Jitter (ms):"));
+        ratePanel.add(Box.createHorizontalStrut(5));
+        jitterSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 5000, 10));
+        jitterSpinner.setPreferredSize(new Dimension(60, 25));
+        jitterSpinner.setToolTipText("Random extra delay of up to this many milliseconds per request");
+        ratePanel.add(jitterSpinner);
+        filePanel.add(ratePanel, gbc);
+        
+        // GraphQL persisted queries
+        gbc.gridx = 0; gbc.gridy = 5; gbc.gridwidth = 1;
+        filePanel.add(new JLabel("GraphQL:"), gbc);
+        
+        gbc.gridx = 1; gbc.gridy = 5; gbc.gridwidth = 2;
+        persistedQueriesCheckBox = new JCheckBox("Send sitemap operations as persisted queries (APQ hash, full query on miss)");
+        persistedQueriesCheckBox.setToolTipText("Sends only the sha256 hash of each GraphQL query and falls back to the full query if the server does not know it");
+        filePanel.add(persistedQueriesCheckBox, gbc);
+        
+        gbc.gridx = 0; gbc.gridy = 6; gbc.gridwidth = 1;
+        filePanel.add(new JLabel("GraphQL batch size:"), gbc);
+        
+        gbc.gridx = 1; gbc.gridy = 6; gbc.gridwidth = 2;
+        JPanel batchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        batchSizeSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 100, 1));
+        batchSizeSpinner.setPreferredSize(new Dimension(80, 25));
+        batchSizeSpinner.setToolTipText("Group GraphQL operations per endpoint into JSON-array batch requests (Sitemap only)");
+        batchPanel.add(batchSizeSpinner);
+        batchPanel.add(Box.createHorizontalStrut(5));
+        batchPanel.add(new JLabel("(1 = no batching, Sitemap only)"));
+        filePanel.add(batchPanel, gbc);
+        
+        // Concurrent sitemap requests
+        gbc.gridx = 0; gbc.gridy = 7; gbc.gridwidth = 1;
+        filePanel.add(new JLabel("Concurrent requests:"), gbc);
+        
+        gbc.gridx = 1; gbc.gridy = 7; gbc.gridwidth = 2;
+        JPanel concurrencyPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        concurrencySpinner = new JSpinner(new SpinnerNumberModel(4, 1, 256, 1));
+        concurrencySpinner.setPreferredSize(new Dimension(80, 25));
+        concurrencySpinner.setToolTipText("Maximum Sitemap requests in flight at once (1 = one at a time)");
+        concurrencyPanel.add(concurrencySpinner);
+        concurrencyPanel.add(Box.createHorizontalStrut(10));
+        concurrencyPanel.add(new JLabel("Per host:"));
+        concurrencyPanel.add(Box.createHorizontalStrut(5));
+        perHostSpinner = new JSpinner(new SpinnerNumberModel(2, 1, 64, 1));
+        perHostSpinner.setPreferredSize(new Dimension(80, 25));
+        perHostSpinner.setToolTipText("Maximum Sitemap requests in flight to the same host and port");
+        concurrencyPanel.add(perHostSpinner);
+        concurrencyPanel.add(Box.createHorizontalStrut(5));
+        concurrencyPanel.add(new JLabel("(Sitemap and Both only)"));
+        concurrencyPanel.add(Box.createHorizontalStrut(10));
+        virtualThreadsCheckBox = new JCheckBox("Virtual threads", WorkerThreads.virtualThreadsAvailable());
+        virtualThreadsCheckBox.setEnabled(WorkerThreads.virtualThreadsAvailable());
+        virtualThreadsCheckBox.setToolTipText(WorkerThreads.virtualThreadsAvailable() ?
+            "Run each in-flight request on its own virtual thread instead of a platform thread pool" :
+            "Requires Burp running on Java 21 or later - using a platform thread pool");
+        concurrencyPanel.add(virtualThreadsCheckBox);
+        concurrencyPanel.add(Box.createHorizontalStrut(10));
+        adaptiveConcurrencyCheckBox = new JCheckBox("Adaptive", true);
+        adaptiveConcurrencyCheckBox.setToolTipText("Start each host at the per-host limit and adjust it from latency, " +
+            "429/503 responses, Retry-After and X-RateLimit-Remaining (up to the concurrent request limit)");
+        concurrencyPanel.add(adaptiveConcurrencyCheckBox);
+        filePanel.add(concurrencyPanel, gbc);
+        
+        // Which waiting request goes next once every worker is busy
+        gbc.gridx = 0; gbc.gridy = 8; gbc.gridwidth = 1;
+        filePanel.add(new JLabel("Send order:"), gbc);
+        
+        gbc.gridx = 1; gbc.gridy = 8; gbc.gridwidth = 2;
+        JPanel orderPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        dispatchOrderCombo = new JComboBox<>(DispatchOrder.values());
+        dispatchOrderCombo.setSelectedItem(DispatchOrder.FIFO);
+        dispatchOrderCombo.setToolTipText("Which queued request is sent next while every worker is busy: collection " +
+            "order, GET/HEAD/OPTIONS before writes, listed folders first, smallest bodies first, or one host at a time " +
+            "so its connections are reused");
+        orderPanel.add(dispatchOrderCombo);
+        orderPanel.add(Box.createHorizontalStrut(10));
+        orderPanel.add(new JLabel("Priority folders:"));
+        orderPanel.add(Box.createHorizontalStrut(5));
+        priorityFoldersField = new JTextField(30);
+        priorityFoldersField.setToolTipText("Comma-separated folder paths, highest priority first, e.g. Auth, Users/Admin");
+        priorityFoldersField.setEnabled(false);
+        orderPanel.add(priorityFoldersField);
+        dispatchOrderCombo.addActionListener(e ->
+            priorityFoldersField.setEnabled(dispatchOrderCombo.getSelectedItem() == DispatchOrder.FOLDER_PRIORITY));
+        orderPanel.add(Box.createHorizontalStrut(5));
+        orderPanel.add(new JLabel("(Sitemap and Both only)"));
+        filePanel.add(orderPanel, gbc);
+        
+        // Automatic retries and per-host circuit breaker
+        gbc.gridx = 0; gbc.gridy = 9; gbc.gridwidth = 1;
+        filePanel.add(new JLabel("Failed requests:"), gbc);
+        
+        gbc.gridx = 1; gbc.gridy = 9; gbc.gridwidth = 2;
+        JPanel failurePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        failurePanel.add(new JLabel("Retries:"));
+        failurePanel.add(Box.createHorizontalStrut(5));
+        retriesSpinner = new JSpinner(new SpinnerNumberModel(2, 0, 10, 1));
+        retriesSpinner.setPreferredSize(new Dimension(60, 25));
+        retriesSpinner.setToolTipText("Automatic retries, with exponential backoff, for connect errors, timeouts, 429 and 5xx responses");
+        failurePanel.add(retriesSpinner);
+        failurePanel.add(Box.createHorizontalStrut(10));
+        failurePanel.add(new JLabel("Skip host after:"));
+        failurePanel.add(Box.createHorizontalStrut(5));
+        circuitBreakerSpinner = new JSpinner(new SpinnerNumberModel(5, 0, 1000, 1));
+        circuitBreakerSpinner.setPreferredSize(new Dimension(60, 25));
+        circuitBreakerSpinner.setToolTipText("Consecutive DNS, connect, timeout or 5xx failures after which the host's " +
+            "remaining requests fail fast (0 = never)");
+        failurePanel.add(circuitBreakerSpinner);
+        failurePanel.add(Box.createHorizontalStrut(5));
+        failurePanel.add(new JLabel("failures (Sitemap and Both only)"));
+        failurePanel.add(Box.createHorizontalStrut(10));
+        preflightCheckBox = new JCheckBox("Pre-flight host check", false);
+        preflightCheckBox.setToolTipText("Resolve DNS and open a TCP connection to each host in the background " +
+            "when the import first meets it, and log unreachable hosts as soon as they fail (checks are direct, " +
+            "not through Burp's upstream proxy)");
+        failurePanel.add(preflightCheckBox);
+        failurePanel.add(Box.createHorizontalStrut(10));
+        skipUnreachableCheckBox = new JCheckBox("Skip unreachable hosts", false);
+        skipUnreachableCheckBox.setToolTipText("Once a request through Burp also fails to reach a host that failed " +
+            "the pre-flight check, record its remaining requests as failed without sending them; use Retry once " +
+            "the network is fixed");
+        skipUnreachableCheckBox.setEnabled(false);
+        failurePanel.add(skipUnreachableCheckBox);
+        preflightCheckBox.addActionListener(e -> skipUnreachableCheckBox.setEnabled(preflightCheckBox.isSelected()));
+        failurePanel.add(Box.createHorizontalStrut(10));
+        resumeCheckBox = new JCheckBox("Resume without asking", false);
+        resumeCheckBox.setToolTipText("When an earlier run of the same collection, environment, variables and " +
+            "destination did not finish (cancelled, Burp restarted, network lost), skip what it already imported " +
+            "instead of asking first");
+        failurePanel.add(resumeCheckBox);
+        filePanel.add(failurePanel, gbc);
+        
+        // Repeater tab pacing, so large imports don't swamp Burp's UI
+        gbc.gridx = 0; gbc.gridy = 10; gbc.gridwidth = 1;
+        filePanel.add(new JLabel("Repeater tabs:"), gbc);
+        
+        gbc.gridx = 1; gbc.gridy = 10; gbc.gridwidth = 2;
+        JPanel tabsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        tabRateSpinner = new JSpinner(new SpinnerNumberModel(20.0, 0.0, 1000.0, 5.0));
+        tabRateSpinner.setPreferredSize(new Dimension(70, 25));
+        tabRateSpinner.setToolTipText("Repeater tabs opened per second (0 = unlimited); opening also pauses " +
+            "while Burp's UI is busy");
+        tabsPanel.add(tabRateSpinner);
+        tabsPanel.add(Box.createHorizontalStrut(5));
+        tabsPanel.add(new JLabel("per second, in batches of"));
+        tabsPanel.add(Box.createHorizontalStrut(5));
+        tabBatchSpinner = new JSpinner(new SpinnerNumberModel(10, 1, 1000, 1));
+        tabBatchSpinner.setPreferredSize(new Dimension(60, 25));
+        tabBatchSpinner.setToolTipText("Tabs opened back to back before the rate applies");
+        tabsPanel.add(tabBatchSpinner);
+        tabsPanel.add(Box.createHorizontalStrut(10));
+        tabsPanel.add(new JLabel("At most:"));
+        tabsPanel.add(Box.createHorizontalStrut(5));
+        maxTabsSpinner = new JSpinner(new SpinnerNumberModel(1000, 0, 100000, 100));
+        maxTabsSpinner.setPreferredSize(new Dimension(80, 25));
+        maxTabsSpinner.setToolTipText("Tabs opened per import (0 = no cap); requests beyond it are recorded as " +
+            "failed so Retry can open them later");
+        tabsPanel.add(maxTabsSpinner);
+        tabsPanel.add(Box.createHorizontalStrut(5));
+        tabsPanel.add(new JLabel("per import"));
+        filePanel.add(tabsPanel, gbc);
+        
+        // How much of each response sitemap imports keep
+        gbc.gridx = 0; gbc.gridy = 11; gbc.gridwidth = 1;
+        filePanel.add(new JLabel("Sitemap responses:"), gbc);
+        
+        gbc.gridx = 1; gbc.gridy = 11; gbc.gridwidth = 2;
+        JPanel retentionPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        retentionCombo = new JComboBox<>(RetentionMode.values());
+        retentionCombo.setSelectedItem(RetentionMode.FULL);
+        retentionCombo.setToolTipText("What is stored in the sitemap for each response; large bodies bloat the " +
+            "project file and Burp's memory");
+        retentionPanel.add(retentionCombo);
+        retentionPanel.add(Box.createHorizontalStrut(10));
+        retentionPanel.add(new JLabel("Max body (KB):"));
+        retentionPanel.add(Box.createHorizontalStrut(5));
+        maxBodySpinner = new JSpinner(new SpinnerNumberModel(2048, 1, 1048576, 256));
+        maxBodySpinner.setPreferredSize(new Dimension(80, 25));
+        maxBodySpinner.setToolTipText("Longer bodies are cut to this size and end with a truncation marker");
+        retentionPanel.add(maxBodySpinner);
+        retentionPanel.add(Box.createHorizontalStrut(10));
+        retentionPanel.add(new JLabel("Drop bodies of:"));
+        retentionPanel.add(Box.createHorizontalStrut(5));
+        droppedTypesField = new JTextField(ImportSettings.DEFAULT_DROPPED_RESPONSE_TYPES, 30);
+        droppedTypesField.setToolTipText("Comma-separated content type prefixes whose bodies are not kept at all");
+        retentionPanel.add(droppedTypesField);
+        maxBodySpinner.setEnabled(false);
+        droppedTypesField.setEnabled(false);
+        retentionCombo.addActionListener(e -> {
+            boolean limited = retentionCombo.getSelectedItem() == RetentionMode.LIMITED;
+            maxBodySpinner.setEnabled(limited);
+            droppedTypesField.setEnabled(limited);
+        });
+        filePanel.add(retentionPanel, gbc);
+        
+        // Extension output verbosity
+        gbc.gridx = 0; gbc.gridy = 12; gbc.gridwidth = 1;
+        filePanel.add(new JLabel("Log level:"), gbc);
+        
+        gbc.gridx = 1; gbc.gridy = 12; gbc.gridwidth = 2;
+        filePanel.add(createLogSettingsPanel(importer.getLog()), gbc);
         
         contentPanel.add(filePanel, BorderLayout.NORTH);
         
-        // Log area
-        logArea = new JTextArea(15, 50);
-        logArea.setEditable(false);
-        logArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
-        JScrollPane scrollPane = new JScrollPane(logArea);
+        // Log area - a list only renders the rows in view, and a fixed row height keeps layout O(1)
+        logList = new JList<>(logModel);
+        logList.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        logList.setPrototypeCellValue("Imported: a typical request name of reasonable length");
+        logList.setVisibleRowCount(15);
+        JScrollPane scrollPane = new JScrollPane(logList);
         scrollPane.setBorder(BorderFactory.createTitledBorder("Import Log"));
         contentPanel.add(scrollPane, BorderLayout.CENTER);
+        followLogTail(scrollPane);
+        logModel.start();
         
         // Progress panel
         JPanel progressPanel = new JPanel(new BorderLayout(5, 5));
         progressBar = new JProgressBar(0, 100);
         progressBar.setStringPainted(true);
         progressPanel.add(progressBar, BorderLayout.CENTER);
+        hostLimitsLabel = new JLabel(" ");
+        hostLimitsLabel.setFont(hostLimitsLabel.getFont().deriveFont(Font.PLAIN, 11f));
+        metricsLabel = new JLabel(" ");
+        metricsLabel.setFont(metricsLabel.getFont().deriveFont(Font.PLAIN, 11f));
+        JPanel statusPanel = new JPanel(new GridLayout(2, 1));
+        statusPanel.add(metricsLabel);
+        statusPanel.add(hostLimitsLabel);
+        progressPanel.add(statusPanel, BorderLayout.SOUTH);
+        hostLimitsTimer = new Timer(500, e -> {
+            refreshHostLimits();
+            refreshMetrics();
+        });
         
         // Buttons
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
@@ -175,9 +442,14 @@ public class ImporterPanel {
         cancelButton.setEnabled(false);
         
         JButton clearButton = new JButton("Clear Log");
-        clearButton.addActionListener(e -> logArea.setText(""));
+        clearButton.addActionListener(e -> logModel.clear());
+        
+        JButton saveLogButton = new JButton("Save Log...");
+        saveLogButton.addActionListener(e -> saveLog());
+        saveLogButton.setToolTipText("Save the full log, including lines no longer shown, to a file");
         
         buttonPanel.add(clearButton);
+        buttonPanel.add(saveLogButton);
         buttonPanel.add(previewButton);
         buttonPanel.add(retryButton);
         buttonPanel.add(cancelButton);
@@ -236,7 +508,7 @@ public class ImporterPanel {
     
     private void startImport() {
         if (selectedCollection != null) {
-            logArea.setText("");
+            logModel.clear();
             String destination = getSelectedDestination();
             importer.importCollection(selectedCollection, selectedEnvironment, destination);
         }
@@ -244,13 +516,13 @@ public class ImporterPanel {
     
     private void startPreview() {
         if (selectedCollection != null) {
-            logArea.setText("");
+            logModel.clear();
             importer.showPreview(selectedCollection, selectedEnvironment);
         }
     }
     
     private void startRetry() {
-        logArea.setText("");
+        logModel.clear();
         appendLog("Retrying failed requests...");
         String destination = getSelectedDestination();
         importer.retryFailedRequests(destination);
@@ -268,12 +540,68 @@ public class ImporterPanel {
     }
     
     public void appendLog(String message) {
-        SwingUtilities.invokeLater(() -> {
-            logArea.append(message + "\n");
-            logArea.setCaretPosition(logArea.getDocument().getLength());
+        // Batched onto the EDT by the log model's refresh timer
+        logModel.append(message);
+    }
+    
+    // Keeps the newest line in view unless the user has scrolled up to read
+    private void followLogTail(JScrollPane scrollPane) {
+        JScrollBar bar = scrollPane.getVerticalScrollBar();
+        logModel.addListDataListener(new ListDataListener() {
+            public void intervalAdded(ListDataEvent e) { scrollIfFollowing(); }
+            public void intervalRemoved(ListDataEvent e) { }
+            public void contentsChanged(ListDataEvent e) { scrollIfFollowing(); }
+            
+            private void scrollIfFollowing() {
+                boolean atBottom = bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - logList.getFixedCellHeight();
+                if (atBottom && logModel.getSize() > 0) {
+                    SwingUtilities.invokeLater(() -> logList.ensureIndexIsVisible(logModel.getSize() - 1));
+                }
+            }
         });
     }
     
+    private void saveLog() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Save Import Log");
+        chooser.setSelectedFile(new File("postman-import-log.txt"));
+        if (chooser.showSaveDialog(mainPanel) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File target = chooser.getSelectedFile();
+        
+        // The spill file can be large, so copy it off the EDT
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                logModel.writeTo(target);
+                return null;
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    appendLog("Log saved to " + target.getAbsolutePath());
+                } catch (Exception e) {
+                    showError("Could not save log: " + e.getMessage());
+                }
+            }
+        }.execute();
+    }
+    
+    public void dispose() {
+        logModel.dispose();
+        hostLimitsTimer.stop();
+    }
+    
+    /**
+     * Times every batch of lines applied to the import log, e.g. for the import metrics.
+     */
+    public void setLogFlushListener(LongConsumer listener) {
+        logModel.setFlushListener(listener);
+    }
+    
     public void updateProgress(int value) {
         SwingUtilities.invokeLater(() -> progressBar.setValue(value));
     }
@@ -285,6 +613,7 @@ public class ImporterPanel {
             retryButton.setEnabled(false);
             cancelButton.setEnabled(true);
             progressBar.setValue(0);
+            hostLimitsTimer.start();
         });
     }
     
@@ -295,6 +624,9 @@ public class ImporterPanel {
             // retryButton will be enabled by showImportSummary if there are failed requests
             cancelButton.setEnabled(false);
             progressBar.setValue(100);
+            hostLimitsTimer.stop();
+            refreshHostLimits();
+            refreshMetrics();
         });
     }
     
@@ -305,11 +637,21 @@ public class ImporterPanel {
             summary.append("Collection: ").append(result.collectionName).append("\n");
             summary.append("Total Requests: ").append(result.totalRequests).append("\n");
             summary.append("Successfully Imported: ").append(result.successCount).append("\n");
-            summary.append("Failed: ").append(result.failedRequests.size()).append("\n");
+            summary.append("Failed: ").append(result.getFailureCount()).append("\n");
+            if (result.skippedCount > 0) {
+                summary.append("Skipped (Repeater tab limit): ").append(result.skippedCount).append("\n");
+            }
             
-            if (!result.failedRequests.isEmpty()) {
+            if (result.getFailureCount() > 0) {
+                StringBuilder byClass = new StringBuilder();
+                for (Map.Entry<FailureClass, Integer> entry : result.failureCounts().entrySet()) {
+                    byClass.append(byClass.length() > 0 ? ", " : "").append(entry.getKey().getLabel())
+                           .append(": ").append(entry.getValue());
+                }
+                summary.append("Failures by type: ").append(byClass).append("\n");
+                
                 summary.append("\nFailed Requests:\n");
-                for (String failure : result.failedRequests) {
+                for (ImportResult.FailedRequestInfo failure : result.failedRequestDetails) {
                     summary.append("  - ").append(failure).append("\n");
                 }
                 
@@ -324,6 +666,10 @@ public class ImporterPanel {
                 summary.append("\nError: ").append(result.error).append("\n");
             }
             
+            if (result.metricsReport != null) {
+                summary.append("\nPipeline metrics:\n").append(result.metricsReport);
+            }
+            
             summary.append("====================================\n");
             
             appendLog(summary.toString());
@@ -333,10 +679,13 @@ public class ImporterPanel {
                 "Import completed!\n\n" +
                 "Successfully imported: %d/%d requests\n" +
                 "Failed: %d requests",
-                result.successCount, result.totalRequests, result.failedRequests.size()
+                result.successCount, result.totalRequests, result.getFailureCount()
             );
+            if (result.skippedCount > 0) {
+                message += String.format("\nSkipped: %d requests (Repeater tab limit)", result.skippedCount);
+            }
             
-            if (!result.failedRequests.isEmpty()) {
+            if (result.getFailureCount() > 0) {
                 message += "\n\n💡 You can retry failed requests using the 'Retry Failed Requests' button.";
             }
             
@@ -344,7 +693,7 @@ public class ImporterPanel {
                 mainPanel,
                 message,
                 "Import Complete",
-                result.failedRequests.isEmpty() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE
+                result.getFailureCount() == 0 ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE
             );
         });
     }
@@ -355,6 +704,22 @@ public class ImporterPanel {
         });
     }
     
+    /**
+     * Asks whether to continue an interrupted import; call off the EDT.
+     */
+    public boolean confirmResume() throws Exception {
+        boolean[] resume = new boolean[1];
+        SwingUtilities.invokeAndWait(() -> resume[0] = JOptionPane.showConfirmDialog(
+            mainPanel,
+            "An earlier import of this collection with the same environment, variables and destination did " +
+                "not finish.\nResume it and skip the requests it already imported?\n\nChoose No to start over.",
+            "Resume Import",
+            JOptionPane.YES_NO_OPTION,
+            JOptionPane.QUESTION_MESSAGE
+        ) == JOptionPane.YES_OPTION);
+        return resume[0];
+    }
+    
     private void clearEnvironmentVariables() {
         int result = JOptionPane.showConfirmDialog(
             mainPanel,
@@ -381,7 +746,87 @@ public class ImporterPanel {
         return mainPanel;
     }
     
-    public int getDelayMs() {
-        return (Integer) delaySpinner.getValue();
+    /**
+     * Snapshot of the import options currently set in the panel.
+     */
+    public ImportSettings getSettings() {
+        ImportSettings settings = new ImportSettings();
+        settings.perHostRequestsPerSecond = (Double) perHostRateSpinner.getValue();
+        settings.globalRequestsPerSecond = (Double) globalRateSpinner.getValue();
+        settings.rateLimitBurst = (Integer) burstSpinner.getValue();
+        settings.rateLimitJitterMs = (Integer) jitterSpinner.getValue();
+        settings.persistedQueries = persistedQueriesCheckBox.isSelected();
+        settings.graphQLBatchSize = (Integer) batchSizeSpinner.getValue();
+        settings.concurrency = (Integer) concurrencySpinner.getValue();
+        settings.perHostConcurrency = (Integer) perHostSpinner.getValue();
+        settings.virtualThreads = virtualThreadsCheckBox.isSelected();
+        settings.adaptiveConcurrency = adaptiveConcurrencyCheckBox.isSelected();
+        settings.dispatchOrder = (DispatchOrder) dispatchOrderCombo.getSelectedItem();
+        settings.priorityFolders = priorityFoldersField.getText();
+        settings.maxRetries = (Integer) retriesSpinner.getValue();
+        settings.circuitBreakerThreshold = (Integer) circuitBreakerSpinner.getValue();
+        settings.preflight = preflightCheckBox.isSelected();
+        settings.skipUnreachableHosts = preflightCheckBox.isSelected() && skipUnreachableCheckBox.isSelected();
+        settings.resume = resumeCheckBox.isSelected();
+        settings.repeaterTabsPerSecond = (Double) tabRateSpinner.getValue();
+        settings.repeaterTabBatch = (Integer) tabBatchSpinner.getValue();
+        settings.maxRepeaterTabs = (Integer) maxTabsSpinner.getValue();
+        settings.responseRetention = (RetentionMode) retentionCombo.getSelectedItem();
+        settings.maxResponseBodyKb = (Integer) maxBodySpinner.getValue();
+        settings.droppedResponseTypes = droppedTypesField.getText();
+        return settings;
     }
+    
+    private JPanel createLogSettingsPanel(Log log) {
+        JPanel logPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        JComboBox<Log.Level> levelCombo = new JComboBox<>(Log.Level.values());
+        levelCombo.setSelectedItem(log.getLevel());
+        levelCombo.setToolTipText("Messages below this level are never built or written to the extension output");
+        levelCombo.addActionListener(e -> log.setLevel((Log.Level) levelCombo.getSelectedItem()));
+        logPanel.add(levelCombo);
+        
+        for (Log.Category category : Log.Category.values()) {
+            JCheckBox categoryBox = new JCheckBox(category.getLabel(), log.isCategoryEnabled(category));
+            categoryBox.setToolTipText("Include " + category.getLabel() + " messages (errors are always shown)");
+            categoryBox.addActionListener(e -> log.setCategoryEnabled(category, categoryBox.isSelected()));
+            logPanel.add(Box.createHorizontalStrut(10));
+            logPanel.add(categoryBox);
+        }
+        
+        // Lines beyond this are moved out of memory to a temp file; "Save Log..." still includes them
+        JSpinner linesSpinner = new JSpinner(new SpinnerNumberModel(logModel.getCapacity(), 1000, 1000000, 1000));
+        linesSpinner.setToolTipText("Log lines kept in the view; older lines are only kept for Save Log");
+        linesSpinner.addChangeListener(e -> logModel.setCapacity((Integer) linesSpinner.getValue()));
+        logPanel.add(Box.createHorizontalStrut(10));
+        logPanel.add(new JLabel("Lines kept: "));
+        logPanel.add(linesSpinner);
+        return logPanel;
+    }
+    
+    private void refreshHostLimits() {
+        Map<String, Integer> limits = importer.getHostConcurrencyLimits();
+        if (limits.isEmpty()) {
+            hostLimitsLabel.setText(" ");
+            return;
+        }
+        StringBuilder text = new StringBuilder("Per-host limits: ");
+        int shown = 0;
+        for (Map.Entry<String, Integer> entry : limits.entrySet()) {
+            if (shown++ == 8) {
+                text.append(", +").append(limits.size() - 8).append(" more");
+                break;
+            }
+            if (shown > 1) {
+                text.append(", ");
+            }
+            text.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        hostLimitsLabel.setText(text.toString());
+    }
+    
+    private void refreshMetrics() {
+        ImportMetrics metrics = importer.getImportMetrics();
+        metricsLabel.setText(metrics == null ? " " : metrics.liveStatus());
+    }
+    
 }
\ No newline at end of file
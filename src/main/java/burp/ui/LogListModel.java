@@ -0,0 +1,266 @@
+package burp.ui;
+
+import javax.swing.AbstractListModel;
+import javax.swing.Timer;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongConsumer;
+
+/**
+ * Import log backed by a fixed-size ring buffer. Lines can be appended from any thread; they are
+ * queued and applied to the model in one batch per refresh tick on the EDT, so a busy import
+ * costs the UI one list update per tick instead of one document edit per line. Lines that fall
+ * out of the buffer are spilled to a temp file, so the whole log can still be saved.
+ */
+public class LogListModel extends AbstractListModel<String> {
+    public static final int DEFAULT_CAPACITY = 10000;
+    private static final int REFRESH_MS = 100;
+
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+    private final Timer refreshTimer;
+    private volatile LongConsumer flushListener; // Told how long each non-empty flush took
+    // Guarded by this
+    private String[] lines;
+    private int head;  // Index of the oldest line
+    private int size;
+    private File spillFile;
+    private Writer spillWriter;
+    private long spilledLines;
+
+    public LogListModel() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LogListModel(int capacity) {
+        this.lines = new String[Math.max(1, capacity)];
+        this.refreshTimer = new Timer(REFRESH_MS, e -> flush());
+        this.refreshTimer.setCoalesce(true);
+    }
+
+    /**
+     * Starts applying appended lines on the EDT every refresh tick.
+     */
+    public void start() {
+        refreshTimer.start();
+    }
+
+    /**
+     * Stops the refresh timer and deletes the spill file.
+     */
+    public void dispose() {
+        refreshTimer.stop();
+        synchronized (this) {
+            closeSpill();
+        }
+    }
+
+    /**
+     * Queues a message for display; multi-line messages become one entry per line. Thread-safe.
+     */
+    public void append(String message) {
+        if (message.indexOf('\n') < 0) {
+            pending.add(message);
+            return;
+        }
+        for (String line : message.split("\n", -1)) {
+            pending.add(line);
+        }
+    }
+
+    /**
+     * Receives the duration in nanoseconds of every flush that applied lines; null to stop.
+     */
+    public void setFlushListener(LongConsumer listener) {
+        this.flushListener = listener;
+    }
+
+    /**
+     * Applies every queued line now. Called by the refresh timer on the EDT.
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        int oldSize = size;
+        int evicted = 0;
+        String line;
+        while ((line = pending.poll()) != null) {
+            if (size == lines.length) {
+                spill(lines[head]);
+                lines[head] = line;
+                head = (head + 1) % lines.length;
+                evicted++;
+            } else {
+                lines[(head + size) % lines.length] = line;
+                size++;
+            }
+        }
+
+        // One event per batch; after a wrap the whole window shifts, so report it as changed
+        if (evicted == 0) {
+            fireIntervalAdded(this, oldSize, size - 1);
+        } else {
+            if (size > oldSize) {
+                fireIntervalAdded(this, oldSize, size - 1);
+            }
+            fireContentsChanged(this, 0, size - 1);
+        }
+        LongConsumer listener = flushListener;
+        if (listener != null) {
+            listener.accept(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Drops every line, including queued and spilled ones.
+     */
+    public synchronized void clear() {
+        pending.clear();
+        int oldSize = size;
+        head = 0;
+        size = 0;
+        Arrays.fill(lines, null);
+        closeSpill();
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+    }
+
+    /**
+     * Changes the number of lines kept in memory, spilling the oldest if it shrinks.
+     */
+    public synchronized void setCapacity(int capacity) {
+        capacity = Math.max(1, capacity);
+        if (capacity == lines.length) {
+            return;
+        }
+        int oldSize = size;
+        int keep = Math.min(size, capacity);
+        for (int i = 0; i < size - keep; i++) {
+            spill(get(i));
+        }
+        String[] resized = new String[capacity];
+        for (int i = 0; i < keep; i++) {
+            resized[i] = get(size - keep + i);
+        }
+        lines = resized;
+        head = 0;
+        size = keep;
+        if (keep < oldSize) {
+            fireIntervalRemoved(this, keep, oldSize - 1);
+        }
+        fireContentsChanged(this, 0, Math.max(0, keep - 1));
+    }
+
+    public synchronized int getCapacity() {
+        return lines.length;
+    }
+
+    /**
+     * Lines that no longer fit in memory and only live in the spill file.
+     */
+    public synchronized long getSpilledLineCount() {
+        return spilledLines;
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return size;
+    }
+
+    @Override
+    public synchronized String getElementAt(int index) {
+        return index >= 0 && index < size ? get(index) : "";
+    }
+
+    /**
+     * Writes the whole log (spilled lines, then the lines in memory) to the given file.
+     * The ring is only locked while it is copied, so this can run off the EDT during an import.
+     */
+    public void writeTo(File target) throws IOException {
+        File spillCopy;
+        long spillBytes;
+        List<String> snapshot;
+        synchronized (this) {
+            if (spillWriter != null) {
+                spillWriter.flush();
+            }
+            spillCopy = spillFile;
+            spillBytes = spillFile != null ? spillFile.length() : 0;
+            snapshot = new ArrayList<>(size + pending.size());
+            for (int i = 0; i < size; i++) {
+                snapshot.add(get(i));
+            }
+            // Lines still waiting for the next refresh tick
+            snapshot.addAll(pending);
+        }
+
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(target))) {
+            if (spillCopy != null) {
+                try (InputStream in = new BufferedInputStream(new FileInputStream(spillCopy))) {
+                    copy(in, out, spillBytes);
+                } catch (FileNotFoundException e) {
+                    // Log was cleared while saving
+                }
+            }
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            for (String line : snapshot) {
+                writer.write(line);
+                writer.write('\n');
+            }
+            writer.flush();
+        }
+    }
+
+    private String get(int index) {
+        return lines[(head + index) % lines.length];
+    }
+
+    private void spill(String line) {
+        try {
+            if (spillWriter == null) {
+                spillFile = Files.createTempFile("postman-importer-log", ".txt").toFile();
+                spillFile.deleteOnExit();
+                spillWriter = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(spillFile), StandardCharsets.UTF_8), 1 << 16);
+            }
+            spillWriter.write(line);
+            spillWriter.write('\n');
+            spilledLines++;
+        } catch (IOException e) {
+            // Spilling is best effort - the line is still dropped from memory
+        }
+    }
+
+    private void closeSpill() {
+        if (spillWriter != null) {
+            try {
+                spillWriter.close();
+            } catch (IOException e) {
+                // Nothing left to flush into
+            }
+            spillWriter = null;
+        }
+        if (spillFile != null) {
+            spillFile.delete();
+            spillFile = null;
+        }
+        spilledLines = 0;
+    }
+
+    private static void copy(InputStream in, OutputStream out, long limit) throws IOException {
+        byte[] buffer = new byte[1 << 16];
+        long remaining = limit;
+        int read;
+        while (remaining > 0 && (read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package burp.utils;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Per-host in-flight limits that follow how each host is coping (AIMD with a latency gradient).
+ * Healthy responses grow a host's limit by about one per window of requests, latency well above
+ * the best latency seen for that host shrinks it gently, and 429/503 responses halve it.
+ * Retry-After pauses the host, and a low X-RateLimit-Remaining caps its limit.
+ */
+public class AdaptiveConcurrency {
+    private static final double LATENCY_TOLERANCE = 2.0;   // Smoothed latency above 2x the baseline means queueing
+    private static final double GRADIENT_DECREASE = 0.9;
+    private static final double THROTTLE_DECREASE = 0.5;
+    private static final double LATENCY_SMOOTHING = 0.2;
+    private static final double BASELINE_DRIFT = 1.001;    // Lets the baseline follow a host that gets slower for good
+    private static final long DEFAULT_PAUSE_MS = 1000;
+    private static final long MAX_PAUSE_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final long CANCEL_POLL_MS = 20;
+
+    private final int initialLimit;
+    private final int maxLimit;
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    private static class HostState {
+        double limit;
+        double baselineNanos = Double.MAX_VALUE;
+        double smoothedNanos;
+        long pausedUntilNanos;
+        boolean paused;
+
+        HostState(int limit) {
+            this.limit = limit;
+        }
+    }
+
+    public AdaptiveConcurrency(int initialLimit, int maxLimit) {
+        this.maxLimit = Math.max(1, maxLimit);
+        this.initialLimit = Math.max(1, Math.min(initialLimit, this.maxLimit));
+    }
+
+    public int limit(String host) {
+        HostState state = hosts.get(host);
+        if (state == null) {
+            return initialLimit;
+        }
+        synchronized (state) {
+            return (int) state.limit;
+        }
+    }
+
+    public boolean isPaused(String host) {
+        return pauseRemainingNanos(host) > 0;
+    }
+
+    /**
+     * Feeds one completed request back into the host's limit.
+     *
+     * @param retryAfter         Retry-After header value, or null
+     * @param rateLimitRemaining X-RateLimit-Remaining header value, or null
+     */
+    public void onResponse(String host, long latencyNanos, int statusCode, String retryAfter, String rateLimitRemaining) {
+        HostState state = hosts.computeIfAbsent(host, k -> new HostState(initialLimit));
+        long now = System.nanoTime();
+        long pauseMs = parseRetryAfterMillis(retryAfter);
+        int remaining = parseRemaining(rateLimitRemaining);
+
+        synchronized (state) {
+            if (statusCode == 429 || statusCode == 503) {
+                state.limit = Math.max(1, state.limit * THROTTLE_DECREASE);
+                pauseMs = pauseMs >= 0 ? pauseMs : DEFAULT_PAUSE_MS;
+            } else {
+                state.baselineNanos = Math.min(latencyNanos, state.baselineNanos * BASELINE_DRIFT);
+                state.smoothedNanos = state.smoothedNanos == 0 ? latencyNanos :
+                    state.smoothedNanos + LATENCY_SMOOTHING * (latencyNanos - state.smoothedNanos);
+
+                if (state.smoothedNanos > LATENCY_TOLERANCE * state.baselineNanos) {
+                    state.limit = Math.max(1, state.limit * GRADIENT_DECREASE);
+                } else {
+                    state.limit = Math.min(maxLimit, state.limit + 1 / state.limit);
+                }
+            }
+
+            if (remaining >= 0) {
+                // Never keep more requests in flight than the server says we have left
+                state.limit = Math.max(1, Math.min(state.limit, remaining));
+                if (remaining == 0 && pauseMs < 0) {
+                    pauseMs = DEFAULT_PAUSE_MS;
+                }
+            }
+
+            if (pauseMs > 0) {
+                long until = now + TimeUnit.MILLISECONDS.toNanos(Math.min(pauseMs, MAX_PAUSE_MS));
+                state.pausedUntilNanos = state.paused ? Math.max(state.pausedUntilNanos, until) : until;
+                state.paused = true;
+            }
+        }
+    }
+
+    /**
+     * Blocks while the host is paused by Retry-After. Returns false if cancelled while waiting.
+     */
+    public boolean awaitResume(String host, BooleanSupplier cancelled) throws InterruptedException {
+        long remaining;
+        while ((remaining = pauseRemainingNanos(host)) > 0) {
+            if (cancelled.getAsBoolean()) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(CANCEL_POLL_MS)));
+        }
+        return !cancelled.getAsBoolean();
+    }
+
+    /**
+     * Current limit per host, sorted by host, for display.
+     */
+    public Map<String, Integer> snapshot() {
+        Map<String, Integer> limits = new TreeMap<>();
+        for (String host : hosts.keySet()) {
+            limits.put(host, limit(host));
+        }
+        return limits;
+    }
+
+    private long pauseRemainingNanos(String host) {
+        HostState state = hosts.get(host);
+        if (state == null) {
+            return 0;
+        }
+        synchronized (state) {
+            return state.paused ? state.pausedUntilNanos - System.nanoTime() : 0;
+        }
+    }
+
+    // Retry-After is either delta-seconds or an HTTP date; returns -1 if absent or unparseable
+    private static long parseRetryAfterMillis(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return -1;
+        }
+        String trimmed = value.trim();
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(trimmed)));
+        } catch (NumberFormatException e) {
+            // Not delta-seconds
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static int parseRemaining(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
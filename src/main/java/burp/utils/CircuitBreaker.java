@@ -0,0 +1,159 @@
+package burp.utils;
+
+import burp.models.FailureClass;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-host circuit breaker. After a run of consecutive host failures (DNS, connect, timeout,
+ * 5xx) the host's circuit opens and its remaining requests fail fast instead of each waiting
+ * on the same dead host. Once the cool-down has passed one probe request is let through;
+ * if the host answers the circuit closes, if it fails again it opens again, and if the probe
+ * is abandoned the next request becomes the probe.
+ */
+public class CircuitBreaker {
+    private final int failureThreshold;
+    private final long openNanos;
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    private static class HostState {
+        int consecutiveFailures;
+        boolean open;
+        boolean probing;
+        Thread prober; // Thread sending the probe, so only it can abandon the probe
+        long openUntilNanos;
+    }
+
+    /**
+     * @param failureThreshold consecutive failures that open a host's circuit (0 = never)
+     * @param openMillis       how long the circuit stays open before a probe is allowed
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(0, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, openMillis));
+    }
+
+    public static CircuitBreaker disabled() {
+        return new CircuitBreaker(0, 0);
+    }
+
+    /**
+     * Whether a request to the host may be sent now. While open, returns false until the
+     * cool-down ends, then true for exactly one probe.
+     */
+    public boolean allowRequest(String host) {
+        if (failureThreshold == 0) {
+            return true;
+        }
+        HostState state = hosts.get(host);
+        if (state == null) {
+            return true;
+        }
+        synchronized (state) {
+            if (!state.open) {
+                return true;
+            }
+            if (state.probing || System.nanoTime() < state.openUntilNanos) {
+                return false;
+            }
+            state.probing = true;
+            state.prober = Thread.currentThread();
+            return true;
+        }
+    }
+
+    public void onSuccess(String host) {
+        HostState state = hosts.get(host);
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            close(state);
+        }
+    }
+
+    /**
+     * Records a failure. Returns true if this failure opened the host's circuit.
+     */
+    public boolean onFailure(String host, FailureClass failureClass) {
+        if (failureThreshold == 0) {
+            return false;
+        }
+        if (!failureClass.isHostFailure()) {
+            // Throttled or rejected, but the host answered, so a probe with this outcome closes the circuit
+            HostState state = hosts.get(host);
+            if (state != null) {
+                synchronized (state) {
+                    if (state.probing) {
+                        close(state);
+                    }
+                }
+            }
+            return false;
+        }
+        HostState state = hosts.computeIfAbsent(host, k -> new HostState());
+        synchronized (state) {
+            state.consecutiveFailures++;
+            boolean reopen = state.open && state.probing;
+            if (reopen || (!state.open && state.consecutiveFailures >= failureThreshold)) {
+                state.open = true;
+                state.probing = false;
+                state.prober = null;
+                state.openUntilNanos = System.nanoTime() + openNanos;
+                return !reopen;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Called when a request let through by allowRequest ends without reporting success or
+     * failure, e.g. because the import was cancelled. If it was the probe, the circuit stays
+     * open and the next request becomes the probe.
+     */
+    public void release(String host) {
+        HostState state = hosts.get(host);
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            if (state.probing && state.prober == Thread.currentThread()) {
+                state.probing = false;
+                state.prober = null;
+            }
+        }
+    }
+
+    public boolean isOpen(String host) {
+        HostState state = hosts.get(host);
+        if (state == null) {
+            return false;
+        }
+        synchronized (state) {
+            return state.open;
+        }
+    }
+
+    private static void close(HostState state) {
+        state.consecutiveFailures = 0;
+        state.open = false;
+        state.probing = false;
+        state.prober = null;
+    }
+
+    /**
+     * Hosts whose circuit is currently open, sorted, for reporting.
+     */
+    public Set<String> openHosts() {
+        Set<String> open = new TreeSet<>();
+        for (String host : hosts.keySet()) {
+            if (isOpen(host)) {
+                open.add(host);
+            }
+        }
+        return open;
+    }
+}
@@ -0,0 +1,91 @@
+package burp.utils;
+
+import burp.models.DispatchOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Predicate;
+
+/**
+ * Decides which waiting task a RequestDispatcher starts next when a worker frees up. Only tasks
+ * that could not start right away wait here, so the order only matters while the dispatcher is
+ * saturated, and only within its queue limit. The dispatcher calls every method with its lock
+ * held, so implementations need no locking of their own.
+ */
+public interface DispatchScheduler {
+
+    void add(Task task);
+
+    /**
+     * Removes and returns the task to start next among the hosts the predicate accepts, or null
+     * if none of them has a task waiting.
+     */
+    Task next(Predicate<String> canStart);
+
+    boolean hasWaiting(String host);
+
+    int size();
+
+    void clear();
+
+    /**
+     * A queued request and what the policies order it by.
+     */
+    class Task implements Runnable {
+        final String host;
+        final String path;       // Folder path and name in the collection, "/"-separated
+        final String method;
+        final int bodyLength;
+        final Runnable work;
+        long sequence;           // Submission order, assigned by the scheduler
+
+        public Task(String host, Runnable work) {
+            this(host, "", "", 0, work);
+        }
+
+        public Task(String host, String path, String method, int bodyLength, Runnable work) {
+            this.host = host;
+            this.path = path != null ? path : "";
+            this.method = method != null ? method : "";
+            this.bodyLength = bodyLength;
+            this.work = work;
+        }
+
+        /**
+         * Takes the method and body length from a raw HTTP request.
+         */
+        public static Task forRequest(String host, String path, byte[] request, Runnable work) {
+            int space = 0;
+            while (space < request.length && space < 16 && request[space] != ' ') {
+                space++;
+            }
+            String method = new String(request, 0, space, StandardCharsets.US_ASCII);
+            int bodyStart = request.length;
+            for (int i = 3; i < request.length; i++) {
+                if (request[i] == '\n' && request[i - 1] == '\r' && request[i - 2] == '\n' && request[i - 3] == '\r') {
+                    bodyStart = i + 1;
+                    break;
+                }
+            }
+            return new Task(host, path, method, request.length - bodyStart, work);
+        }
+
+        @Override
+        public void run() {
+            work.run();
+        }
+    }
+
+    /**
+     * Tasks in the order they were submitted; the default.
+     */
+    static DispatchScheduler fifo() {
+        return forOrder(DispatchOrder.FIFO, "");
+    }
+
+    /**
+     * A scheduler for the given policy. priorityFolders is a comma-separated list of folder
+     * paths, highest priority first, and only used by FOLDER_PRIORITY.
+     */
+    static DispatchScheduler forOrder(DispatchOrder order, String priorityFolders) {
+        return PriorityDispatchScheduler.create(order, priorityFolders);
+    }
+}
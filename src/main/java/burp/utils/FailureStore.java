@@ -0,0 +1,124 @@
+package burp.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Holds the rendered bytes of failed requests so Retry can resend them without parsing and
+ * building the collection again. Bytes stay on the heap up to a memory budget; past it they
+ * are appended to a temp file and read back on demand, so a big import with many failures
+ * keeps little in memory. Closing deletes the file; refs into a closed store can't be loaded.
+ */
+public class FailureStore implements Closeable {
+    public static final long DEFAULT_MEMORY_BUDGET = 16L * 1024 * 1024;
+
+    private final long memoryBudget;
+    // Guarded by this
+    private long memoryBytes;
+    private long spilledBytes;
+    private File spillFile;
+    private FileChannel spill;
+    private boolean closed;
+
+    /**
+     * Bytes kept by a store, either on the heap or at a position in its spill file.
+     */
+    public static class Ref {
+        private final FailureStore store;
+        private final byte[] data;
+        private final long offset;
+        private final int length;
+
+        private Ref(FailureStore store, byte[] data, long offset, int length) {
+            this.store = store;
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public byte[] load() throws IOException {
+            return data != null ? data : store.read(offset, length);
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public boolean isSpilled() {
+            return data == null;
+        }
+    }
+
+    public FailureStore() {
+        this(DEFAULT_MEMORY_BUDGET);
+    }
+
+    public FailureStore(long memoryBudget) {
+        this.memoryBudget = Math.max(0, memoryBudget);
+    }
+
+    /**
+     * Keeps the bytes without copying them, so the caller must not modify them afterwards.
+     */
+    public synchronized Ref put(byte[] bytes) throws IOException {
+        if (closed) {
+            throw new IOException("Failure store is closed");
+        }
+        if (memoryBytes + bytes.length <= memoryBudget) {
+            memoryBytes += bytes.length;
+            return new Ref(this, bytes, 0, bytes.length);
+        }
+        if (spill == null) {
+            spillFile = Files.createTempFile("postman-importer-failures", ".bin").toFile();
+            spillFile.deleteOnExit();
+            spill = FileChannel.open(spillFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        long offset = spilledBytes;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            spill.write(buffer, offset + buffer.position());
+        }
+        spilledBytes += bytes.length;
+        return new Ref(this, null, offset, bytes.length);
+    }
+
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public synchronized long getSpilledBytes() {
+        return spilledBytes;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (spill != null) {
+            try {
+                spill.close();
+            } catch (IOException e) {
+                // Deleting it anyway
+            }
+            spill = null;
+            spillFile.delete();
+        }
+    }
+
+    private synchronized byte[] read(long offset, int length) throws IOException {
+        if (closed) {
+            throw new IOException("Failure store is closed");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (spill.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Failure store spill file is truncated");
+            }
+        }
+        return buffer.array();
+    }
+}
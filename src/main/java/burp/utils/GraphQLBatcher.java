@@ -0,0 +1,155 @@
+package burp.utils;
+
+import burp.api.montoya.core.ByteArray;
+import burp.api.montoya.http.HttpService;
+import burp.api.montoya.http.message.HttpRequestResponse;
+import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.api.montoya.http.message.responses.HttpResponse;
+import com.google.gson.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Groups GraphQL operations sent to the same endpoint into JSON-array batch requests.
+ * Operations are compatible when they share the HTTP service and every request header,
+ * so the batch can reuse the first operation's request line and headers unchanged.
+ * The batcher only groups and splits; the caller sends each batch like any other request,
+ * through its rate limiter, circuit breaker, retries and dispatcher, and splits the batch
+ * response back into one request/response pair per operation.
+ */
+public class GraphQLBatcher<T> {
+    private static final Gson GSON = new GsonBuilder().serializeNulls().create();
+
+    private final int batchSize;
+    private final Map<String, Batch<T>> pending = new LinkedHashMap<>();
+
+    /**
+     * Compatible operations bound for one endpoint, sent as a single request.
+     */
+    public static class Batch<T> {
+        private final HttpService service;
+        private final List<T> operations = new ArrayList<>();
+        private final List<HttpRequest> requests = new ArrayList<>();
+        private int bodyLength = 2;
+
+        Batch(HttpService service) {
+            this.service = service;
+        }
+
+        public List<T> operations() {
+            return operations;
+        }
+
+        public int size() {
+            return operations.size();
+        }
+
+        public String hostKey() {
+            return service.host() + ":" + service.port();
+        }
+
+        public int bodyLength() {
+            return bodyLength;
+        }
+
+        /**
+         * The batch request: the first operation's request line and headers with a JSON array
+         * of every operation's body.
+         */
+        public HttpRequest request() {
+            StringBuilder body = new StringBuilder(bodyLength).append('[');
+            for (int i = 0; i < requests.size(); i++) {
+                if (i > 0) body.append(',');
+                body.append(requests.get(i).bodyToString());
+            }
+            body.append(']');
+            return requests.get(0).withBody(body.toString());
+        }
+
+        void add(T operation, HttpRequest request, int requestBodyLength) {
+            operations.add(operation);
+            requests.add(request);
+            bodyLength += requestBodyLength + 1;
+        }
+    }
+
+    public GraphQLBatcher(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Queues an operation. Returns the batch it completed, or null while that batch fills up.
+     */
+    public Batch<T> add(T operation, HttpUtils.HostInfo hostInfo, byte[] request) {
+        String headerSection = headerSection(request);
+        String key = hostInfo.host + ":" + hostInfo.port + ":" + hostInfo.useHttps + "\n" + headerSection;
+
+        HttpService service = HttpService.httpService(hostInfo.host, hostInfo.port, hostInfo.useHttps);
+        Batch<T> batch = pending.computeIfAbsent(key, k -> new Batch<>(service));
+        batch.add(operation, HttpRequest.httpRequest(service, ByteArray.byteArray(request)),
+            Math.max(0, request.length - headerSection.getBytes(StandardCharsets.UTF_8).length - 4));
+
+        if (batch.size() >= batchSize) {
+            pending.remove(key);
+            return batch;
+        }
+        return null;
+    }
+
+    /**
+     * Takes every partially filled batch.
+     */
+    public List<Batch<T>> flush() {
+        List<Batch<T>> batches = new ArrayList<>(pending.values());
+        pending.clear();
+        return batches;
+    }
+
+    public int pendingCount() {
+        int count = 0;
+        for (Batch<T> batch : pending.values()) {
+            count += batch.size();
+        }
+        return count;
+    }
+
+    /**
+     * Splits a batch response into one request/response pair per operation, in order. Returns
+     * null if the endpoint did not answer with an array of matching size, i.e. does not batch.
+     */
+    public static <T> List<HttpRequestResponse> split(Batch<T> batch, HttpRequestResponse batchResponse) {
+        JsonArray results = parseBatchResults(batchResponse, batch.size());
+        if (results == null) {
+            return null;
+        }
+        List<HttpRequestResponse> parts = new ArrayList<>();
+        HttpResponse response = batchResponse.response();
+        for (int i = 0; i < batch.size(); i++) {
+            HttpResponse part = response.withBody(ByteArray.byteArray(
+                GSON.toJson(results.get(i)).getBytes(StandardCharsets.UTF_8)));
+            parts.add(HttpRequestResponse.httpRequestResponse(batch.requests.get(i), part));
+        }
+        return parts;
+    }
+
+    private static JsonArray parseBatchResults(HttpRequestResponse batchResponse, int expected) {
+        if (batchResponse == null || batchResponse.response() == null) {
+            return null;
+        }
+        try {
+            JsonElement element = JsonParser.parseString(batchResponse.response().bodyToString());
+            if (element.isJsonArray() && element.getAsJsonArray().size() == expected) {
+                return element.getAsJsonArray();
+            }
+        } catch (Exception e) {
+            // Not JSON - treat as unsupported
+        }
+        return null;
+    }
+
+    private static String headerSection(byte[] request) {
+        String raw = new String(request, StandardCharsets.UTF_8);
+        int end = raw.indexOf("\r\n\r\n");
+        return end == -1 ? raw : raw.substring(0, end);
+    }
+}
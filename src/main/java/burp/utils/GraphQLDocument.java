@@ -0,0 +1,213 @@
+package burp.utils;
+
+import burp.parser.VariableResolver;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A GraphQL document tokenized once and kept in minified form.
+ * Comments, commas and redundant whitespace are dropped while string literals
+ * are kept verbatim. Postman {{variables}} are kept as their own tokens so they
+ * can be resolved on each render without re-scanning the whole query.
+ */
+public class GraphQLDocument {
+    private enum TokenType { WORD, PUNCTUATOR, STRING, TEMPLATE }
+
+    private static class Token {
+        final TokenType type;
+        final String text;
+        final boolean separated; // Whitespace preceded this token in the source
+
+        Token(TokenType type, String text, boolean separated) {
+            this.type = type;
+            this.text = text;
+            this.separated = separated;
+        }
+    }
+
+    private final List<Token> tokens;
+    private final String minified; // Pre-rendered text when the document has no Postman variables
+
+    private GraphQLDocument(List<Token> tokens) {
+        this.tokens = tokens;
+        boolean hasTemplates = false;
+        for (Token token : tokens) {
+            if (token.type == TokenType.TEMPLATE ||
+                (token.type == TokenType.STRING && token.text.contains("{{"))) {
+                hasTemplates = true;
+                break;
+            }
+        }
+        this.minified = hasTemplates ? null : render(null);
+    }
+
+    public static GraphQLDocument compile(String query) {
+        List<Token> tokens = new ArrayList<>();
+        int length = query.length();
+        int i = 0;
+        boolean separated = false;
+
+        while (i < length) {
+            char c = query.charAt(i);
+
+            // Ignored tokens: whitespace, commas, byte order mark and comments
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == ',' || c == '\uFEFF') {
+                separated = true;
+                i++;
+                continue;
+            }
+            if (c == '#') {
+                while (i < length && query.charAt(i) != '\n' && query.charAt(i) != '\r') {
+                    i++;
+                }
+                separated = true;
+                continue;
+            }
+
+            int start = i;
+            TokenType type;
+
+            if (c == '{' && i + 1 < length && query.charAt(i + 1) == '{' && VariableResolver.findVariableEnd(query, i) != -1) {
+                // Postman variable, matched the same way VariableResolver does
+                i = VariableResolver.findVariableEnd(query, i);
+                type = TokenType.TEMPLATE;
+            } else if (c == '"') {
+                i = findStringEnd(query, i);
+                type = TokenType.STRING;
+            } else if (isWordChar(c) || c == '-') {
+                i++;
+                while (i < length && (isWordChar(query.charAt(i)) || isNumberPart(query, i))) {
+                    i++;
+                }
+                type = TokenType.WORD;
+            } else if (c == '.' && query.startsWith("...", i)) {
+                i += 3;
+                type = TokenType.PUNCTUATOR;
+            } else {
+                i++;
+                type = isPunctuator(c) ? TokenType.PUNCTUATOR : TokenType.WORD;
+            }
+
+            tokens.add(new Token(type, query.substring(start, i), separated));
+            separated = false;
+        }
+
+        return new GraphQLDocument(tokens);
+    }
+
+    /**
+     * Renders the minified document, resolving Postman variables with the given resolver.
+     * A null resolver leaves variables untouched.
+     */
+    public String render(VariableResolver resolver) {
+        if (minified != null) {
+            return minified;
+        }
+
+        StringBuilder out = new StringBuilder();
+        Token previous = null;
+        for (Token token : tokens) {
+            if (previous != null && needsSeparator(previous, token)) {
+                out.append(' ');
+            }
+            if (resolver != null && token.type == TokenType.TEMPLATE) {
+                out.append(resolver.resolveVariable(token.text.substring(2, token.text.length() - 2)));
+            } else if (resolver != null && token.type == TokenType.STRING && token.text.contains("{{")) {
+                out.append(resolver.resolve(token.text));
+            } else {
+                out.append(token.text);
+            }
+            previous = token;
+        }
+        return out.toString();
+    }
+
+    public boolean hasVariables() {
+        return minified == null;
+    }
+
+    public static String sha256Hex(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static boolean needsSeparator(Token previous, Token next) {
+        // Two adjacent names or numbers would merge into one token without a space.
+        // Templates can resolve to anything, so next to a name they keep the author's spacing.
+        boolean previousWord = previous.type == TokenType.WORD || previous.type == TokenType.TEMPLATE;
+        boolean nextWord = next.type == TokenType.WORD || next.type == TokenType.TEMPLATE;
+        if (previous.type == TokenType.TEMPLATE || next.type == TokenType.TEMPLATE) {
+            return previousWord && nextWord && next.separated;
+        }
+        return previousWord && nextWord;
+    }
+
+    private static int findStringEnd(String query, int start) {
+        int length = query.length();
+
+        if (query.startsWith("\"\"\"", start)) {
+            int i = start + 3;
+            while (i < length) {
+                if (query.startsWith("\\\"\"\"", i)) {
+                    i += 4;
+                } else if (query.startsWith("\"\"\"", i)) {
+                    return i + 3;
+                } else {
+                    i++;
+                }
+            }
+            return length;
+        }
+
+        int i = start + 1;
+        while (i < length) {
+            char c = query.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '"' || c == '\n' || c == '\r') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isNumberPart(String query, int i) {
+        // Decimal points and exponent signs inside numeric literals such as 1.5e-3
+        char c = query.charAt(i);
+        if (c == '.' && !query.startsWith("...", i)) {
+            return Character.isDigit(query.charAt(i - 1));
+        }
+        return (c == '+' || c == '-') && i >= 2
+            && (query.charAt(i - 1) == 'e' || query.charAt(i - 1) == 'E')
+            && Character.isDigit(query.charAt(i - 2));
+    }
+
+    private static boolean isPunctuator(char c) {
+        switch (c) {
+            case '!': case '$': case '&': case '(': case ')': case ':':
+            case '=': case '@': case '[': case ']': case '{': case '|': case '}':
+                return true;
+            default:
+                return false;
+        }
+    }
+}
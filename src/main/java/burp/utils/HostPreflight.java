@@ -0,0 +1,120 @@
+package burp.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Pre-flight checks for one import, started the first time the import meets each host instead
+ * of reading the whole collection for its hosts up front. Probes run in the background, so
+ * requests keep flowing; a send that wants to skip unreachable hosts waits for its host's probe.
+ * Probes connect directly rather than through Burp's upstream proxy, so a host is only skipped
+ * once a request sent through Burp could not reach it either.
+ */
+public class HostPreflight {
+    private static final int MAX_PARALLEL_PROBES = 8;
+    private static final AtomicInteger PREFLIGHT_NUMBER = new AtomicInteger();
+
+    private final HostProbe probe;
+    private final Consumer<HostProbe.Result> onResult;
+    private final ExecutorService executor;
+    private final Map<String, Future<HostProbe.Result>> probes = new ConcurrentHashMap<>();
+    private final Set<String> reachedThroughBurp = ConcurrentHashMap.newKeySet();
+    private final Set<String> failedThroughBurp = ConcurrentHashMap.newKeySet();
+
+    /**
+     * onResult is called once per host, on a probe thread, as each probe finishes.
+     */
+    public HostPreflight(HostProbe probe, Consumer<HostProbe.Result> onResult) {
+        this.probe = probe;
+        this.onResult = onResult;
+        this.executor = WorkerThreads.newExecutor("Postman Importer preflight-" +
+            PREFLIGHT_NUMBER.incrementAndGet() + "-", MAX_PARALLEL_PROBES, true);
+    }
+
+    /**
+     * Starts probing the host unless this import already has.
+     */
+    public void seen(HttpUtils.HostInfo host) {
+        probes.computeIfAbsent(host.host + ":" + host.port, key -> executor.submit(() -> {
+            HostProbe.Result result = probe.probe(host);
+            onResult.accept(result);
+            return result;
+        }));
+    }
+
+    /**
+     * Waits for the probe of a host passed to seen(); null for a host never seen. A probe stuck
+     * in a DNS lookup counts as timed out once the probe's time is up.
+     */
+    public HostProbe.Result await(String hostKey) throws InterruptedException {
+        Future<HostProbe.Result> result = probes.get(hostKey);
+        if (result == null) {
+            return null;
+        }
+        try {
+            return result.get(probe.maxWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            int colon = hostKey.lastIndexOf(':');
+            return probe.timedOut(hostKey.substring(0, colon), Integer.parseInt(hostKey.substring(colon + 1)));
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Records whether a request sent through Burp got any response from the host. Once one has,
+     * later network errors are left to retries and the circuit breaker.
+     */
+    public void recordSend(String hostKey, boolean reached) {
+        if (reached) {
+            reachedThroughBurp.add(hostKey);
+            failedThroughBurp.remove(hostKey);
+        } else if (!reachedThroughBurp.contains(hostKey)) {
+            failedThroughBurp.add(hostKey);
+        }
+    }
+
+    /**
+     * The failed probe of a host that Burp could not reach either, or null if requests to it
+     * should still be sent.
+     */
+    public HostProbe.Result skipReason(String hostKey) throws InterruptedException {
+        if (!failedThroughBurp.contains(hostKey)) {
+            return null;
+        }
+        HostProbe.Result result = await(hostKey);
+        return result != null && !result.reachable ? result : null;
+    }
+
+    public int size() {
+        return probes.size();
+    }
+
+    /**
+     * Waits for every probe started so far and returns the hosts found unreachable.
+     */
+    public List<HostProbe.Result> unreachable() throws InterruptedException {
+        List<HostProbe.Result> unreachable = new ArrayList<>();
+        for (String hostKey : probes.keySet()) {
+            HostProbe.Result result = await(hostKey);
+            if (result != null && !result.reachable) {
+                unreachable.add(result);
+            }
+        }
+        return unreachable;
+    }
+
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,189 @@
+package burp.utils;
+
+import burp.models.FailureClass;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pre-flight reachability check: resolves DNS and opens a TCP connection to a host:port, one
+ * at a time or every distinct host in parallel, so unreachable hosts (missing VPN, typo in
+ * baseUrl) show up early. Results are cached per host:port - reachable hosts for a few
+ * minutes, unreachable ones only briefly so a retry after fixing the network checks again.
+ */
+public class HostProbe {
+    private static final int MAX_PARALLEL_PROBES = 32;
+    private static final int MAX_ADDRESSES_TRIED = 2;
+    private static final long REACHABLE_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final long UNREACHABLE_TTL_MS = TimeUnit.SECONDS.toMillis(10);
+    private static final AtomicInteger PROBE_NUMBER = new AtomicInteger();
+
+    private final int timeoutMs;
+    private final Map<String, Result> cache = new ConcurrentHashMap<>();
+
+    public static class Result {
+        public final String host;
+        public final int port;
+        public final boolean reachable;
+        public final FailureClass failure; // Null if reachable
+        public final String detail;
+        public final long millis;
+        final long checkedAt;
+
+        Result(String host, int port, FailureClass failure, String detail, long millis) {
+            this.host = host;
+            this.port = port;
+            this.reachable = failure == null;
+            this.failure = failure;
+            this.detail = detail;
+            this.millis = millis;
+            this.checkedAt = System.currentTimeMillis();
+        }
+
+        public String hostKey() {
+            return host + ":" + port;
+        }
+
+        @Override
+        public String toString() {
+            return reachable ? hostKey() + " (" + millis + " ms)" :
+                hostKey() + " - " + failure.getLabel() + ": " + detail;
+        }
+    }
+
+    public HostProbe(int timeoutMs) {
+        this.timeoutMs = Math.max(100, timeoutMs);
+    }
+
+    /**
+     * Probes every host not already cached, in parallel, and returns the results keyed by
+     * host:port in the order given. Blocks for at most about two probe timeouts.
+     */
+    public Map<String, Result> probeAll(Collection<HttpUtils.HostInfo> hosts) throws InterruptedException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        Map<String, HttpUtils.HostInfo> toProbe = new LinkedHashMap<>();
+        for (HttpUtils.HostInfo host : hosts) {
+            String key = host.host + ":" + host.port;
+            Result cached = cached(key);
+            if (cached != null) {
+                results.put(key, cached);
+            } else {
+                results.put(key, null);
+                toProbe.put(key, host);
+            }
+        }
+        if (toProbe.isEmpty()) {
+            return results;
+        }
+
+        ExecutorService executor = WorkerThreads.newExecutor("Postman Importer preflight-" +
+            PROBE_NUMBER.incrementAndGet() + "-", Math.min(MAX_PARALLEL_PROBES, toProbe.size()), true);
+        try {
+            Map<String, Future<Result>> futures = new LinkedHashMap<>();
+            for (Map.Entry<String, HttpUtils.HostInfo> entry : toProbe.entrySet()) {
+                HttpUtils.HostInfo host = entry.getValue();
+                futures.put(entry.getKey(), executor.submit(() -> probe(host.host, host.port)));
+            }
+
+            // DNS lookups cannot be given a timeout, so bound the wait for them here instead
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs());
+            for (Map.Entry<String, Future<Result>> entry : futures.entrySet()) {
+                HttpUtils.HostInfo host = toProbe.get(entry.getKey());
+                Result result;
+                try {
+                    result = entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    entry.getValue().cancel(true);
+                    result = timedOut(host.host, host.port);
+                } catch (ExecutionException e) {
+                    result = new Result(host.host, host.port, FailureClass.classify(e.getCause()),
+                        String.valueOf(e.getCause().getMessage()), 0);
+                }
+                cache.put(entry.getKey(), result);
+                results.put(entry.getKey(), result);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Probes one host on the calling thread, unless a recent result is cached. Unlike probeAll
+     * the DNS lookup is not bounded; callers wait on it for at most maxWaitMs().
+     */
+    public Result probe(HttpUtils.HostInfo host) {
+        String key = host.host + ":" + host.port;
+        Result result = cached(key);
+        if (result != null) {
+            return result;
+        }
+        try {
+            result = probe(host.host, host.port);
+        } catch (RuntimeException e) {
+            result = new Result(host.host, host.port, FailureClass.classify(e), String.valueOf(e.getMessage()), 0);
+        }
+        cache.put(key, result);
+        return result;
+    }
+
+    /**
+     * How long a probe may take before its host counts as timed out: two connect timeouts
+     * plus some slack for the DNS lookup.
+     */
+    public long maxWaitMs() {
+        return 2L * timeoutMs + 500;
+    }
+
+    Result timedOut(String host, int port) {
+        return new Result(host, port, FailureClass.TIMEOUT, "no answer within " + (2L * timeoutMs) + " ms",
+            2L * timeoutMs);
+    }
+
+    public void clearCache() {
+        cache.clear();
+    }
+
+    private Result cached(String key) {
+        Result cached = cache.get(key);
+        if (cached == null) {
+            return null;
+        }
+        long ttl = cached.reachable ? REACHABLE_TTL_MS : UNREACHABLE_TTL_MS;
+        return System.currentTimeMillis() - cached.checkedAt < ttl ? cached : null;
+    }
+
+    private Result probe(String host, int port) {
+        long start = System.nanoTime();
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host);
+        } catch (UnknownHostException e) {
+            return new Result(host, port, FailureClass.DNS, "name not resolved (VPN or typo in the URL?)", elapsedMs(start));
+        }
+
+        Exception lastError = null;
+        for (int i = 0; i < addresses.length && i < MAX_ADDRESSES_TRIED; i++) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(addresses[i], port), timeoutMs);
+                return new Result(host, port, null, addresses[i].getHostAddress(), elapsedMs(start));
+            } catch (Exception e) {
+                lastError = e;
+            }
+        }
+        FailureClass failure = lastError instanceof SocketTimeoutException ?
+            FailureClass.TIMEOUT : FailureClass.CONNECT;
+        String detail = failure == FailureClass.TIMEOUT ? "no TCP connection within " + timeoutMs + " ms" :
+            "TCP connect failed (" + lastError.getMessage() + ")";
+        return new Result(host, port, failure, detail, elapsedMs(start));
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
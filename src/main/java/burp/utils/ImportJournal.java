@@ -0,0 +1,206 @@
+package burp.utils;
+
+import burp.models.FailureClass;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only on-disk record of which requests of an import have completed or failed, so an
+ * import that dies part way (Burp restart, VPN drop, cancel) can pick up where it stopped.
+ * Requests are identified by their position in the collection; anything not in the journal
+ * is still pending. Each outcome is written straight to the file, so a crashed JVM loses
+ * nothing, and the file is fsync'd in batches to bound what an OS crash can lose.
+ *
+ * Format, one record per line: "S <id>" for success, "F <id> <FailureClass>" for failure.
+ * A torn last record from a crash is dropped on load.
+ */
+public class ImportJournal implements Closeable {
+    private static final String HEADER = "# postman-importer journal v1";
+    private static final int SYNC_EVERY_RECORDS = 256;
+    private static final long SYNC_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final File file;
+    private final BitSet previousSuccesses = new BitSet();
+    private final Map<Integer, FailureClass> previousFailures = new HashMap<>();
+    private final FileOutputStream out;
+    // Guarded by this
+    private int unsyncedRecords;
+    private long lastSyncNanos = System.nanoTime();
+    private boolean closed;
+
+    private ImportJournal(File file, boolean resume) throws IOException {
+        this.file = file;
+        boolean existing = resume && file.exists();
+        if (existing) {
+            load();
+        }
+        this.out = new FileOutputStream(file, existing);
+        if (!existing) {
+            out.write((HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+    }
+
+    /**
+     * Opens the journal for an import identified by key (see {@link #fingerprint}). With resume
+     * set, outcomes recorded by an earlier unfinished run are loaded; otherwise it starts empty.
+     */
+    public static ImportJournal open(File directory, String key, boolean resume) throws IOException {
+        Files.createDirectories(directory.toPath());
+        return new ImportJournal(new File(directory, key + ".journal"), resume);
+    }
+
+    /**
+     * Whether an earlier run of the import identified by key left an unfinished journal behind.
+     */
+    public static boolean exists(File directory, String key) {
+        return new File(directory, key + ".journal").isFile();
+    }
+
+    /**
+     * Default journal directory under the user's home.
+     */
+    public static File defaultDirectory() {
+        return new File(System.getProperty("user.home"), ".postman-burp-importer" + File.separator + "journals");
+    }
+
+    /**
+     * SHA-256 over the contents of the given files (null entries allowed) and extra strings,
+     * so the same collection, environment, variables and settings always map to the same journal.
+     */
+    public static String fingerprint(File[] files, String... extras) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[1 << 16];
+            for (File f : files) {
+                digest.update((byte) (f == null ? 0 : 1));
+                if (f == null) {
+                    continue;
+                }
+                try (InputStream in = new FileInputStream(f)) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+            }
+            for (String extra : extras) {
+                digest.update((byte) 0);
+                digest.update(String.valueOf(extra).getBytes(StandardCharsets.UTF_8));
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Number of outcomes carried over from an earlier run.
+     */
+    public int resumedCount() {
+        return previousSuccesses.cardinality() + previousFailures.size();
+    }
+
+    public int resumedFailureCount() {
+        return previousFailures.size();
+    }
+
+    public boolean succeededBefore(int id) {
+        return previousSuccesses.get(id);
+    }
+
+    /**
+     * Failure class recorded for this request by an earlier run, or null.
+     */
+    public FailureClass failedBefore(int id) {
+        return previousFailures.get(id);
+    }
+
+    public synchronized void recordSuccess(int id) throws IOException {
+        append("S " + id + "\n");
+    }
+
+    public synchronized void recordFailure(int id, FailureClass failureClass) throws IOException {
+        append("F " + id + " " + failureClass.name() + "\n");
+    }
+
+    /**
+     * Syncs and closes the journal. A completed import deletes it, so the next import of the
+     * same collection starts fresh; an unfinished one keeps it for resume.
+     */
+    public synchronized void close(boolean completed) throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        if (completed) {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        close(false);
+    }
+
+    private void append(String record) throws IOException {
+        if (closed) {
+            return;
+        }
+        out.write(record.getBytes(StandardCharsets.UTF_8));
+        unsyncedRecords++;
+        long now = System.nanoTime();
+        if (unsyncedRecords >= SYNC_EVERY_RECORDS || now - lastSyncNanos >= SYNC_INTERVAL_NANOS) {
+            out.getFD().sync();
+            unsyncedRecords = 0;
+            lastSyncNanos = now;
+        }
+    }
+
+    private void load() throws IOException {
+        byte[] content = Files.readAllBytes(file.toPath());
+        int end = content.length;
+        while (end > 0 && content[end - 1] != '\n') {
+            end--;
+        }
+        if (end < content.length) {
+            // Drop a torn last record so the next append starts on a fresh line
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(end);
+            }
+        }
+
+        for (String line : new String(content, 0, end, StandardCharsets.UTF_8).split("\n")) {
+            String[] parts = line.split(" ");
+            try {
+                if (parts.length == 2 && "S".equals(parts[0])) {
+                    int id = Integer.parseInt(parts[1]);
+                    previousSuccesses.set(id);
+                    previousFailures.remove(id);
+                } else if (parts.length == 3 && "F".equals(parts[0])) {
+                    int id = Integer.parseInt(parts[1]);
+                    if (!previousSuccesses.get(id)) {
+                        previousFailures.put(id, FailureClass.valueOf(parts[2]));
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // Unknown record - that request simply counts as pending
+            }
+        }
+    }
+}
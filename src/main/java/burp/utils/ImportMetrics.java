@@ -0,0 +1,183 @@
+package burp.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timings of one import: a latency histogram per pipeline stage, one per host for sitemap round
+ * trips, and the number of requests completed, for live throughput. Safe to record from every
+ * import thread while the UI reads it.
+ */
+public class ImportMetrics {
+    public enum Stage {
+        PARSE("Parse"),
+        ANALYZE("Variable analysis"),
+        BUILD("Build"),
+        REPEATER("Repeater handoff"),
+        SITEMAP("Sitemap round trip"),
+        LOG_FLUSH("Log flush");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Hosts timed separately; round trips to any further hosts share one histogram.
+     */
+    public static final int MAX_HOSTS = 256;
+    public static final String OTHER_HOSTS = "(other hosts)";
+
+    private final Map<Stage, LatencyHistogram> stages = new EnumMap<>(Stage.class);
+    private final Map<String, LatencyHistogram> hosts = new ConcurrentHashMap<>();
+    private final AtomicInteger completed = new AtomicInteger();
+    private volatile long startNanos = System.nanoTime();
+    private volatile long endNanos;
+
+    public ImportMetrics() {
+        // Filled once here and only read afterwards, so the EnumMap needs no locking
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, new LatencyHistogram());
+        }
+    }
+
+    public void record(Stage stage, long nanos) {
+        stages.get(stage).record(nanos);
+    }
+
+    /**
+     * Records a sitemap round trip, both overall and for its host.
+     */
+    public void recordSitemap(String host, long nanos) {
+        record(Stage.SITEMAP, nanos);
+        LatencyHistogram histogram = hosts.get(host);
+        if (histogram == null) {
+            String key = hosts.size() < MAX_HOSTS ? host : OTHER_HOSTS;
+            histogram = hosts.computeIfAbsent(key, k -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    public void requestCompleted() {
+        completed.incrementAndGet();
+    }
+
+    /**
+     * Starts the throughput clock again, e.g. once dialogs shown before sending are closed.
+     */
+    public void restartClock() {
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Stops the throughput clock; later readings report the rate over the whole import.
+     */
+    public void finish() {
+        if (endNanos == 0) {
+            endNanos = System.nanoTime();
+        }
+    }
+
+    public boolean isFinished() {
+        return endNanos != 0;
+    }
+
+    public LatencyHistogram getStage(Stage stage) {
+        return stages.get(stage);
+    }
+
+    /**
+     * Sitemap round trip histograms by host, slowest p95 first.
+     */
+    public List<Map.Entry<String, LatencyHistogram>> getSitemapHosts() {
+        List<Map.Entry<String, LatencyHistogram>> entries = new ArrayList<>(hosts.entrySet());
+        Collections.sort(entries, (a, b) -> Long.compare(b.getValue().percentile(95), a.getValue().percentile(95)));
+        return entries;
+    }
+
+    public int getCompletedCount() {
+        return completed.get();
+    }
+
+    public long getElapsedNanos() {
+        long end = endNanos;
+        return (end != 0 ? end : System.nanoTime()) - startNanos;
+    }
+
+    /**
+     * Requests completed per second since the import started.
+     */
+    public double getThroughput() {
+        long elapsed = getElapsedNanos();
+        return elapsed <= 0 ? 0 : completed.get() * 1e9 / elapsed;
+    }
+
+    /**
+     * One line for the progress area while the import runs.
+     */
+    public String liveStatus() {
+        StringBuilder text = new StringBuilder(String.format("%d done, %.1f req/s",
+            completed.get(), getThroughput()));
+        for (Stage stage : new Stage[] { Stage.BUILD, Stage.REPEATER, Stage.SITEMAP }) {
+            LatencyHistogram histogram = stages.get(stage);
+            if (histogram.getCount() > 0) {
+                text.append(" | ").append(stage.getLabel()).append(" p50/p95 ")
+                    .append(millis(histogram.percentile(50))).append('/')
+                    .append(millis(histogram.percentile(95))).append(" ms");
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Multi-line report of every stage and the slowest hosts, for the import summary.
+     */
+    public String report() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Throughput: %.1f requests/s (%d in %.1f s)\n",
+            getThroughput(), completed.get(), getElapsedNanos() / 1e9));
+        text.append(String.format("%-20s %8s %10s %9s %9s %9s %9s\n",
+            "Stage", "count", "total ms", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = stages.get(stage);
+            if (histogram.getCount() > 0) {
+                text.append(row(stage.getLabel(), histogram));
+            }
+        }
+
+        List<Map.Entry<String, LatencyHistogram>> byHost = getSitemapHosts();
+        if (!byHost.isEmpty()) {
+            text.append("Sitemap round trip by host:\n");
+            int shown = 0;
+            for (Map.Entry<String, LatencyHistogram> entry : byHost) {
+                if (shown++ == 10) {
+                    text.append("  +").append(byHost.size() - 10).append(" more hosts\n");
+                    break;
+                }
+                text.append(row("  " + entry.getKey(), entry.getValue()));
+            }
+        }
+        return text.toString();
+    }
+
+    private static String row(String label, LatencyHistogram histogram) {
+        return String.format("%-20s %8d %10s %9s %9s %9s %9s\n", label, histogram.getCount(),
+            millis(histogram.getTotalNanos()), millis(histogram.percentile(50)), millis(histogram.percentile(95)),
+            millis(histogram.percentile(99)), millis(histogram.getMaxNanos()));
+    }
+
+    private static String millis(long nanos) {
+        return nanos < 10000000 ? String.format("%.2f", nanos / 1e6) : String.valueOf(nanos / 1000000);
+    }
+}
@@ -0,0 +1,132 @@
+package burp.utils;
+
+import burp.parser.VariableResolver;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A raw JSON body split once into literal text and Postman {{variables}}.
+ * Variables inside JSON string tokens are substituted with JSON string escaping, so values
+ * containing quotes, backslashes or newlines cannot break the document. Variables outside
+ * strings (e.g. "id": {{userId}}) are inserted verbatim, the same way Postman does.
+ */
+public class JsonTemplate {
+    private enum PartType { LITERAL, STRING_VARIABLE, BARE_VARIABLE }
+
+    private static class Part {
+        final PartType type;
+        final String text; // Literal text, or the variable name
+
+        Part(PartType type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+    }
+
+    private final List<Part> parts;
+    private final int literalLength;
+
+    private JsonTemplate(List<Part> parts, int literalLength) {
+        this.parts = parts;
+        this.literalLength = literalLength;
+    }
+
+    public static JsonTemplate compile(String json) {
+        List<Part> parts = new ArrayList<>();
+        int length = json.length();
+        int literalStart = 0;
+        int literalLength = 0;
+        boolean inString = false;
+
+        int i = 0;
+        while (i < length) {
+            char c = json.charAt(i);
+
+            if (c == '{' && i + 1 < length && json.charAt(i + 1) == '{') {
+                int end = VariableResolver.findVariableEnd(json, i);
+                if (end != -1) {
+                    if (i > literalStart) {
+                        parts.add(new Part(PartType.LITERAL, json.substring(literalStart, i)));
+                        literalLength += i - literalStart;
+                    }
+                    String name = json.substring(i + 2, end - 2);
+                    parts.add(new Part(inString ? PartType.STRING_VARIABLE : PartType.BARE_VARIABLE, name));
+                    i = end;
+                    literalStart = end;
+                    continue;
+                }
+            }
+
+            if (inString && c == '\\') {
+                i += 2; // Skip the escaped character, including \"
+                continue;
+            }
+            if (c == '"') {
+                inString = !inString;
+            }
+            i++;
+        }
+
+        if (literalStart < length) {
+            parts.add(new Part(PartType.LITERAL, json.substring(literalStart)));
+            literalLength += length - literalStart;
+        }
+        return new JsonTemplate(parts, literalLength);
+    }
+
+    public String render(VariableResolver resolver) {
+        StringBuilder out = new StringBuilder(literalLength + 16 * parts.size());
+        for (Part part : parts) {
+            switch (part.type) {
+                case LITERAL:
+                    out.append(part.text);
+                    break;
+                case STRING_VARIABLE:
+                    appendEscaped(out, resolver.resolveVariable(part.text));
+                    break;
+                case BARE_VARIABLE:
+                    out.append(resolver.resolveVariable(part.text));
+                    break;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Whether a raw body should be treated as JSON: either declared so in the Postman
+     * body options, or undeclared and shaped like a JSON object or array.
+     */
+    public static boolean isJsonBody(String raw, String language) {
+        if (language != null) {
+            return "json".equalsIgnoreCase(language);
+        }
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '[' || (c == '{' && !raw.startsWith("{{", i));
+            }
+        }
+        return false;
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                case '\b': out.append("\\b"); break;
+                case '\f': out.append("\\f"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+    }
+}
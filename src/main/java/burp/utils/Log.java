@@ -0,0 +1,194 @@
+package burp.utils;
+
+import burp.api.montoya.logging.Logging;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Leveled logging facade in front of Burp's output and error streams.
+ * Debug and trace messages are built from Suppliers only when their level and category are
+ * enabled, and all output is queued and flushed to Burp in batches from a background thread,
+ * so per-request logging costs almost nothing on large imports.
+ */
+public class Log {
+    public enum Level { OFF, ERROR, WARN, INFO, DEBUG, TRACE }
+
+    public enum Category {
+        IMPORT("Import"),
+        VARIABLES("Variables"),
+        BUILDER("Request builder"),
+        GRAPHQL("GraphQL"),
+        SITEMAP("Sitemap");
+
+        private final String label;
+
+        Category(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final long FLUSH_INTERVAL_MS = 200;
+    private static final int MAX_LINES_PER_FLUSH = 1000;
+
+    private final Logging logging; // Null discards everything
+    private final Queue<String> pendingOutput = new ConcurrentLinkedQueue<>();
+    private final Queue<String> pendingErrors = new ConcurrentLinkedQueue<>();
+    private final Map<Category, Boolean> categories = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private volatile Level level = Level.INFO;
+    private volatile LongConsumer flushListener; // Told how long each non-empty flush took
+
+    public Log(Logging logging) {
+        this.logging = logging;
+        for (Category category : Category.values()) {
+            categories.put(category, true);
+        }
+
+        if (logging != null) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "Postman Importer log flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * A log that drops every message, for components used without Burp (tests, temporary analyzers).
+     */
+    public static Log disabled() {
+        Log log = new Log(null);
+        log.setLevel(Level.OFF);
+        return log;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public void setLevel(Level level) {
+        this.level = level;
+    }
+
+    public boolean isCategoryEnabled(Category category) {
+        return categories.get(category);
+    }
+
+    public void setCategoryEnabled(Category category, boolean enabled) {
+        categories.put(category, enabled);
+    }
+
+    public boolean isEnabled(Level messageLevel, Category category) {
+        // Errors are reported regardless of category switches
+        return messageLevel.ordinal() <= level.ordinal() &&
+               (messageLevel == Level.ERROR || categories.get(category));
+    }
+
+    public void error(Category category, String message) {
+        if (isEnabled(Level.ERROR, category)) {
+            pendingErrors.add(message);
+        }
+    }
+
+    public void warn(Category category, String message) {
+        if (isEnabled(Level.WARN, category)) {
+            pendingOutput.add("WARN [" + category.label + "] " + message);
+        }
+    }
+
+    public void info(Category category, String message) {
+        if (isEnabled(Level.INFO, category)) {
+            pendingOutput.add(message);
+        }
+    }
+
+    public void debug(Category category, Supplier<String> message) {
+        if (isEnabled(Level.DEBUG, category)) {
+            pendingOutput.add("DEBUG [" + category.label + "] " + message.get());
+        }
+    }
+
+    public void trace(Category category, Supplier<String> message) {
+        if (isEnabled(Level.TRACE, category)) {
+            pendingOutput.add("TRACE [" + category.label + "] " + message.get());
+        }
+    }
+
+    /**
+     * Receives the duration in nanoseconds of every flush that wrote something; null to stop.
+     */
+    public void setFlushListener(LongConsumer listener) {
+        this.flushListener = listener;
+    }
+
+    /**
+     * Writes everything queued so far to Burp, one call per batch of lines.
+     */
+    public void flush() {
+        if (logging == null) {
+            pendingOutput.clear();
+            pendingErrors.clear();
+            return;
+        }
+        if (pendingOutput.isEmpty() && pendingErrors.isEmpty()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            drain(pendingOutput, false);
+            drain(pendingErrors, true);
+        } catch (Exception e) {
+            // Never let a logging failure kill the flusher thread
+        }
+        LongConsumer listener = flushListener;
+        if (listener != null) {
+            listener.accept(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Flushes remaining messages and stops the background flusher, e.g. when the extension unloads.
+     */
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        flush();
+    }
+
+    private void drain(Queue<String> queue, boolean errors) {
+        while (!queue.isEmpty()) {
+            StringBuilder batch = new StringBuilder();
+            String line;
+            int lines = 0;
+            while (lines < MAX_LINES_PER_FLUSH && (line = queue.poll()) != null) {
+                if (lines++ > 0) {
+                    batch.append('\n');
+                }
+                batch.append(line);
+            }
+            if (lines == 0) {
+                return;
+            }
+            if (errors) {
+                logging.logToError(batch.toString());
+            } else {
+                logging.logToOutput(batch.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package burp.utils;
+
+/**
+ * Table-driven percent-encoding (RFC 3986) that appends straight into the request buffer.
+ * Each URL component has its own set of characters that may stay literal, and input that
+ * is already safe is appended as-is without any per-character work.
+ */
+public class PercentEncoder {
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private static final boolean[] PATH_SEGMENT_SAFE = new boolean[128];
+    private static final boolean[] PATH_SAFE = new boolean[128];
+    private static final boolean[] QUERY_SAFE = new boolean[128];
+    private static final boolean[] FORM_SAFE = new boolean[128];
+
+    static {
+        // unreserved = ALPHA / DIGIT / "-" / "." / "_" / "~"
+        String unreserved = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-._~";
+        mark(PATH_SEGMENT_SAFE, unreserved + "!$&'()*+,;=:@");
+        mark(PATH_SAFE, unreserved + "!$&'()*+,;=:@/");
+        // Query keys and values must escape the "&", "=", "+" and "#" delimiters
+        mark(QUERY_SAFE, unreserved + "!$'()*,;:@/?");
+        // Same set as java.net.URLEncoder for application/x-www-form-urlencoded bodies
+        mark(FORM_SAFE, "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-._*");
+    }
+
+    /**
+     * Encodes a single path segment. Existing %XX escapes are kept as-is.
+     */
+    public static void appendPathSegment(StringBuilder out, String value) {
+        append(out, value, PATH_SEGMENT_SAFE, false, true);
+    }
+
+    /**
+     * Encodes one or more path segments: like appendPathSegment, but "/" stays a separator.
+     */
+    public static void appendPath(StringBuilder out, String value) {
+        append(out, value, PATH_SAFE, false, true);
+    }
+
+    /**
+     * Encodes a query key or value. Spaces become %20 and existing %XX escapes are kept as-is.
+     */
+    public static void appendQueryComponent(StringBuilder out, String value) {
+        append(out, value, QUERY_SAFE, false, true);
+    }
+
+    /**
+     * Encodes a form body key or value exactly like URLEncoder with UTF-8: spaces become "+"
+     * and "%" is always escaped.
+     */
+    public static void appendFormComponent(StringBuilder out, String value) {
+        append(out, value, FORM_SAFE, true, false);
+    }
+
+    private static void append(StringBuilder out, String value, boolean[] safe,
+                               boolean spaceAsPlus, boolean keepEscapes) {
+        int length = value.length();
+        int firstUnsafe = 0;
+        while (firstUnsafe < length && isSafe(value, firstUnsafe, safe, keepEscapes)) {
+            firstUnsafe++;
+        }
+        if (firstUnsafe == length) {
+            // Fast path - nothing to encode
+            out.append(value);
+            return;
+        }
+
+        out.append(value, 0, firstUnsafe);
+        for (int i = firstUnsafe; i < length; i++) {
+            char c = value.charAt(i);
+            if (isSafe(value, i, safe, keepEscapes)) {
+                out.append(c);
+            } else if (c == ' ' && spaceAsPlus) {
+                out.append('+');
+            } else if (c < 0x80) {
+                appendEscaped(out, c);
+            } else if (c < 0x800) {
+                appendEscaped(out, 0xC0 | (c >> 6));
+                appendEscaped(out, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                appendEscaped(out, 0xF0 | (codePoint >> 18));
+                appendEscaped(out, 0x80 | ((codePoint >> 12) & 0x3F));
+                appendEscaped(out, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendEscaped(out, 0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate - URLEncoder substitutes "?"
+                appendEscaped(out, '?');
+            } else {
+                appendEscaped(out, 0xE0 | (c >> 12));
+                appendEscaped(out, 0x80 | ((c >> 6) & 0x3F));
+                appendEscaped(out, 0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static boolean isSafe(String value, int index, boolean[] safe, boolean keepEscapes) {
+        char c = value.charAt(index);
+        if (c < 128 && safe[c]) {
+            return true;
+        }
+        return keepEscapes && c == '%' && index + 2 < value.length() &&
+               isHex(value.charAt(index + 1)) && isHex(value.charAt(index + 2));
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'A' && c <= 'F') || (c >= 'a' && c <= 'f');
+    }
+
+    private static void appendEscaped(StringBuilder out, int b) {
+        out.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+    }
+
+    private static void mark(boolean[] table, String characters) {
+        for (int i = 0; i < characters.length(); i++) {
+            table[characters.charAt(i)] = true;
+        }
+    }
+}
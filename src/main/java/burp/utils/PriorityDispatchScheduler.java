@@ -0,0 +1,140 @@
+package burp.utils;
+
+import burp.models.DispatchOrder;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Keeps waiting tasks in one priority queue per host. The next task is the best head among the
+ * hosts that can start, so a host at its cap never holds back the others. Grouping by host
+ * instead drains the host that has waited longest before moving to the next one, so requests
+ * to the same host go out back to back and reuse its connections.
+ */
+class PriorityDispatchScheduler implements DispatchScheduler {
+    private final Comparator<Task> order;
+    private final boolean groupByHost;
+    // Hosts in the order their current run of waiting tasks began
+    private final Map<String, PriorityQueue<Task>> waiting = new LinkedHashMap<>();
+    private long nextSequence;
+    private int size;
+
+    PriorityDispatchScheduler(Comparator<Task> order, boolean groupByHost) {
+        this.order = order;
+        this.groupByHost = groupByHost;
+    }
+
+    static PriorityDispatchScheduler create(DispatchOrder order, String priorityFolders) {
+        Comparator<Task> submitted = Comparator.comparingLong(task -> task.sequence);
+        switch (order) {
+            case SAFE_METHODS_FIRST:
+                return new PriorityDispatchScheduler(
+                    Comparator.comparing((Task task) -> !isSafeMethod(task.method)).thenComparing(submitted), false);
+            case FOLDER_PRIORITY:
+                List<String> folders = parseFolders(priorityFolders);
+                return new PriorityDispatchScheduler(
+                    Comparator.comparingInt((Task task) -> folderRank(task.path, folders)).thenComparing(submitted), false);
+            case SHORTEST_BODY_FIRST:
+                return new PriorityDispatchScheduler(
+                    Comparator.comparingInt((Task task) -> task.bodyLength).thenComparing(submitted), false);
+            case HOST_GROUPED:
+                return new PriorityDispatchScheduler(submitted, true);
+            default:
+                return new PriorityDispatchScheduler(submitted, false);
+        }
+    }
+
+    @Override
+    public void add(Task task) {
+        task.sequence = nextSequence++;
+        waiting.computeIfAbsent(task.host, k -> new PriorityQueue<>(order)).add(task);
+        size++;
+    }
+
+    @Override
+    public Task next(Predicate<String> canStart) {
+        Map.Entry<String, PriorityQueue<Task>> best = null;
+        for (Map.Entry<String, PriorityQueue<Task>> entry : waiting.entrySet()) {
+            if (!canStart.test(entry.getKey())) {
+                continue;
+            }
+            if (best == null || order.compare(entry.getValue().peek(), best.getValue().peek()) < 0) {
+                best = entry;
+            }
+            if (groupByHost) {
+                break;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        Task task = best.getValue().poll();
+        if (best.getValue().isEmpty()) {
+            waiting.remove(best.getKey());
+        }
+        size--;
+        return task;
+    }
+
+    @Override
+    public boolean hasWaiting(String host) {
+        return waiting.containsKey(host);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        waiting.clear();
+        size = 0;
+    }
+
+    // Methods that shouldn't change server state (RFC 9110)
+    static boolean isSafeMethod(String method) {
+        switch (method.toUpperCase(Locale.ROOT)) {
+            case "GET":
+            case "HEAD":
+            case "OPTIONS":
+            case "TRACE":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static List<String> parseFolders(String priorityFolders) {
+        List<String> folders = new ArrayList<>();
+        if (priorityFolders != null) {
+            for (String folder : priorityFolders.split(",")) {
+                String trimmed = folder.trim();
+                while (trimmed.endsWith("/")) {
+                    trimmed = trimmed.substring(0, trimmed.length() - 1);
+                }
+                if (!trimmed.isEmpty()) {
+                    folders.add(trimmed);
+                }
+            }
+        }
+        return folders;
+    }
+
+    // Position of the first listed folder the request sits in, at any depth; unlisted ones go last
+    static int folderRank(String path, List<String> folders) {
+        for (int i = 0; i < folders.size(); i++) {
+            String folder = folders.get(i);
+            if (path.length() > folder.length() && path.charAt(folder.length()) == '/' &&
+                path.regionMatches(true, 0, folder, 0, folder.length())) {
+                return i;
+            }
+        }
+        return folders.size();
+    }
+}
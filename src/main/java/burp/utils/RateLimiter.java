@@ -0,0 +1,109 @@
+package burp.utils;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Token-bucket rate limiter with a global bucket and one bucket per host.
+ * Each acquire reserves a token from both buckets up front and waits out the longer deficit,
+ * so concurrent callers are spaced evenly instead of waking up together. Waiting checks the
+ * cancel flag every few milliseconds, so cancelling an import never waits out a full delay.
+ */
+public class RateLimiter {
+    private static final long CANCEL_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final Bucket global; // Null when the total rate is unlimited
+    private final double perHostRate;
+    private final int burst;
+    private final long maxJitterNanos;
+    private final BooleanSupplier cancelled;
+    private final Map<String, Bucket> hosts = new ConcurrentHashMap<>();
+
+    private static class Bucket {
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+
+        Bucket(double requestsPerSecond, int burst, long now) {
+            this.tokensPerNano = requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, burst);
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        // Takes a token, possibly going into debt, and returns how long the caller must wait for it
+        synchronized long reserve(long now) {
+            if (now > lastRefill) {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+                lastRefill = now;
+            }
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+        }
+    }
+
+    /**
+     * @param globalRequestsPerSecond  total rate across all hosts, 0 for unlimited
+     * @param perHostRequestsPerSecond rate for each host, 0 for unlimited
+     * @param burst                    requests a bucket may send back to back after being idle
+     * @param maxJitterMs              random extra delay of up to this many milliseconds per request
+     * @param cancelled                checked while waiting; acquire gives up once it returns true
+     */
+    public RateLimiter(double globalRequestsPerSecond, double perHostRequestsPerSecond, int burst,
+                       int maxJitterMs, BooleanSupplier cancelled) {
+        this.global = globalRequestsPerSecond > 0 ? new Bucket(globalRequestsPerSecond, burst, System.nanoTime()) : null;
+        this.perHostRate = perHostRequestsPerSecond;
+        this.burst = burst;
+        this.maxJitterNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxJitterMs));
+        this.cancelled = cancelled;
+    }
+
+    public static RateLimiter unlimited() {
+        return new RateLimiter(0, 0, 1, 0, () -> false);
+    }
+
+    /**
+     * Blocks until a request to the given host key (e.g. "host:port") may be sent.
+     * Returns false if the import was cancelled while waiting.
+     */
+    public boolean acquire(String host) throws InterruptedException {
+        long now = System.nanoTime();
+        long waitNanos = 0;
+        if (global != null) {
+            waitNanos = global.reserve(now);
+        }
+        if (perHostRate > 0) {
+            Bucket bucket = hosts.computeIfAbsent(host, k -> new Bucket(perHostRate, burst, now));
+            waitNanos = Math.max(waitNanos, bucket.reserve(now));
+        }
+        if (maxJitterNanos > 0) {
+            waitNanos += ThreadLocalRandom.current().nextLong(maxJitterNanos + 1);
+        }
+
+        long deadline = now + waitNanos;
+        while (true) {
+            if (cancelled.getAsBoolean()) {
+                return false;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return true;
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.min(remaining, CANCEL_POLL_NANOS));
+        }
+    }
+
+    /**
+     * Like acquire, but throws CancellationException instead of returning false.
+     */
+    public void acquireOrCancel(String host) throws InterruptedException {
+        if (!acquire(host)) {
+            throw new CancellationException("Import cancelled");
+        }
+    }
+}
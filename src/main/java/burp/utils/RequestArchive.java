@@ -0,0 +1,290 @@
+package burp.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Single-file export of rendered requests: raw request bytes plus target host, with an offset
+ * index at the end so any request can be read back in O(1) without re-parsing or re-resolving
+ * the collection. Written sequentially through a FileChannel and read through a memory mapping.
+ *
+ * Layout (big-endian): header "PMRA", version, request count, index offset, source key;
+ * then one record per request (path, host, port, flags, request bytes); then the index of
+ * record offsets. A request that could not be built keeps its place as a record flagged as
+ * failed, with the error in place of the request bytes, so index i is always request i of the
+ * collection. Archives are limited to 2 GB so they fit in one mapping.
+ */
+public class RequestArchive implements Closeable {
+    private static final int MAGIC = 0x504d5241; // "PMRA"
+    private static final int VERSION = 2; // 1 had no failed records
+    private static final byte FLAG_HTTPS = 1;
+    private static final byte FLAG_FAILED = 2;
+    private static final int COUNT_POSITION = 8;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final String sourceKey;
+    private final int count;
+    private final long indexOffset;
+    private volatile MappedByteBuffer data;
+
+    /**
+     * One exported request, or the placeholder of one that could not be built.
+     */
+    public static class Entry {
+        public final String path;
+        public final HttpUtils.HostInfo hostInfo; // Null for a failed request
+        public final byte[] request;              // Empty for a failed request
+        public final String error;                // Why the request could not be built, or null
+
+        Entry(String path, HttpUtils.HostInfo hostInfo, byte[] request, String error) {
+            this.path = path;
+            this.hostInfo = hostInfo;
+            this.request = request;
+            this.error = error;
+        }
+
+        public boolean isFailed() {
+            return error != null;
+        }
+    }
+
+    private RequestArchive(MappedByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.limit() < 22 || data.getInt(0) != MAGIC) {
+            throw new IOException("Not a request archive");
+        }
+        if (data.getInt(4) < 1 || data.getInt(4) > VERSION) {
+            throw new IOException("Unsupported request archive version " + data.getInt(4));
+        }
+        this.count = data.getInt(COUNT_POSITION);
+        this.indexOffset = data.getLong(COUNT_POSITION + 4);
+        if (count < 0 || indexOffset < 0 || indexOffset + 8L * count != data.limit()) {
+            throw new IOException("Request archive is incomplete or corrupt");
+        }
+        ByteBuffer header = data.duplicate();
+        header.position(20);
+        this.sourceKey = nextString(header);
+    }
+
+    /**
+     * Maps an archive for reading. The mapping outlives the file handle, so nothing stays open.
+     */
+    public static RequestArchive open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Request archive is larger than 2 GB");
+            }
+            return new RequestArchive(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Starts a new archive. The file only appears, complete, when the writer is closed.
+     * sourceKey identifies what was exported (e.g. an {@link ImportJournal#fingerprint}).
+     */
+    public static Writer create(File file, String sourceKey) throws IOException {
+        return new Writer(file, sourceKey);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public String getSourceKey() {
+        return sourceKey;
+    }
+
+    public Entry get(int index) {
+        ByteBuffer record = record(index);
+        String path = nextString(record);
+        String host = nextString(record);
+        int port = record.getInt();
+        byte flags = record.get();
+        byte[] request = new byte[record.getInt()];
+        record.get(request);
+        if ((flags & FLAG_FAILED) != 0) {
+            return new Entry(path, null, new byte[0], new String(request, StandardCharsets.UTF_8));
+        }
+        return new Entry(path, new HttpUtils.HostInfo(host, port, (flags & FLAG_HTTPS) != 0), request, null);
+    }
+
+    public byte[] getRequest(int index) {
+        return get(index).request;
+    }
+
+    @Override
+    public void close() {
+        // Mapped memory is released by the GC once unreachable
+        data = null;
+    }
+
+    // A private view positioned at the record, so concurrent reads don't share a position
+    private ByteBuffer record(int index) {
+        MappedByteBuffer mapped = data;
+        if (mapped == null) {
+            throw new IllegalStateException("Request archive is closed");
+        }
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Request " + index + " of " + count);
+        }
+        ByteBuffer view = mapped.duplicate();
+        view.position((int) mapped.getLong((int) (indexOffset + 8L * index)));
+        return view;
+    }
+
+    private static String nextString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xffff];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends requests to a new archive. Records go through one direct buffer, so the channel
+     * sees large sequential writes; the index and header are written on close.
+     */
+    public static class Writer implements Closeable {
+        private final File target;
+        private final File partial;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private long position;
+        private long[] offsets = new long[1024];
+        private int count;
+        private boolean closed;
+
+        private Writer(File target, String sourceKey) throws IOException {
+            this.target = target;
+            this.partial = new File(target.getPath() + ".part");
+            this.channel = FileChannel.open(partial.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(0).putLong(0);
+            putString(sourceKey);
+        }
+
+        public synchronized void add(String path, HttpUtils.HostInfo hostInfo, byte[] request) throws IOException {
+            add(path, hostInfo.host, hostInfo.port, hostInfo.useHttps ? FLAG_HTTPS : 0, request);
+        }
+
+        /**
+         * Holds the place of a request that could not be built, so later indexes don't shift.
+         */
+        public synchronized void addFailed(String path, String error) throws IOException {
+            add(path, "", 0, FLAG_FAILED, String.valueOf(error).getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void add(String path, String host, int port, byte flags, byte[] request) throws IOException {
+            if (closed) {
+                throw new IOException("Request archive writer is closed");
+            }
+            byte[] pathBytes = truncated(path);
+            byte[] hostBytes = truncated(host);
+            int headerLength = 2 + pathBytes.length + 2 + hostBytes.length + 4 + 1 + 4;
+            // Leave room for the index, which is written after the last record
+            if (position + buffer.position() + headerLength + request.length + 8L * (count + 1) > Integer.MAX_VALUE) {
+                throw new IOException("Request archive would exceed 2 GB");
+            }
+            if (buffer.remaining() < headerLength) {
+                flush();
+            }
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = position + buffer.position();
+            buffer.putShort((short) pathBytes.length).put(pathBytes);
+            buffer.putShort((short) hostBytes.length).put(hostBytes);
+            buffer.putInt(port).put(flags).putInt(request.length);
+            if (buffer.remaining() >= request.length) {
+                buffer.put(request);
+            } else {
+                // Large bodies go straight to the channel instead of through the buffer
+                flush();
+                writeFully(ByteBuffer.wrap(request));
+            }
+        }
+
+        public synchronized int size() {
+            return count;
+        }
+
+        /**
+         * Writes the index and header, syncs, and moves the archive into place.
+         */
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                long indexOffset = position + buffer.position();
+                for (int i = 0; i < count; i++) {
+                    if (buffer.remaining() < 8) {
+                        flush();
+                    }
+                    buffer.putLong(offsets[i]);
+                }
+                flush();
+
+                ByteBuffer header = ByteBuffer.allocate(12);
+                header.putInt(count).putLong(indexOffset).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, COUNT_POSITION + header.position());
+                }
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+            try {
+                Files.move(partial.toPath(), target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(partial.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        /**
+         * Drops an unfinished archive.
+         */
+        public synchronized void abort() {
+            closed = true;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Deleting it anyway
+            }
+            partial.delete();
+        }
+
+        private void putString(String value) {
+            byte[] bytes = truncated(value);
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                position += channel.write(source);
+            }
+        }
+
+        // Strings are length-prefixed with an unsigned short
+        private static byte[] truncated(String value) {
+            byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+            return bytes.length <= 0xffff ? bytes : Arrays.copyOf(bytes, 0xffff);
+        }
+    }
+}
@@ -2,25 +2,44 @@ package burp.utils;
 
 import burp.models.*;
 import burp.parser.*;
-import burp.api.montoya.MontoyaApi;
 import burp.api.montoya.http.message.requests.HttpRequest;
 import com.google.gson.*;
 import java.util.*;
-import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.io.UnsupportedEncodingException;
 
 public class RequestBuilder {
-    private final MontoyaApi api;
+    private final Log log;
     private final VariableResolver resolver;
-    private final boolean debugMode = true; // Set to true to enable debug logging for GraphQL debugging
+    private static final Gson GRAPHQL_GSON = new GsonBuilder()
+        .serializeNulls()  // Preserve null values in JSON
+        .create();
+    private static final int GRAPHQL_CACHE_SIZE = 512;
+    // Compiled documents keyed by source query
+    private final Map<String, GraphQLDocument> documentCache = lruMap(GRAPHQL_CACHE_SIZE);
+    // Raw JSON bodies split into literals and variables, keyed by the raw body text
+    private final Map<String, JsonTemplate> jsonTemplateCache = lruMap(GRAPHQL_CACHE_SIZE);
     
-    public RequestBuilder(MontoyaApi api, VariableResolver resolver) {
-        this.api = api;
+    public RequestBuilder(Log log, VariableResolver resolver) {
+        this.log = log;
         this.resolver = resolver;
     }
     
     public byte[] buildRequest(PostmanCollection.Request request) throws Exception {
+        return buildRequest(request, false);
+    }
+    
+    /**
+     * The request's URL with variables resolved, or null if it has none.
+     */
+    public String resolveUrl(PostmanCollection.Request request) {
+        return getResolvedUrl(request.url);
+    }
+    
+    /**
+     * Builds the raw request. With persistedQuery set, GraphQL bodies carry only the
+     * Automatic Persisted Query hash instead of the full query text.
+     */
+    public byte[] buildRequest(PostmanCollection.Request request, boolean persistedQuery) throws Exception {
         List<String> headers = new ArrayList<>();
         
         // Resolve URL once to ensure consistency between host and path parsing
@@ -34,9 +53,7 @@ public class RequestBuilder {
         // Add host header
         String host = buildHost(request.url, resolvedUrl);
         headers.add("Host: " + host);
-        if (debugMode) {
-            System.out.println("DEBUG: Auto-generated Host header: " + host);
-        }
+        log.debug(Log.Category.BUILDER, () -> "Auto-generated Host header: " + host);
         
         // Add custom headers (but skip Host header since we build it automatically)
         if (request.header != null) {
@@ -45,20 +62,14 @@ public class RequestBuilder {
                     String key = resolver.resolve(header.key);
                     String value = resolver.resolve(header.value);
                     
-                    if (debugMode) {
-                        api.logging().logToOutput("DEBUG: Processing custom header: " + key + ": " + value);
-                    }
+                    log.debug(Log.Category.BUILDER, () -> "Processing custom header: " + key + ": " + value);
                     
                     // Skip Host header - we build it automatically from the URL
                     if (!"Host".equalsIgnoreCase(key)) {
                         headers.add(key + ": " + value);
-                        if (debugMode) {
-                            api.logging().logToOutput("DEBUG: Added custom header: " + key + ": " + value);
-                        }
+                        log.debug(Log.Category.BUILDER, () -> "Added custom header: " + key + ": " + value);
                     } else {
-                        if (debugMode) {
-                            api.logging().logToOutput("DEBUG: Skipped Host header: " + key + ": " + value);
-                        }
+                        log.debug(Log.Category.BUILDER, () -> "Skipped Host header: " + key + ": " + value);
                     }
                 }
             }
@@ -68,7 +79,7 @@ public class RequestBuilder {
         applyAuthentication(headers, request.auth);
         
         // Build body
-        byte[] body = buildBody(request.body, headers);
+        byte[] body = buildBody(request.body, headers, persistedQuery);
         
         // Build HTTP message using Montoya API
         String httpMessage = String.join("\r\n", headers) + "\r\n\r\n" + new String(body, StandardCharsets.UTF_8);
@@ -92,7 +103,7 @@ public class RequestBuilder {
         return null;
     }
     
-    private String buildPath(Object urlData, String resolvedUrl) throws UnsupportedEncodingException {
+    private String buildPath(Object urlData, String resolvedUrl) {
         if (urlData == null) return "/";
         
         // If we have a resolved URL, use it directly for path extraction
@@ -114,12 +125,10 @@ public class RequestBuilder {
         
         // Build path from segments
         if (url.path != null && !url.path.isEmpty()) {
-            path.append("/");
-            List<String> resolvedPaths = new ArrayList<>();
             for (String segment : url.path) {
-                resolvedPaths.add(resolver.resolve(segment));
+                path.append('/');
+                appendTemplate(path, segment, true);
             }
-            path.append(String.join("/", resolvedPaths));
         } else if (url.raw != null) {
             // Extract path from raw URL
             String resolved = resolver.resolve(url.raw);
@@ -128,32 +137,61 @@ public class RequestBuilder {
             path.append("/");
         }
         
-        // Add query parameters
+        // Add query parameters, encoded straight into the path buffer
         if (url.query != null && !url.query.isEmpty()) {
-            List<String> queryParts = new ArrayList<>();
+            // Check if path already has query string
+            boolean hasQuery = path.indexOf("?") != -1;
             for (PostmanCollection.Query query : url.query) {
                 if (!query.disabled && query.key != null) {
-                    String key = URLEncoder.encode(resolver.resolve(query.key), "UTF-8");
-                    String value = query.value != null ? 
-                        URLEncoder.encode(resolver.resolve(query.value), "UTF-8") : "";
-                    queryParts.add(key + "=" + value);
-                }
-            }
-            if (!queryParts.isEmpty()) {
-                // Check if path already has query string
-                String pathStr = path.toString();
-                if (pathStr.contains("?")) {
-                    path.append("&");
-                } else {
-                    path.append("?");
+                    path.append(hasQuery ? '&' : '?');
+                    hasQuery = true;
+                    appendTemplate(path, query.key, false);
+                    path.append('=');
+                    if (query.value != null) {
+                        appendTemplate(path, query.value, false);
+                    }
                 }
-                path.append(String.join("&", queryParts));
             }
         }
         
         return path.toString();
     }
     
+    // Resolves and encodes one path segment or query component of a Url object. A variable's value
+    // may span several path segments (a base path like "api/v1"), so its "/" is kept, and
+    // unresolved {{variables}} go in verbatim like they do in raw URLs.
+    private void appendTemplate(StringBuilder out, String template, boolean pathSegment) {
+        int literalStart = 0;
+        int start = template.indexOf("{{");
+        while (start != -1) {
+            int end = VariableResolver.findVariableEnd(template, start);
+            if (end == -1) {
+                break;
+            }
+            appendLiteral(out, template.substring(literalStart, start), pathSegment);
+            String name = template.substring(start + 2, end - 2);
+            String value = resolver.resolveVariable(name);
+            if (value.equals("{{" + name.trim() + "}}")) {
+                out.append(template, start, end);
+            } else if (pathSegment) {
+                PercentEncoder.appendPath(out, value);
+            } else {
+                PercentEncoder.appendQueryComponent(out, value);
+            }
+            literalStart = end;
+            start = template.indexOf("{{", end);
+        }
+        appendLiteral(out, template.substring(literalStart), pathSegment);
+    }
+    
+    private static void appendLiteral(StringBuilder out, String text, boolean pathSegment) {
+        if (pathSegment) {
+            PercentEncoder.appendPathSegment(out, text);
+        } else {
+            PercentEncoder.appendQueryComponent(out, text);
+        }
+    }
+    
     private String extractPathFromUrl(String urlString) {
         if (urlString == null || urlString.isEmpty()) return "/";
         
@@ -178,20 +216,15 @@ public class RequestBuilder {
     private String buildHost(Object urlData, String resolvedUrl) {
         if (urlData == null) return "localhost";
         
-        // Temporarily disable noisy debug messages to avoid buffer overflow
-        // if (debugMode) {
-        //     api.logging().logToOutput("DEBUG buildHost: urlData=" + urlData);
-        //     api.logging().logToOutput("DEBUG buildHost: resolvedUrl=" + resolvedUrl);
-        // }
+        // Per-request host details are noisy, so they only appear at trace level
+        log.trace(Log.Category.BUILDER, () -> "buildHost: urlData=" + urlData);
+        log.trace(Log.Category.BUILDER, () -> "buildHost: resolvedUrl=" + resolvedUrl);
         
         // Check if resolved URL still contains unresolved variables OR is empty
         boolean hasUnresolvedVariables = (resolvedUrl != null && resolvedUrl.matches(".*\\{\\{[^}]+\\}\\}.*")) || 
                                         (resolvedUrl != null && resolvedUrl.trim().isEmpty());
         
-        // Temporarily disable noisy debug messages
-        // if (debugMode) {
-        //     api.logging().logToOutput("DEBUG buildHost: hasUnresolvedVariables=" + hasUnresolvedVariables);
-        // }
+        log.trace(Log.Category.BUILDER, () -> "buildHost: hasUnresolvedVariables=" + hasUnresolvedVariables);
         
         // If we have a fully resolved URL (no variables and not empty), use it for host extraction
         if (resolvedUrl != null && !hasUnresolvedVariables && !resolvedUrl.trim().isEmpty()) {
@@ -202,29 +235,20 @@ public class RequestBuilder {
         // Handle Url object format FIRST (for GraphQL cases)
         PostmanCollection.Url url = parseUrlObject(urlData);
         if (url != null) {
-            // Temporarily disable noisy debug messages
-            // if (debugMode) {
-            //     api.logging().logToOutput("DEBUG buildHost: Parsed URL object host=" + url.host);
-            //     api.logging().logToOutput("DEBUG buildHost: Parsed URL object raw=" + url.raw);
-            // }
+            log.trace(Log.Category.BUILDER, () -> "buildHost: Parsed URL object host=" + url.host);
+            log.trace(Log.Category.BUILDER, () -> "buildHost: Parsed URL object raw=" + url.raw);
             
             if (url.host != null && !url.host.isEmpty()) {
                 // For GraphQL endpoints like ["{{GRAPHQL_ENDPOINT}}"], preserve variable format
-                String host = String.join(".", url.host);
-                if (url.port != null && !url.port.isEmpty()) {
-                    host += ":" + url.port;
-                }
-                if (debugMode) {
-                    api.logging().logToOutput("DEBUG buildHost: Final host from object=" + host);
-                }
+                String joinedHost = String.join(".", url.host);
+                String host = url.port != null && !url.port.isEmpty() ? joinedHost + ":" + url.port : joinedHost;
+                log.debug(Log.Category.BUILDER, () -> "buildHost: Final host from object=" + host);
                 // Don't resolve variables here - preserve them as-is for unresolved variables
                 return host;
             } else if (url.raw != null) {
                 String originalUrl = url.raw; // Use original unresolved URL
                 HttpUtils.HostInfo hostInfo = HttpUtils.parseUrl(originalUrl);
-                if (debugMode) {
-                    api.logging().logToOutput("DEBUG buildHost: Raw URL hostInfo.host=" + hostInfo.host);
-                }
+                log.debug(Log.Category.BUILDER, () -> "buildHost: Raw URL hostInfo.host=" + hostInfo.host);
                 return buildHostWithPort(hostInfo.host, hostInfo.port, hostInfo.useHttps);
             }
         }
@@ -233,10 +257,7 @@ public class RequestBuilder {
         if (urlData instanceof String) {
             String urlString = (String) urlData; // Use original unresolved URL
             HttpUtils.HostInfo hostInfo = HttpUtils.parseUrl(urlString);
-            // Temporarily disable noisy debug message
-            // if (debugMode) {
-            //     api.logging().logToOutput("DEBUG buildHost: String URL hostInfo.host=" + hostInfo.host);
-            // }
+            log.trace(Log.Category.BUILDER, () -> "buildHost: String URL hostInfo.host=" + hostInfo.host);
             return buildHostWithPort(hostInfo.host, hostInfo.port, hostInfo.useHttps);
         }
         
@@ -325,13 +346,17 @@ public class RequestBuilder {
         return null;
     }
     
-    private byte[] buildBody(PostmanCollection.Body body, List<String> headers) throws UnsupportedEncodingException {
+    private byte[] buildBody(PostmanCollection.Body body, List<String> headers, boolean persistedQuery) {
         if (body == null) return new byte[0];
         
         switch (body.mode) {
             case "raw":
                 if (body.raw != null) {
-                    String resolved = resolver.resolve(body.raw);
+                    String language = body.options != null && body.options.raw != null ?
+                        body.options.raw.language : null;
+                    // JSON bodies escape variable values placed inside string literals
+                    String resolved = JsonTemplate.isJsonBody(body.raw, language) ?
+                        compileJson(body.raw).render(resolver) : resolver.resolve(body.raw);
                     if (!hasContentType(headers)) {
                         String contentType = guessContentType(body);
                         headers.add("Content-Type: " + contentType);
@@ -342,25 +367,29 @@ public class RequestBuilder {
                 
             case "graphql":
                 if (body.graphql != null) {
-                    return buildGraphQLBody(body.graphql, headers);
+                    return buildGraphQLBody(body.graphql, headers, persistedQuery);
                 }
                 break;
                 
             case "urlencoded":
                 if (body.urlencoded != null) {
-                    List<String> params = new ArrayList<>();
+                    StringBuilder params = new StringBuilder();
                     for (PostmanCollection.UrlEncoded param : body.urlencoded) {
                         if (!param.disabled && param.key != null) {
-                            String key = URLEncoder.encode(resolver.resolve(param.key), "UTF-8");
-                            String value = param.value != null ? 
-                                URLEncoder.encode(resolver.resolve(param.value), "UTF-8") : "";
-                            params.add(key + "=" + value);
+                            if (params.length() > 0) {
+                                params.append('&');
+                            }
+                            PercentEncoder.appendFormComponent(params, resolver.resolve(param.key));
+                            params.append('=');
+                            if (param.value != null) {
+                                PercentEncoder.appendFormComponent(params, resolver.resolve(param.value));
+                            }
                         }
                     }
                     if (!hasContentType(headers)) {
                         headers.add("Content-Type: application/x-www-form-urlencoded");
                     }
-                    return String.join("&", params).getBytes(StandardCharsets.UTF_8);
+                    return params.toString().getBytes(StandardCharsets.UTF_8);
                 }
                 break;
                 
@@ -378,85 +407,50 @@ public class RequestBuilder {
         return new byte[0];
     }
     
-    private byte[] buildGraphQLBody(PostmanCollection.GraphQL graphql, List<String> headers) {
+    private byte[] buildGraphQLBody(PostmanCollection.GraphQL graphql, List<String> headers, boolean persistedQuery) {
         if (graphql == null) return new byte[0];
         
         // Keep minimal GraphQL logging to avoid buffer overflow
-        if (debugMode) {
-            api.logging().logToOutput("DEBUG GraphQL: Building GraphQL body");
-            // api.logging().logToOutput("DEBUG GraphQL: Query=" + graphql.query);
-            // api.logging().logToOutput("DEBUG GraphQL: Variables raw=" + graphql.variables);
-        }
+        log.debug(Log.Category.GRAPHQL, () -> "GraphQL: Building GraphQL body");
         
         try {
-            Gson gson = new GsonBuilder()
-                .serializeNulls()  // Preserve null values in JSON
-                .create();
             JsonObject body = new JsonObject();
             
-            // Add query (resolve variables in the query string)
+            // Add query (minified once per document, Postman variables resolved per request)
             // Supports all GraphQL operations: query, mutation, subscription
             if (graphql.query != null) {
-                String resolvedQuery = resolver.resolve(graphql.query);
-                body.addProperty("query", resolvedQuery);
-                // Reduce verbose logging
-                // if (debugMode) {
-                //     api.logging().logToOutput("DEBUG GraphQL: Resolved query=" + resolvedQuery);
-                // }
+                String resolvedQuery = compileGraphQL(graphql.query).render(resolver);
+                if (persistedQuery) {
+                    // Automatic Persisted Query: send only the hash; the caller keeps the full
+                    // query (resolveGraphQLQuery) for expandPersistedQuery if the server does not know it yet
+                    String hash = GraphQLDocument.sha256Hex(resolvedQuery);
+                    
+                    JsonObject persisted = new JsonObject();
+                    persisted.addProperty("version", 1);
+                    persisted.addProperty("sha256Hash", hash);
+                    JsonObject extensions = new JsonObject();
+                    extensions.add("persistedQuery", persisted);
+                    body.add("extensions", extensions);
+                } else {
+                    body.addProperty("query", resolvedQuery);
+                }
             }
             
             // Add variables (preserve the actual GraphQL variables structure)
             if (graphql.variables != null && !graphql.variables.trim().isEmpty()) {
                 try {
-                    // Clean up the variables string (remove extra whitespace and newlines)
                     String variablesString = graphql.variables.trim();
-                    if (debugMode) {
-                        api.logging().logToOutput("DEBUG GraphQL: Cleaned variables string=" + variablesString);
-                    }
                     
-                    // Parse the JSON to get the actual structure first
-                    JsonElement variablesElement = gson.fromJson(variablesString, JsonElement.class);
-                    if (debugMode) {
-                        api.logging().logToOutput("DEBUG GraphQL: Parsed variables element=" + variablesElement);
-                    }
-                    
-                    // Only resolve Postman variables, not GraphQL nulls
-                    // Check if the original string contains Postman variables
-                    if (variablesString.contains("{{") && variablesString.contains("}}")) {
-                        // Convert back to string, then resolve Postman variables, then parse again
-                        String variablesJson = gson.toJson(variablesElement);
-                        String resolvedVariablesJson = resolver.resolve(variablesJson);
-                        JsonElement finalVariables = gson.fromJson(resolvedVariablesJson, JsonElement.class);
-                        body.add("variables", finalVariables);
-                        
-                        if (debugMode) {
-                            api.logging().logToOutput("DEBUG GraphQL: Variables had Postman vars, resolved to=" + finalVariables);
-                        }
-                    } else {
-                        // No Postman variables, use original parsed structure
-                        body.add("variables", variablesElement);
-                        
-                        if (debugMode) {
-                            api.logging().logToOutput("DEBUG GraphQL: No Postman vars, using original=" + variablesElement);
-                        }
+                    // Resolve Postman variables before parsing so unquoted {{placeholders}}
+                    // become valid JSON; values inside string literals are JSON-escaped
+                    if (variablesString.contains("{{")) {
+                        variablesString = compileJson(variablesString).render(resolver);
                     }
+                    body.add("variables", GRAPHQL_GSON.fromJson(variablesString, JsonElement.class));
                 } catch (Exception e) {
-                    if (debugMode) {
-                        api.logging().logToOutput("DEBUG GraphQL: Variables parsing failed, trying fallback: " + e.getMessage());
-                    }
-                    // If first approach fails, try simpler direct parsing
-                    try {
-                        String cleanVariables = graphql.variables.replaceAll("\\s+", " ").trim();
-                        String resolvedVariables = resolver.resolve(cleanVariables);
-                        JsonElement variablesElement = gson.fromJson(resolvedVariables, JsonElement.class);
-                        body.add("variables", variablesElement);
-                    } catch (Exception ex) {
-                        if (debugMode) {
-                            api.logging().logToOutput("DEBUG GraphQL: All variables parsing failed, using empty object: " + ex.getMessage());
-                        }
-                        // Final fallback to empty object
-                        body.add("variables", new JsonObject());
-                    }
+                    log.debug(Log.Category.GRAPHQL, () -> "GraphQL: Variables parsing failed, using empty object: " + e.getMessage());
+                    
+                    body.add("variables", new JsonObject());
                 }
             } else {
                 body.add("variables", new JsonObject());
@@ -467,22 +461,75 @@ public class RequestBuilder {
                 headers.add("Content-Type: application/json");
             }
             
-            String finalBody = gson.toJson(body);
-            if (debugMode) {
-                api.logging().logToOutput("DEBUG GraphQL: Final JSON body=" + finalBody);
-            }
+            String finalBody = GRAPHQL_GSON.toJson(body);
+            log.debug(Log.Category.GRAPHQL, () -> "GraphQL: Final JSON body=" + finalBody);
             
             return finalBody.getBytes(StandardCharsets.UTF_8);
             
         } catch (Exception e) {
-            if (debugMode) {
-                api.logging().logToOutput("DEBUG GraphQL: Complete failure in buildGraphQLBody: " + e.getMessage());
-            }
+            log.debug(Log.Category.GRAPHQL, () -> "GraphQL: Complete failure in buildGraphQLBody: " + e.getMessage());
+            
             // Fallback to empty body if GraphQL processing fails
             return new byte[0];
         }
     }
     
+    private GraphQLDocument compileGraphQL(String query) {
+        synchronized (documentCache) {
+            GraphQLDocument document = documentCache.get(query);
+            if (document == null) {
+                document = GraphQLDocument.compile(query);
+                documentCache.put(query, document);
+            }
+            return document;
+        }
+    }
+    
+    private JsonTemplate compileJson(String json) {
+        synchronized (jsonTemplateCache) {
+            JsonTemplate template = jsonTemplateCache.get(json);
+            if (template == null) {
+                template = JsonTemplate.compile(json);
+                jsonTemplateCache.put(json, template);
+            }
+            return template;
+        }
+    }
+    
+    /**
+     * The GraphQL query of a request with variables resolved, as its persisted query hash is
+     * computed from; null if it has none.
+     */
+    public String resolveGraphQLQuery(PostmanCollection.Request request) {
+        if (request.body == null || !"graphql".equals(request.body.mode) ||
+            request.body.graphql == null || request.body.graphql.query == null) {
+            return null;
+        }
+        return compileGraphQL(request.body.graphql.query).render(resolver);
+    }
+    
+    /**
+     * Turns a hash-only persisted query body back into a full one after the server
+     * answered PersistedQueryNotFound. Returns null if the body is not a persisted query
+     * or the query does not match its hash.
+     */
+    public static String expandPersistedQuery(String body, String query) {
+        if (query == null) {
+            return null;
+        }
+        try {
+            JsonObject json = GRAPHQL_GSON.fromJson(body, JsonObject.class);
+            JsonObject persisted = json.getAsJsonObject("extensions").getAsJsonObject("persistedQuery");
+            if (!GraphQLDocument.sha256Hex(query).equals(persisted.get("sha256Hash").getAsString())) {
+                return null;
+            }
+            json.addProperty("query", query);
+            return GRAPHQL_GSON.toJson(json);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
     private byte[] buildMultipartBody(List<PostmanCollection.FormData> formData, String boundary) {
         StringBuilder body = new StringBuilder();
         
@@ -552,6 +599,15 @@ public class RequestBuilder {
         return Long.toHexString(System.currentTimeMillis());
     }
     
+    private static <K, V> Map<K, V> lruMap(int maxEntries) {
+        return new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+    
     private PostmanCollection.Url parseUrlObject(Object urlData) {
         if (urlData == null) return null;
         
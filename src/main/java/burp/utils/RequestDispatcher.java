@@ -0,0 +1,188 @@
+package burp.utils;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs import tasks on a bounded worker pool with a global concurrency limit and a per-host cap.
+ * Tasks for a host that is already at its cap wait in that host's queue, so one slow host
+ * cannot tie up workers that could be serving other hosts. A DispatchScheduler picks which
+ * waiting task starts when a worker frees up, oldest first by default. Requests run on virtual threads
+ * when asked to and the JVM supports them, otherwise on a fixed platform thread pool.
+ * With an AdaptiveConcurrency the per-host cap follows each host's observed health instead.
+ */
+public class RequestDispatcher {
+    private static final long CANCEL_POLL_MS = 100;
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    private final ExecutorService executor;
+    private final int maxConcurrency;
+    private final int maxPerHost;
+    private final AdaptiveConcurrency adaptive; // Null for fixed per-host caps
+    // Guarded by this
+    private final DispatchScheduler waiting;
+    private final Map<String, Integer> activePerHost = new HashMap<>();
+    private int active;
+    private int queueLimit = Integer.MAX_VALUE;
+    private boolean cancelled;
+
+    public RequestDispatcher(int maxConcurrency, int maxPerHost) {
+        this(maxConcurrency, maxPerHost, false);
+    }
+
+    public RequestDispatcher(int maxConcurrency, int maxPerHost, boolean virtualThreads) {
+        this(maxConcurrency, maxPerHost, virtualThreads, null);
+    }
+
+    public RequestDispatcher(int maxConcurrency, int maxPerHost, boolean virtualThreads,
+                             AdaptiveConcurrency adaptive) {
+        this(maxConcurrency, maxPerHost, virtualThreads, adaptive, DispatchScheduler.fifo());
+    }
+
+    public RequestDispatcher(int maxConcurrency, int maxPerHost, boolean virtualThreads,
+                             AdaptiveConcurrency adaptive, DispatchScheduler scheduler) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.maxPerHost = Math.max(1, maxPerHost);
+        this.adaptive = adaptive;
+        this.waiting = scheduler;
+        this.executor = WorkerThreads.newExecutor(
+            "Postman Importer dispatch-" + POOL_NUMBER.incrementAndGet() + "-", this.maxConcurrency, virtualThreads);
+    }
+
+    /**
+     * Queues a task for the given host key (e.g. "host:port"). Never blocks the caller.
+     */
+    public synchronized void submit(String host, Runnable task) {
+        submit(new DispatchScheduler.Task(host, task));
+    }
+
+    /**
+     * Queues a task with what the scheduler orders it by. Never blocks the caller.
+     */
+    public synchronized void submit(DispatchScheduler.Task task) {
+        if (cancelled) {
+            return;
+        }
+        if (active < maxConcurrency && canStart(task.host) && !waiting.hasWaiting(task.host)) {
+            start(task.host, task.work);
+        } else {
+            waiting.add(task);
+        }
+    }
+
+    /**
+     * Caps how many tasks may wait in the queues; see {@link #submit(String, Runnable, BooleanSupplier)}.
+     */
+    public synchronized void setQueueLimit(int queueLimit) {
+        this.queueLimit = Math.max(1, queueLimit);
+    }
+
+    /**
+     * Queues a task like {@link #submit(String, Runnable)}, but first blocks while the queue limit
+     * is reached, so a fast producer is held back to the pace of the requests going out.
+     * Returns without queueing if the cancel check turns true while waiting.
+     */
+    public synchronized void submit(String host, Runnable task, BooleanSupplier cancelCheck) throws InterruptedException {
+        submit(new DispatchScheduler.Task(host, task), cancelCheck);
+    }
+
+    /**
+     * Queues a task like {@link #submit(DispatchScheduler.Task)}, blocking while the queue limit
+     * is reached like {@link #submit(String, Runnable, BooleanSupplier)}.
+     */
+    public synchronized void submit(DispatchScheduler.Task task, BooleanSupplier cancelCheck) throws InterruptedException {
+        while (waiting.size() >= queueLimit && !cancelled) {
+            if (cancelCheck.getAsBoolean()) {
+                cancel();
+                return;
+            }
+            wait(CANCEL_POLL_MS);
+            // Hosts paused by Retry-After may have resumed without any task finishing
+            startWaiting();
+        }
+        submit(task);
+    }
+
+    /**
+     * Waits until every submitted task has run. If the cancel check turns true, queued tasks
+     * are dropped and only the requests already in flight are waited for.
+     */
+    public void awaitCompletion(BooleanSupplier cancelCheck) throws InterruptedException {
+        try {
+            synchronized (this) {
+                while (active > 0 || waiting.size() > 0) {
+                    if (!cancelled && cancelCheck.getAsBoolean()) {
+                        cancel();
+                    }
+                    wait(CANCEL_POLL_MS);
+                    // Hosts paused by Retry-After may have resumed without any task finishing
+                    startWaiting();
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Drops every task that has not started yet. Tasks already running are left to finish.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        waiting.clear();
+        notifyAll();
+    }
+
+    public synchronized int activeCount() {
+        return active;
+    }
+
+    public synchronized int queuedCount() {
+        return waiting.size();
+    }
+
+    private void start(String host, Runnable task) {
+        active++;
+        activePerHost.merge(host, 1, Integer::sum);
+        executor.execute(() -> {
+            try {
+                task.run();
+            } finally {
+                finished(host);
+            }
+        });
+    }
+
+    private synchronized void finished(String host) {
+        active--;
+        if (activePerHost.merge(host, -1, Integer::sum) <= 0) {
+            activePerHost.remove(host);
+        }
+        startWaiting();
+        notifyAll();
+    }
+
+    private void startWaiting() {
+        while (active < maxConcurrency && waiting.size() > 0) {
+            DispatchScheduler.Task task = waiting.next(this::canStart);
+            if (task == null) {
+                return; // Every waiting host is at its cap or paused
+            }
+            start(task.host, task.work);
+        }
+    }
+
+    private boolean canStart(String host) {
+        if (adaptive == null) {
+            return activeCount(host) < maxPerHost;
+        }
+        return activeCount(host) < adaptive.limit(host) && !adaptive.isPaused(host);
+    }
+
+    private int activeCount(String host) {
+        Integer count = activePerHost.get(host);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,20 @@
+package burp.utils;
+
+import burp.models.FailureClass;
+
+/**
+ * A failed send with its classification, so callers can decide on retries and reporting
+ * without parsing the message.
+ */
+public class RequestFailure extends Exception {
+    private final FailureClass failureClass;
+
+    public RequestFailure(FailureClass failureClass, String message) {
+        super(message);
+        this.failureClass = failureClass;
+    }
+
+    public FailureClass getFailureClass() {
+        return failureClass;
+    }
+}
@@ -0,0 +1,120 @@
+package burp.utils;
+
+import burp.models.RetentionMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides how much of each response body a sitemap import keeps, so multi-megabyte downloads
+ * and exports don't bloat the Burp project file and heap. Bodies can be truncated past a size
+ * limit, dropped for listed content types, or dropped altogether (headers only). Counts the
+ * bytes it saves across the import.
+ */
+public class ResponseRetention {
+    /**
+     * Header added to trimmed responses, holding the original body length.
+     */
+    public static final String TRIMMED_HEADER = "X-Postman-Importer-Trimmed";
+
+    private final RetentionMode mode;
+    private final int maxBodyBytes;
+    private final List<String> droppedTypes;
+    private final AtomicLong bytesSaved = new AtomicLong();
+    private final AtomicInteger trimmedResponses = new AtomicInteger();
+
+    /**
+     * @param mode          what to keep
+     * @param maxBodyBytes  in LIMITED mode, longer bodies are truncated to this many bytes
+     * @param droppedTypes  in LIMITED mode, comma-separated content type prefixes whose bodies are
+     *                      dropped (e.g. "image/, application/zip")
+     */
+    public ResponseRetention(RetentionMode mode, int maxBodyBytes, String droppedTypes) {
+        this.mode = mode == null ? RetentionMode.FULL : mode;
+        this.maxBodyBytes = Math.max(0, maxBodyBytes);
+        this.droppedTypes = parseTypes(droppedTypes);
+    }
+
+    public static ResponseRetention keepAll() {
+        return new ResponseRetention(RetentionMode.FULL, 0, null);
+    }
+
+    /**
+     * Number of body bytes to keep for a response of this content type and body length.
+     * Returns bodyLength when the body is kept whole, including when truncating it would save
+     * no more than the truncation marker appended in its place.
+     */
+    public int keptBodyLength(String contentType, int bodyLength) {
+        switch (mode) {
+            case HEADERS_ONLY:
+                return 0;
+            case LIMITED:
+                if (bodyLength > 0 && isDroppedType(contentType)) {
+                    return 0;
+                }
+                if (maxBodyBytes > 0 && bodyLength - maxBodyBytes <= truncationMarker(bodyLength).length()) {
+                    return bodyLength;
+                }
+                return Math.min(bodyLength, maxBodyBytes);
+            default:
+                return bodyLength;
+        }
+    }
+
+    /**
+     * Text appended to a truncated body.
+     */
+    public static String truncationMarker(int originalLength) {
+        return "\n[... truncated by Postman Importer, original body " + originalLength + " bytes]";
+    }
+
+    /**
+     * Counts one trimmed response and the bytes it no longer holds.
+     */
+    public void recordTrimmed(long savedBytes) {
+        trimmedResponses.incrementAndGet();
+        bytesSaved.addAndGet(Math.max(0, savedBytes));
+    }
+
+    public RetentionMode getMode() {
+        return mode;
+    }
+
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    public int getTrimmedCount() {
+        return trimmedResponses.get();
+    }
+
+    private boolean isDroppedType(String contentType) {
+        if (contentType == null || droppedTypes.isEmpty()) {
+            return false;
+        }
+        String type = contentType.trim().toLowerCase(Locale.ROOT);
+        for (String prefix : droppedTypes) {
+            if (type.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> parseTypes(String types) {
+        if (types == null || types.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> parsed = new ArrayList<>();
+        for (String type : types.split(",")) {
+            String prefix = type.trim().toLowerCase(Locale.ROOT);
+            if (!prefix.isEmpty()) {
+                parsed.add(prefix);
+            }
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,63 @@
+package burp.utils;
+
+import burp.models.FailureClass;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Automatic retries for transient failures, with exponential backoff and jitter. The n-th retry
+ * waits between half and all of min(maxDelay, baseDelay * 2^n), so requests that failed
+ * together do not all come back at the same moment.
+ */
+public class RetryPolicy {
+    private static final long CANCEL_POLL_MS = 20;
+
+    private final int maxRetries;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    public RetryPolicy(int maxRetries, long baseDelayMs, long maxDelayMs) {
+        this.maxRetries = Math.max(0, maxRetries);
+        this.baseDelayMs = Math.max(1, baseDelayMs);
+        this.maxDelayMs = Math.max(this.baseDelayMs, maxDelayMs);
+    }
+
+    public static RetryPolicy none() {
+        return new RetryPolicy(0, 1, 1);
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Whether a request that has already been retried {@code retries} times should go again.
+     */
+    public boolean shouldRetry(FailureClass failureClass, int retries) {
+        return failureClass.isRetryable() && retries < maxRetries;
+    }
+
+    public long backoffMillis(int retries) {
+        long ceiling = baseDelayMs << Math.min(retries, 30);
+        ceiling = ceiling <= 0 ? maxDelayMs : Math.min(maxDelayMs, ceiling);
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+
+    /**
+     * Sleeps out the backoff before the next retry. Throws CancellationException if the
+     * import is cancelled while waiting.
+     */
+    public void awaitBackoff(int retries, BooleanSupplier cancelled) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis(retries));
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException("Import cancelled");
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(CANCEL_POLL_MS)));
+        }
+    }
+}
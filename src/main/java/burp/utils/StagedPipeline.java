@@ -0,0 +1,128 @@
+package burp.utils;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs an import as three stages: a producer (streaming parse) on its own thread, a pool of
+ * builders, and a consumer (dispatch) on the calling thread. Built items reach the consumer
+ * in production order through a bounded queue, so a slow consumer makes parsing and building
+ * wait instead of rendering the whole collection up front.
+ */
+public class StagedPipeline<T, R> {
+    private static final AtomicInteger PIPELINE_NUMBER = new AtomicInteger();
+    private static final long CANCEL_POLL_MS = 100;
+
+    public interface Producer<T> {
+        void produce(Sink<T> sink) throws Exception;
+    }
+
+    public interface Sink<T> {
+        void accept(T item) throws InterruptedException;
+    }
+
+    public interface Builder<T, R> {
+        R build(T item) throws Exception;
+    }
+
+    public interface Consumer<T, R> {
+        /**
+         * Called once per item in production order; error is set if building it failed.
+         */
+        void accept(T item, R built, Exception error) throws InterruptedException;
+    }
+
+    // One produced item and its build, or the end-of-stream marker
+    private static class Slot<T, R> {
+        final T item;
+        final Future<R> built;
+        final Exception producerError;
+        final boolean end;
+
+        Slot(T item, Future<R> built, Exception producerError, boolean end) {
+            this.item = item;
+            this.built = built;
+            this.producerError = producerError;
+            this.end = end;
+        }
+    }
+
+    private final int queueCapacity;
+    private final int builderThreads;
+    private final BooleanSupplier cancelled;
+
+    public StagedPipeline(int queueCapacity, int builderThreads, BooleanSupplier cancelled) {
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.builderThreads = Math.max(1, builderThreads);
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Runs the pipeline to completion on the calling thread. Returns early if cancelled, and
+     * rethrows any exception thrown by the producer once the items before it were consumed.
+     */
+    public void run(Producer<T> producer, Builder<T, R> builder, Consumer<T, R> consumer) throws Exception {
+        String prefix = "Postman Importer pipeline-" + PIPELINE_NUMBER.incrementAndGet();
+        BlockingQueue<Slot<T, R>> ready = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService parseExecutor = Executors.newSingleThreadExecutor(daemon(prefix + "-parse"));
+        // Never holds more than the ready queue allows, since every task has a slot waiting for it
+        ExecutorService buildExecutor = new ThreadPoolExecutor(builderThreads, builderThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity + builderThreads), daemon(prefix + "-build"));
+
+        parseExecutor.execute(() -> {
+            Slot<T, R> end;
+            try {
+                producer.produce(item -> ready.put(new Slot<>(item, buildExecutor.submit(() -> builder.build(item)), null, false)));
+                end = new Slot<>(null, null, null, true);
+            } catch (InterruptedException e) {
+                return; // Cancelled - nobody is waiting for the end marker
+            } catch (Exception e) {
+                end = new Slot<>(null, null, e, true);
+            }
+            try {
+                ready.put(end);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        try {
+            while (true) {
+                if (cancelled.getAsBoolean()) {
+                    return;
+                }
+                Slot<T, R> slot = ready.poll(CANCEL_POLL_MS, TimeUnit.MILLISECONDS);
+                if (slot == null) {
+                    continue;
+                }
+                if (slot.end) {
+                    if (slot.producerError != null) {
+                        throw slot.producerError;
+                    }
+                    return;
+                }
+                R built = null;
+                Exception error = null;
+                try {
+                    built = slot.built.get();
+                } catch (ExecutionException e) {
+                    error = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+                consumer.accept(slot.item, built, error);
+            }
+        } finally {
+            parseExecutor.shutdownNow();
+            buildExecutor.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
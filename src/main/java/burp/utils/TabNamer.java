@@ -0,0 +1,92 @@
+package burp.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hands out unique Repeater tab names in O(1). Instead of probing "name (1)", "name (2)", ...
+ * against every name ever issued, it keeps one counter per base name, so thousands of requests
+ * called "Get item" cost one map lookup each. Counters live in a bounded LRU map; a base name
+ * that has not been used for a long time may start counting again, which at worst repeats a
+ * name from a much older import.
+ */
+public class TabNamer {
+    public static final int DEFAULT_MAX_NAMES = 10000;
+    private static final Pattern NUMBERED = Pattern.compile("(.*) \\((\\d{1,9})\\)");
+    private static final String FOLDER_SEPARATOR = " / ";
+
+    // Guarded by this. Base name -> next number to hand out
+    private final Map<String, int[]> counters;
+
+    public TabNamer() {
+        this(DEFAULT_MAX_NAMES);
+    }
+
+    public TabNamer(int maxNames) {
+        int limit = Math.max(1, maxNames);
+        this.counters = new LinkedHashMap<String, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+                return size() > limit;
+            }
+        };
+    }
+
+    /**
+     * Tab name for a request: its immediate folder and its name, e.g. "Users / Get item",
+     * so same-named requests in different folders rarely need a number.
+     */
+    public static String baseName(String path, String name) {
+        String requestName = name == null || name.trim().isEmpty() ? "Request" : name;
+        if (path == null || path.length() <= requestName.length() + 1 || !path.endsWith("/" + requestName)) {
+            return requestName;
+        }
+        String folderPath = path.substring(0, path.length() - requestName.length() - 1);
+        String folder = folderPath.substring(folderPath.lastIndexOf('/') + 1);
+        return folder.isEmpty() ? requestName : folder + FOLDER_SEPARATOR + requestName;
+    }
+
+    /**
+     * Returns baseName the first time, then "baseName (1)", "baseName (2)", ... Thread-safe.
+     */
+    public synchronized String nextName(String baseName) {
+        int[] counter = counters.get(baseName);
+        if (counter == null) {
+            counter = new int[] {1};
+            counters.put(baseName, counter);
+            if (!alreadyIssued(baseName)) {
+                return baseName;
+            }
+        }
+
+        // Only skips numbers taken by requests literally named "baseName (n)"
+        String name;
+        do {
+            name = baseName + " (" + counter[0]++ + ")";
+        } while (counters.containsKey(name));
+        return name;
+    }
+
+    /**
+     * Number of base names currently tracked.
+     */
+    public synchronized int size() {
+        return counters.size();
+    }
+
+    public synchronized void clear() {
+        counters.clear();
+    }
+
+    // True if "base (n)" was already handed out by the counter for base
+    private boolean alreadyIssued(String name) {
+        Matcher matcher = NUMBERED.matcher(name);
+        if (!matcher.matches()) {
+            return false;
+        }
+        int[] counter = counters.get(matcher.group(1));
+        return counter != null && Integer.parseInt(matcher.group(2)) < counter[0];
+    }
+}
@@ -0,0 +1,87 @@
+package burp.utils;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Paces Repeater tab creation so a large import cannot flood Burp's UI. Tabs open in small
+ * batches at a fixed rate, opening pauses while the UI reports itself busy, and at most a set
+ * number of tabs is opened per import. Callers wait in acquire, which in turn holds back the
+ * import pipeline instead of queueing more tabs than Burp can draw.
+ */
+public class TabThrottle {
+    private static final String KEY = "repeater";
+    private static final long BUSY_POLL_MS = 50;
+
+    private final RateLimiter limiter;
+    private final int maxTabs;
+    private final BooleanSupplier uiBusy;
+    private final BooleanSupplier cancelled;
+    private final AtomicInteger granted = new AtomicInteger();
+    private final AtomicLong pausedNanos = new AtomicLong();
+
+    /**
+     * @param tabsPerSecond tab creation rate, 0 for unlimited
+     * @param batchSize     tabs that may open back to back before the rate applies
+     * @param maxTabs       tabs opened per import, 0 for no cap
+     * @param uiBusy        opening waits while this returns true
+     * @param cancelled     checked while waiting; acquire gives up once it returns true
+     */
+    public TabThrottle(double tabsPerSecond, int batchSize, int maxTabs, BooleanSupplier uiBusy,
+                       BooleanSupplier cancelled) {
+        this.limiter = new RateLimiter(tabsPerSecond, 0, Math.max(1, batchSize), 0, cancelled);
+        this.maxTabs = Math.max(0, maxTabs);
+        this.uiBusy = uiBusy;
+        this.cancelled = cancelled;
+    }
+
+    public static TabThrottle unlimited() {
+        return new TabThrottle(0, 1, 0, () -> false, () -> false);
+    }
+
+    /**
+     * Waits until another tab may be opened. Returns false once the per-import cap is reached.
+     * Throws CancellationException if the import is cancelled while waiting.
+     */
+    public boolean acquire() throws InterruptedException {
+        if (maxTabs > 0 && granted.incrementAndGet() > maxTabs) {
+            return false;
+        }
+        if (uiBusy.getAsBoolean()) {
+            long start = System.nanoTime();
+            while (uiBusy.getAsBoolean()) {
+                if (cancelled.getAsBoolean()) {
+                    throw new CancellationException("Import cancelled");
+                }
+                Thread.sleep(BUSY_POLL_MS);
+            }
+            pausedNanos.addAndGet(System.nanoTime() - start);
+        }
+        limiter.acquireOrCancel(KEY);
+        if (maxTabs == 0) {
+            granted.incrementAndGet();
+        }
+        return true;
+    }
+
+    public int getMaxTabs() {
+        return maxTabs;
+    }
+
+    /**
+     * Tabs granted so far (never more than the cap).
+     */
+    public int getOpenedCount() {
+        return maxTabs > 0 ? Math.min(granted.get(), maxTabs) : granted.get();
+    }
+
+    /**
+     * Total time spent waiting for the UI to catch up.
+     */
+    public long getPausedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(pausedNanos.get());
+    }
+}
@@ -1,8 +1,9 @@
 package burp.utils;
 
 import burp.models.*;
+import burp.parser.PostmanParser;
 import burp.parser.VariableResolver;
-import burp.api.montoya.MontoyaApi;
+import java.io.File;
 import java.util.*;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
@@ -10,16 +11,15 @@ import java.util.regex.Matcher;
 public class VariableDetector {
     private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\{\\{([^}]+)\\}\\}");
     private final VariableResolver resolver;
-    private final MontoyaApi api;
+    private final Log log;
     
     public VariableDetector(VariableResolver resolver) {
-        this.resolver = resolver;
-        this.api = null; // For backward compatibility
+        this(resolver, Log.disabled());
     }
     
-    public VariableDetector(VariableResolver resolver, MontoyaApi api) {
+    public VariableDetector(VariableResolver resolver, Log log) {
         this.resolver = resolver;
-        this.api = api;
+        this.log = log;
     }
     
     public VariableAnalysis analyzeCollection(PostmanCollection collection) {
@@ -27,62 +27,83 @@ public class VariableDetector {
         int totalRequests = 0;
         int requestsWithVariables = 0;
         
-        if (api != null) {
-            api.logging().logToOutput("🔍🔍🔍 NEW VARIABLE DETECTOR v1.0.4 IS RUNNING! 🔍🔍🔍");
-            api.logging().logToOutput("DEBUG VariableDetector: Starting collection analysis");
-        }
+        log.debug(Log.Category.VARIABLES, () -> "VariableDetector: Starting collection analysis");
         
         List<RequestItem> requests = flattenRequests(collection.item, "");
         
         for (RequestItem item : requests) {
             totalRequests++;
-            Set<String> requestVariables = findVariablesInRequest(item.request);
-            
-            if (api != null) {
-                api.logging().logToOutput("DEBUG VariableDetector: Request '" + item.name + "' found variables=" + requestVariables);
-            }
-            
-            if (!requestVariables.isEmpty()) {
+            if (addUnresolvedVariables(item.name, item.request, unresolvedVariables)) {
                 requestsWithVariables++;
-                
-                // Check which variables are unresolved
-                for (String variable : requestVariables) {
-                    String testValue = "{{" + variable + "}}";
-                    String resolved = resolver.resolve(testValue);
-                    
-                    if (api != null) {
-                        api.logging().logToOutput("DEBUG VariableDetector: Variable '" + variable + "' testValue='" + testValue + "' resolved='" + resolved + "'");
-                    }
-                    
-                    // Variable is unresolved if:
-                    // 1. Still contains the original variable syntax
-                    // 2. Resolves to empty string or whitespace (indicates missing variable)
-                    boolean isUnresolved = testValue.equals(resolved) || 
-                                           resolved == null || 
-                                           resolved.trim().isEmpty();
-                    
-                    if (isUnresolved) {
-                        unresolvedVariables.add(variable);
-                        if (api != null) {
-                            api.logging().logToOutput("DEBUG VariableDetector: Variable '" + variable + "' is UNRESOLVED (resolved to: '" + resolved + "')");
-                        }
-                    } else {
-                        if (api != null) {
-                            api.logging().logToOutput("DEBUG VariableDetector: Variable '" + variable + "' WAS RESOLVED to: '" + resolved + "'");
-                        }
-                    }
-                }
             }
         }
         
-        if (api != null) {
-            api.logging().logToOutput("DEBUG VariableDetector: Analysis complete - " + 
-                "totalRequests=" + totalRequests + 
-                ", requestsWithVariables=" + requestsWithVariables + 
-                ", unresolvedVariables=" + unresolvedVariables);
+        return finishAnalysis(unresolvedVariables, totalRequests, requestsWithVariables);
+    }
+    
+    /**
+     * Same analysis as analyzeCollection, streamed from the file one request at a time, so a
+     * huge collection is never held in memory just to look for variables.
+     */
+    public VariableAnalysis analyzeCollection(PostmanParser parser, File collectionFile) throws Exception {
+        Set<String> unresolvedVariables = new HashSet<>();
+        int[] counts = new int[2]; // Requests, requests with variables
+        
+        log.debug(Log.Category.VARIABLES, () -> "VariableDetector: Starting streamed collection analysis");
+        
+        parser.streamRequests(collectionFile, (name, path, request) -> {
+            counts[0]++;
+            if (addUnresolvedVariables(name, request, unresolvedVariables)) {
+                counts[1]++;
+            }
+        });
+        
+        return finishAnalysis(unresolvedVariables, counts[0], counts[1]);
+    }
+    
+    // Adds the request's unresolved variables to the set; true if it uses any variables at all
+    private boolean addUnresolvedVariables(String name, PostmanCollection.Request request,
+                                           Set<String> unresolvedVariables) {
+        Set<String> requestVariables = findVariablesInRequest(request);
+        
+        log.debug(Log.Category.VARIABLES, () -> "VariableDetector: Request '" + name + "' found variables=" + requestVariables);
+        
+        if (requestVariables.isEmpty()) {
+            return false;
         }
         
-        return new VariableAnalysis(unresolvedVariables, totalRequests, requestsWithVariables);
+        // Check which variables are unresolved
+        for (String variable : requestVariables) {
+            String testValue = "{{" + variable + "}}";
+            String resolved = resolver.resolve(testValue);
+            
+            log.debug(Log.Category.VARIABLES, () -> "VariableDetector: Variable '" + variable + "' testValue='" + testValue + "' resolved='" + resolved + "'");
+            
+            // Variable is unresolved if:
+            // 1. Still contains the original variable syntax
+            // 2. Resolves to empty string or whitespace (indicates missing variable)
+            boolean isUnresolved = testValue.equals(resolved) || 
+                                   resolved == null || 
+                                   resolved.trim().isEmpty();
+            
+            if (isUnresolved) {
+                unresolvedVariables.add(variable);
+                log.debug(Log.Category.VARIABLES, () -> "VariableDetector: Variable '" + variable + "' is UNRESOLVED (resolved to: '" + resolved + "')");
+            } else {
+                log.debug(Log.Category.VARIABLES, () -> "VariableDetector: Variable '" + variable + "' WAS RESOLVED to: '" + resolved + "'");
+            }
+        }
+        return true;
+    }
+    
+    private VariableAnalysis finishAnalysis(Set<String> unresolvedVariables, int totalRequests, int requestsWithVariables) {
+        VariableAnalysis analysis = new VariableAnalysis(unresolvedVariables, totalRequests, requestsWithVariables);
+        log.debug(Log.Category.VARIABLES, () -> "VariableDetector: Analysis complete - " + 
+            "totalRequests=" + analysis.getTotalRequests() + 
+            ", requestsWithVariables=" + analysis.getRequestsWithVariables() + 
+            ", unresolvedVariables=" + unresolvedVariables);
+        
+        return analysis;
     }
     
     public Set<String> findVariablesInRequest(PostmanCollection.Request request) {
@@ -93,13 +114,9 @@ public class VariableDetector {
         if (rawUrl != null) {
             Set<String> urlVars = extractVariables(rawUrl);
             variables.addAll(urlVars);
-            if (api != null) {
-                api.logging().logToOutput("DEBUG VariableDetector: URL variables=" + urlVars + " from rawUrl=" + rawUrl);
-            }
+            log.debug(Log.Category.VARIABLES, () -> "VariableDetector: URL variables=" + urlVars + " from rawUrl=" + rawUrl);
         } else {
-            if (api != null) {
-                api.logging().logToOutput("DEBUG VariableDetector: Could not extract raw URL from=" + request.url);
-            }
+            log.debug(Log.Category.VARIABLES, () -> "VariableDetector: Could not extract raw URL from=" + request.url);
         }
         
         // Check headers
@@ -119,8 +136,8 @@ public class VariableDetector {
             if (request.body.raw != null) {
                 Set<String> bodyVars = extractVariables(request.body.raw);
                 variables.addAll(bodyVars);
-                if (api != null && !bodyVars.isEmpty()) {
-                    api.logging().logToOutput("DEBUG VariableDetector: Raw body variables=" + bodyVars);
+                if (!bodyVars.isEmpty()) {
+                    log.debug(Log.Category.VARIABLES, () -> "VariableDetector: Raw body variables=" + bodyVars);
                 }
             }
             
@@ -128,9 +145,7 @@ public class VariableDetector {
             if ("graphql".equals(request.body.mode) && request.body.graphql != null) {
                 Set<String> graphqlVars = findVariablesInGraphQL(request.body.graphql);
                 variables.addAll(graphqlVars);
-                if (api != null) {
-                    api.logging().logToOutput("DEBUG VariableDetector: GraphQL body detected - found variables=" + graphqlVars);
-                }
+                log.debug(Log.Category.VARIABLES, () -> "VariableDetector: GraphQL body detected - found variables=" + graphqlVars);
             }
         }
         
@@ -139,9 +154,7 @@ public class VariableDetector {
             variables.addAll(findVariablesInAuth(request.auth));
         }
         
-        if (api != null) {
-            api.logging().logToOutput("DEBUG VariableDetector: Total variables found in request=" + variables);
-        }
+        log.debug(Log.Category.VARIABLES, () -> "VariableDetector: Total variables found in request=" + variables);
         return variables;
     }
     
@@ -152,23 +165,17 @@ public class VariableDetector {
         if (graphql.query != null) {
             Set<String> queryVars = extractVariables(graphql.query);
             variables.addAll(queryVars);
-            if (api != null) {
-                api.logging().logToOutput("DEBUG VariableDetector: GraphQL query variables=" + queryVars);
-            }
+            log.debug(Log.Category.VARIABLES, () -> "VariableDetector: GraphQL query variables=" + queryVars);
         }
         
         // Check GraphQL variables JSON for Postman variables
         if (graphql.variables != null) {
             Set<String> variableVars = extractVariables(graphql.variables);
             variables.addAll(variableVars);
-            if (api != null) {
-                api.logging().logToOutput("DEBUG VariableDetector: GraphQL variables field variables=" + variableVars);
-            }
+            log.debug(Log.Category.VARIABLES, () -> "VariableDetector: GraphQL variables field variables=" + variableVars);
         }
         
-        if (api != null) {
-            api.logging().logToOutput("DEBUG VariableDetector: Total GraphQL variables found=" + variables);
-        }
+        log.debug(Log.Category.VARIABLES, () -> "VariableDetector: Total GraphQL variables found=" + variables);
         return variables;
     }
     
@@ -233,16 +240,13 @@ public class VariableDetector {
                 com.google.gson.JsonObject urlObject = element.getAsJsonObject();
                 if (urlObject.has("raw")) {
                     String rawUrl = urlObject.get("raw").getAsString();
-                    if (api != null) {
-                        api.logging().logToOutput("DEBUG VariableDetector: Successfully extracted raw URL=" + rawUrl);
-                    }
+                    log.debug(Log.Category.VARIABLES, () -> "VariableDetector: Successfully extracted raw URL=" + rawUrl);
                     return rawUrl;
                 }
             }
         } catch (Exception e) {
-            if (api != null) {
-                api.logging().logToOutput("DEBUG VariableDetector: Failed to parse URL object, error=" + e.getMessage());
-            }
+            log.debug(Log.Category.VARIABLES, () -> "VariableDetector: Failed to parse URL object, error=" + e.getMessage());
+            
             // Fallback to string representation
         }
         
@@ -0,0 +1,72 @@
+package burp.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors that run import requests.
+ * On Java 21+ each request can get its own virtual thread, so thousands of requests blocked on
+ * the network cost almost nothing. The extension is compiled for Java 8, so the virtual thread
+ * API is looked up reflectively once; older runtimes fall back to a fixed platform thread pool.
+ */
+public final class WorkerThreads {
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+
+    static {
+        Method newExecutor = null;
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            // Java 19/20 only have virtual threads as a preview - make sure they actually start
+            ((ThreadFactory) factory.invoke(name.invoke(ofVirtual.invoke(null), "probe-", 0L))).newThread(() -> { });
+        } catch (Throwable e) {
+            newExecutor = null;
+        }
+        NEW_THREAD_PER_TASK_EXECUTOR = newExecutor;
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+    }
+
+    private WorkerThreads() {
+    }
+
+    public static boolean virtualThreadsAvailable() {
+        return NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Returns a virtual-thread-per-task executor if requested and supported, otherwise a fixed
+     * pool of daemon platform threads. Callers bound concurrency themselves either way.
+     */
+    public static ExecutorService newExecutor(String namePrefix, int platformThreads, boolean preferVirtual) {
+        if (preferVirtual && virtualThreadsAvailable()) {
+            try {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 1L);
+                ThreadFactory factory = (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+                return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+            } catch (Exception e) {
+                // Fall through to platform threads
+            }
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, platformThreads), runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
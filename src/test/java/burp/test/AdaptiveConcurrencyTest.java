@@ -0,0 +1,57 @@
+package burp.test;
+
+import burp.utils.AdaptiveConcurrency;
+
+/**
+ * Simple test to verify AdaptiveConcurrency reacts to latency, throttling and rate limit headers
+ */
+public class AdaptiveConcurrencyTest {
+    private static final long MS = 1_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing AdaptiveConcurrency class...");
+
+        AdaptiveConcurrency adaptive = new AdaptiveConcurrency(2, 16);
+        String host = "api.example.com:443";
+        assert adaptive.limit(host) == 2;
+
+        // Steady, fast responses grow the limit up to the maximum
+        for (int i = 0; i < 500; i++) {
+            adaptive.onResponse(host, 50 * MS, 200, null, null);
+        }
+        assert adaptive.limit(host) == 16 : adaptive.limit(host);
+
+        // Latency far above the baseline shrinks it
+        for (int i = 0; i < 20; i++) {
+            adaptive.onResponse(host, 400 * MS, 200, null, null);
+        }
+        int afterSlowdown = adaptive.limit(host);
+        assert afterSlowdown < 16 : afterSlowdown;
+
+        // 429 halves the limit and pauses the host for Retry-After seconds
+        adaptive.onResponse(host, 50 * MS, 429, "1", null);
+        assert adaptive.limit(host) <= Math.max(1, afterSlowdown / 2 + 1) : adaptive.limit(host);
+        assert adaptive.isPaused(host);
+        long start = System.nanoTime();
+        boolean resumed = adaptive.awaitResume(host, () -> false);
+        long waitedMs = (System.nanoTime() - start) / MS;
+        assert resumed;
+        assert waitedMs >= 900 && waitedMs < 2000 : waitedMs;
+
+        // A paused host gives up straight away when cancelled
+        adaptive.onResponse(host, 50 * MS, 503, "60", null);
+        boolean resumedWhenCancelled = adaptive.awaitResume(host, () -> true);
+        assert !resumedWhenCancelled;
+
+        // X-RateLimit-Remaining caps the limit
+        String other = "other.example.com:443";
+        adaptive.onResponse(other, 50 * MS, 200, null, "1");
+        assert adaptive.limit(other) == 1 : adaptive.limit(other);
+        adaptive.onResponse(other, 50 * MS, 200, null, "0");
+        assert adaptive.isPaused(other);
+
+        assert adaptive.snapshot().keySet().iterator().next().equals(host);
+
+        System.out.println("✓ All tests passed!");
+    }
+}
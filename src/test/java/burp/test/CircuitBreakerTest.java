@@ -0,0 +1,103 @@
+package burp.test;
+
+import burp.models.FailureClass;
+import burp.utils.CircuitBreaker;
+
+/**
+ * Simple test to verify CircuitBreaker opens after repeated host failures and probes after cool-down
+ */
+public class CircuitBreakerTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing CircuitBreaker class...");
+
+        CircuitBreaker breaker = new CircuitBreaker(3, 200);
+        String host = "down.example.com:443";
+
+        // Request-level failures and throttling never open the circuit
+        for (int i = 0; i < 10; i++) {
+            breaker.onFailure(host, FailureClass.OTHER);
+            breaker.onFailure(host, FailureClass.THROTTLED);
+        }
+        boolean allowed = breaker.allowRequest(host);
+        assert allowed;
+
+        // A success resets the run of failures
+        breaker.onFailure(host, FailureClass.CONNECT);
+        breaker.onFailure(host, FailureClass.TIMEOUT);
+        breaker.onSuccess(host);
+        boolean opened = breaker.onFailure(host, FailureClass.CONNECT);
+        assert !opened;
+        opened = breaker.onFailure(host, FailureClass.DNS);
+        assert !opened;
+        opened = breaker.onFailure(host, FailureClass.DNS);   // Third in a row opens it
+        assert opened;
+        assert breaker.isOpen(host);
+        allowed = breaker.allowRequest(host);
+        assert !allowed;
+        assert breaker.openHosts().contains(host);
+        allowed = breaker.allowRequest("other.example.com:443");
+        assert allowed;
+
+        // After the cool-down exactly one probe goes through
+        Thread.sleep(250);
+        allowed = breaker.allowRequest(host);
+        assert allowed;
+        allowed = breaker.allowRequest(host);
+        assert !allowed;
+
+        // A failed probe re-opens without counting as a new trip; a good one closes
+        opened = breaker.onFailure(host, FailureClass.CONNECT);
+        assert !opened;
+        allowed = breaker.allowRequest(host);
+        assert !allowed;
+        Thread.sleep(250);
+        allowed = breaker.allowRequest(host);
+        assert allowed;
+        breaker.onSuccess(host);
+        assert !breaker.isOpen(host);
+        allowed = breaker.allowRequest(host) && breaker.allowRequest(host);
+        assert allowed;
+
+        // A probe the host answers with 429 or another request-level error closes the circuit
+        CircuitBreaker throttled = new CircuitBreaker(1, 100);
+        throttled.onFailure(host, FailureClass.CONNECT);
+        assert throttled.isOpen(host);
+        Thread.sleep(150);
+        allowed = throttled.allowRequest(host);
+        assert allowed;
+        throttled.onFailure(host, FailureClass.THROTTLED);
+        assert !throttled.isOpen(host);
+        allowed = throttled.allowRequest(host) && throttled.allowRequest(host);
+        assert allowed;
+
+        // An abandoned probe, e.g. a cancelled import, lets the next request probe
+        throttled.onFailure(host, FailureClass.TIMEOUT);
+        Thread.sleep(150);
+        allowed = throttled.allowRequest(host);
+        assert allowed;
+        allowed = throttled.allowRequest(host);
+        assert !allowed;
+        Thread other = new Thread(() -> throttled.release(host)); // Only the probing thread can abandon it
+        other.start();
+        other.join();
+        allowed = throttled.allowRequest(host);
+        assert !allowed;
+        throttled.release(host);
+        assert throttled.isOpen(host);
+        allowed = throttled.allowRequest(host);
+        assert allowed;
+        allowed = throttled.allowRequest(host);
+        assert !allowed;
+
+        // Disabled breaker never opens
+        CircuitBreaker disabled = CircuitBreaker.disabled();
+        for (int i = 0; i < 100; i++) {
+            disabled.onFailure(host, FailureClass.DNS);
+        }
+        allowed = disabled.allowRequest(host);
+        assert allowed;
+
+        System.out.println("✓ All tests passed!");
+    }
+}
@@ -0,0 +1,90 @@
+package burp.test;
+
+import burp.utils.RequestDispatcher;
+import burp.utils.WorkerThreads;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares platform-thread and virtual-thread dispatch against StubHttpServer, which
+ * answers every request after a fixed delay, like a slow API.
+ * Run with: java -cp target/classes:target/test-classes burp.test.DispatchModeBenchmark [requests] [latencyMs]
+ */
+public class DispatchModeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int latencyMs = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        StubHttpServer server = new StubHttpServer();
+        server.latencyMs = latencyMs;
+        server.responseBytes = 32;
+        server.start();
+        String url = server.url() + "/graphql";
+
+        System.out.println("Dispatch benchmark: " + requests + " requests, " + latencyMs + "ms server latency");
+        System.out.println("Virtual threads available: " + WorkerThreads.virtualThreadsAvailable() +
+                           " (Java " + System.getProperty("java.version") + ")");
+
+        // Warm up the JIT and the connection pool
+        run(url, 200, 16, false);
+
+        for (int concurrency : new int[] {16, 64, 256}) {
+            report("platform", concurrency, requests, run(url, requests, concurrency, false));
+            if (WorkerThreads.virtualThreadsAvailable()) {
+                report("virtual ", concurrency, requests, run(url, requests, concurrency, true));
+            }
+        }
+
+        server.stop();
+    }
+
+    private static long run(String url, int requests, int concurrency, boolean virtualThreads) throws Exception {
+        RequestDispatcher dispatcher = new RequestDispatcher(concurrency, concurrency, virtualThreads);
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            dispatcher.submit("127.0.0.1", () -> {
+                if (!fetch(url)) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        dispatcher.awaitCompletion(() -> false);
+        long elapsed = System.nanoTime() - start;
+        if (failures.get() > 0) {
+            System.out.println("  (" + failures.get() + " failed requests)");
+        }
+        return elapsed;
+    }
+
+    private static boolean fetch(String url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write("{\"query\":\"{ok}\"}".getBytes(StandardCharsets.UTF_8));
+            }
+            try (InputStream in = connection.getInputStream()) {
+                byte[] buffer = new byte[256];
+                while (in.read(buffer) != -1) {
+                    // Drain so the connection can be reused
+                }
+            }
+            return connection.getResponseCode() == 200;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static void report(String mode, int concurrency, int requests, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("  %s concurrency=%-4d %6.0f ms  %8.1f req/s%n",
+            mode, concurrency, seconds * 1000, requests / seconds);
+    }
+}
@@ -0,0 +1,133 @@
+package burp.test;
+
+import burp.models.DispatchOrder;
+import burp.utils.DispatchScheduler;
+import burp.utils.RequestDispatcher;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Simple test to verify each DispatchScheduler policy picks waiting requests in its order, and
+ * never from a host that can't start
+ */
+public class DispatchSchedulerTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing DispatchScheduler class...");
+
+        // Collection order by default
+        List<String> fifo = order(DispatchScheduler.fifo());
+        assert fifo.equals(Arrays.asList("a1", "b1", "a2", "b2", "c1", "a3")) : fifo;
+
+        // Reads go before writes, each in collection order
+        List<String> safeMethods = order(DispatchScheduler.forOrder(DispatchOrder.SAFE_METHODS_FIRST, ""));
+        assert safeMethods.equals(Arrays.asList("b1", "b2", "c1", "a1", "a2", "a3")) : safeMethods;
+
+        // Listed folders first, in the listed order, including their subfolders; matching ignores case
+        // and trailing slashes
+        List<String> folders = order(DispatchScheduler.forOrder(DispatchOrder.FOLDER_PRIORITY, "users/admin/, Users"));
+        assert folders.equals(Arrays.asList("a3", "c1", "a1", "b1", "a2", "b2")) : folders;
+        List<String> folder = order(DispatchScheduler.forOrder(DispatchOrder.FOLDER_PRIORITY, "Users"));
+        assert folder.equals(Arrays.asList("c1", "a3", "a1", "b1", "a2", "b2")) : folder;
+        List<String> noMatch = order(DispatchScheduler.forOrder(DispatchOrder.FOLDER_PRIORITY, "Order"));
+        assert noMatch.equals(fifo) : noMatch;
+
+        // Smallest bodies first
+        List<String> shortest = order(DispatchScheduler.forOrder(DispatchOrder.SHORTEST_BODY_FIRST, ""));
+        assert shortest.equals(Arrays.asList("b1", "b2", "c1", "a2", "a3", "a1")) : shortest;
+
+        // One host at a time, hosts in the order they first waited
+        List<String> grouped = order(DispatchScheduler.forOrder(DispatchOrder.HOST_GROUPED, ""));
+        assert grouped.equals(Arrays.asList("a1", "a2", "a3", "b1", "b2", "c1")) : grouped;
+
+        // Hosts that can't start are passed over, and nothing is returned when none can
+        DispatchScheduler scheduler = DispatchScheduler.forOrder(DispatchOrder.HOST_GROUPED, "");
+        List<String> picked = new ArrayList<>();
+        fill(scheduler, picked);
+        scheduler.next(host -> !host.equals("a:443")).run();
+        assert picked.equals(Collections.singletonList("b1")) : picked;
+        DispatchScheduler.Task blocked = scheduler.next(host -> false);
+        assert blocked == null;
+        assert scheduler.size() == 5 && scheduler.hasWaiting("a:443");
+        scheduler.clear();
+        DispatchScheduler.Task cleared = scheduler.next(host -> true);
+        assert scheduler.size() == 0 && !scheduler.hasWaiting("a:443") && cleared == null;
+
+        // Method and body length come from the raw request
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+        DispatchScheduler fromBytes = DispatchScheduler.forOrder(DispatchOrder.SHORTEST_BODY_FIRST, "");
+        fromBytes.add(DispatchScheduler.Task.forRequest("h", "x", request("POST", "{\"a\": 1}"), () -> ran.add("long")));
+        fromBytes.add(DispatchScheduler.Task.forRequest("h", "x", request("GET", ""), () -> ran.add("empty")));
+        fromBytes.add(DispatchScheduler.Task.forRequest("h", "x", request("PUT", "{}"), () -> ran.add("short")));
+        DispatchScheduler.Task next;
+        while ((next = fromBytes.next(host -> true)) != null) {
+            next.run();
+        }
+        assert ran.equals(Arrays.asList("empty", "short", "long")) : ran;
+        DispatchScheduler safeFirst = DispatchScheduler.forOrder(DispatchOrder.SAFE_METHODS_FIRST, "");
+        ran.clear();
+        safeFirst.add(DispatchScheduler.Task.forRequest("h", "x", request("DELETE", ""), () -> ran.add("delete")));
+        safeFirst.add(DispatchScheduler.Task.forRequest("h", "x", request("HEAD", ""), () -> ran.add("head")));
+        while ((next = safeFirst.next(host -> true)) != null) {
+            next.run();
+        }
+        assert ran.equals(Arrays.asList("head", "delete")) : ran;
+
+        // The dispatcher starts queued requests in the scheduler's order once a worker frees up
+        RequestDispatcher dispatcher = new RequestDispatcher(1, 1, false, null,
+            DispatchScheduler.forOrder(DispatchOrder.SAFE_METHODS_FIRST, ""));
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.submit("h", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ran.clear();
+        dispatcher.submit(new DispatchScheduler.Task("h", "x", "POST", 10, () -> ran.add("post")));
+        dispatcher.submit(new DispatchScheduler.Task("h", "x", "GET", 0, () -> ran.add("get")));
+        dispatcher.submit(new DispatchScheduler.Task("h", "x", "PATCH", 10, () -> ran.add("patch")));
+        dispatcher.submit(new DispatchScheduler.Task("h", "x", "OPTIONS", 0, () -> ran.add("options")));
+        assert dispatcher.queuedCount() == 4;
+        release.countDown();
+        dispatcher.awaitCompletion(() -> false);
+        assert ran.equals(Arrays.asList("get", "options", "post", "patch")) : ran;
+
+        System.out.println("✓ All tests passed!");
+    }
+
+    // The same six waiting requests for every policy: host, folder path, method and body length
+    private static void fill(DispatchScheduler scheduler, List<String> ran) {
+        add(scheduler, ran, "a1", "a:443", "Orders/Create order", "POST", 500);
+        add(scheduler, ran, "b1", "b:443", "Orders/List orders", "GET", 0);
+        add(scheduler, ran, "a2", "a:443", "Orders/Update order", "PUT", 40);
+        add(scheduler, ran, "b2", "b:443", "Catalog/List products", "GET", 0);
+        add(scheduler, ran, "c1", "c:443", "Users/Get user", "GET", 0);
+        add(scheduler, ran, "a3", "a:443", "Users/Admin/Reset password", "POST", 60);
+    }
+
+    private static void add(DispatchScheduler scheduler, List<String> ran, String name, String host, String path,
+                            String method, int bodyLength) {
+        scheduler.add(new DispatchScheduler.Task(host, path, method, bodyLength, () -> ran.add(name)));
+    }
+
+    private static List<String> order(DispatchScheduler scheduler) {
+        List<String> ran = new ArrayList<>();
+        fill(scheduler, ran);
+        DispatchScheduler.Task task;
+        while ((task = scheduler.next(host -> true)) != null) {
+            task.run();
+        }
+        assert scheduler.size() == 0;
+        return ran;
+    }
+
+    private static byte[] request(String method, String body) {
+        return (method + " /x HTTP/1.1\r\nHost: h\r\n\r\n" + body).getBytes(StandardCharsets.UTF_8);
+    }
+}
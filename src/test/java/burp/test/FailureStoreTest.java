@@ -0,0 +1,86 @@
+package burp.test;
+
+import burp.models.FailureClass;
+import burp.models.ImportResult;
+import burp.utils.FailureStore;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Simple test to verify FailureStore keeps failed requests in memory up to its budget, spills
+ * the rest to disk, and that ImportResult shares repeated error messages
+ */
+public class FailureStoreTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing FailureStore class...");
+
+        FailureStore store = new FailureStore(1000);
+        List<FailureStore.Ref> refs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            refs.add(store.put(bytes(i, 100 + i)));
+        }
+        assert store.getMemoryBytes() <= 1000 : store.getMemoryBytes();
+        assert store.getSpilledBytes() > 0;
+        assert !refs.get(0).isSpilled();
+        assert refs.get(19).isSpilled();
+
+        // Every request reads back exactly, from memory or from the spill file
+        for (int i = refs.size() - 1; i >= 0; i--) {
+            assert refs.get(i).length() == 100 + i;
+            assert Arrays.equals(refs.get(i).load(), bytes(i, 100 + i)) : "request " + i;
+        }
+
+        // Closing deletes the spill file; spilled refs can no longer be loaded
+        store.close();
+        assert Arrays.equals(refs.get(0).load(), bytes(0, 100));
+        try {
+            refs.get(19).load();
+            assert false : "loaded from a closed store";
+        } catch (IOException e) {
+            // Expected
+        }
+        try {
+            store.put(new byte[1]);
+            assert false : "stored into a closed store";
+        } catch (IOException e) {
+            // Expected
+        }
+
+        // Identical error messages are stored once
+        ImportResult result = new ImportResult();
+        for (int i = 0; i < 3; i++) {
+            result.recordFailure(i, "Get " + i, "Items/Get " + i, new String("HTTP 503"), FailureClass.HTTP_5XX, null);
+        }
+        assert result.getFailureCount() == 3;
+        assert result.failedRequestDetails.get(0).errorMessage == result.failedRequestDetails.get(2).errorMessage;
+        assert result.failedRequestDetails.get(1).requestId == 1;
+        assert result.failedRequestDetails.get(1).toString().equals("Get 1: HTTP 503");
+        assert result.failureCounts().get(FailureClass.HTTP_5XX) == 3;
+
+        // Releasing closes the backing store
+        FailureStore owned = new FailureStore(0);
+        FailureStore.Ref spilled = owned.put(bytes(7, 10));
+        result.retryStorage = owned;
+        result.releaseRetryStorage();
+        assert result.retryStorage == null;
+        try {
+            spilled.load();
+            assert false : "store was not closed";
+        } catch (IOException e) {
+            // Expected
+        }
+
+        System.out.println("✓ All tests passed!");
+    }
+
+    private static byte[] bytes(int seed, int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (seed * 31 + i);
+        }
+        return data;
+    }
+}
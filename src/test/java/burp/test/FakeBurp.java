@@ -0,0 +1,531 @@
+package burp.test;
+
+import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.core.Annotations;
+import burp.api.montoya.core.ByteArray;
+import burp.api.montoya.http.Http;
+import burp.api.montoya.http.HttpService;
+import burp.api.montoya.http.message.HttpRequestResponse;
+import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.api.montoya.http.message.responses.HttpResponse;
+import burp.api.montoya.internal.MontoyaObjectFactory;
+import burp.api.montoya.internal.ObjectFactoryLocator;
+import burp.api.montoya.repeater.Repeater;
+import burp.api.montoya.sitemap.SiteMap;
+import burp.cli.StubMontoyaApi;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+/**
+ * In-memory stand-in for the parts of Burp an import talks to, so the real sitemap and Repeater
+ * paths of ImportEngine run outside Burp. Http sends raw requests over pooled keep-alive
+ * sockets (trusting any certificate, like Burp does for testing), the sitemap and Repeater count
+ * what they receive, and the Montoya factories (HttpRequest.httpRequest(...) and friends) are
+ * backed by simple byte-array messages. Only the methods the importer calls are implemented;
+ * anything else throws.
+ */
+public class FakeBurp {
+    private static final int SOCKET_TIMEOUT_MS = 30000;
+
+    public final AtomicInteger sitemapEntries = new AtomicInteger();
+    public final AtomicLong sitemapBytes = new AtomicLong();
+    public final AtomicInteger repeaterTabs = new AtomicInteger();
+    public final AtomicInteger requestsSent = new AtomicInteger();
+    private final Map<String, Queue<Connection>> idleConnections = new ConcurrentHashMap<>();
+    private final SSLSocketFactory tlsSockets;
+    private final MontoyaApi api;
+
+    public FakeBurp(PrintStream out, PrintStream err) {
+        installObjectFactory();
+        tlsSockets = trustingSocketFactory();
+        MontoyaApi stub = StubMontoyaApi.create(out, err);
+        Http http = fake(Http.class, (name, args) ->
+            "sendRequest".equals(name) && args.length == 1 ? send((HttpRequest) args[0]) : UNHANDLED);
+        SiteMap siteMap = fake(SiteMap.class, (name, args) -> {
+            if ("add".equals(name) && args[0] instanceof HttpRequestResponse) {
+                HttpRequestResponse entry = (HttpRequestResponse) args[0];
+                sitemapEntries.incrementAndGet();
+                sitemapBytes.addAndGet(entry.request().toByteArray().length() +
+                    (entry.response() != null ? entry.response().toByteArray().length() : 0));
+                return null;
+            }
+            return UNHANDLED;
+        });
+        Repeater repeater = fake(Repeater.class, (name, args) -> {
+            if ("sendToRepeater".equals(name)) {
+                repeaterTabs.incrementAndGet();
+                return null;
+            }
+            return UNHANDLED;
+        });
+        api = fake(MontoyaApi.class, (name, args) -> {
+            switch (name) {
+                case "http":
+                    return http;
+                case "siteMap":
+                    return siteMap;
+                case "repeater":
+                    return repeater;
+                default:
+                    return MontoyaApi.class.getMethod(name).invoke(stub);
+            }
+        });
+    }
+
+    public MontoyaApi api() {
+        return api;
+    }
+
+    /**
+     * Closes the pooled connections.
+     */
+    public void close() {
+        for (Queue<Connection> connections : idleConnections.values()) {
+            Connection connection;
+            while ((connection = connections.poll()) != null) {
+                connection.close();
+            }
+        }
+    }
+
+    // Burp hands back a request/response without a response when the target can't be reached
+    private HttpRequestResponse send(HttpRequest request) {
+        requestsSent.incrementAndGet();
+        HttpService service = request.httpService();
+        String key = (service.secure() ? "https://" : "http://") + service.host() + ":" + service.port();
+        // Like Burp, fix up Content-Length on the way out; the builder leaves it to the sender
+        FakeMessage message = new FakeMessage(service, request.toByteArray().getBytes());
+        byte[] body = message.body();
+        byte[] raw = body.length > 0 ? message.withBody(body, true).raw : message.raw;
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Connection connection = idleConnections.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>()).poll();
+            boolean reused = connection != null;
+            try {
+                if (connection == null) {
+                    connection = new Connection(connect(service));
+                }
+                connection.out.write(raw);
+                connection.out.flush();
+                FakeMessage response = readResponse(connection.in);
+                if ("close".equalsIgnoreCase(response.headerValue("Connection"))) {
+                    connection.close();
+                } else {
+                    idleConnections.get(key).add(connection);
+                }
+                return requestResponse(request, response.asResponse());
+            } catch (IOException e) {
+                if (connection != null) {
+                    connection.close();
+                }
+                if (!reused) {
+                    break;
+                }
+                // The server closed an idle connection; try once more on a fresh one
+            }
+        }
+        return requestResponse(request, null);
+    }
+
+    private Socket connect(HttpService service) throws IOException {
+        Socket socket = new Socket();
+        socket.connect(new InetSocketAddress(service.host(), service.port()), SOCKET_TIMEOUT_MS);
+        socket.setSoTimeout(SOCKET_TIMEOUT_MS);
+        socket.setTcpNoDelay(true);
+        if (service.secure()) {
+            socket = tlsSockets.createSocket(socket, service.host(), service.port(), true);
+        }
+        return socket;
+    }
+
+    // Reads one response: headers, then a Content-Length or chunked body
+    private static FakeMessage readResponse(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream(256);
+        int last4 = 0;
+        int b;
+        while (last4 != 0x0d0a0d0a) {
+            if ((b = in.read()) == -1) {
+                throw new IOException("Connection closed before the response headers");
+            }
+            head.write(b);
+            last4 = (last4 << 8) | b;
+        }
+        FakeMessage headers = new FakeMessage(null, head.toByteArray());
+        String length = headers.headerValue("Content-Length");
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if ("chunked".equalsIgnoreCase(headers.headerValue("Transfer-Encoding"))) {
+            int size;
+            while ((size = Integer.parseInt(readLine(in).split(";")[0].trim(), 16)) > 0) {
+                body.write(readFully(in, size));
+                readLine(in);
+            }
+            readLine(in);
+        } else if (length != null) {
+            body.write(readFully(in, Integer.parseInt(length.trim())));
+        }
+        return headers.withBody(body.toByteArray(), false);
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        byte[] data = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int n = in.read(data, read, length - read);
+            if (n < 0) {
+                throw new IOException("Connection closed mid-body");
+            }
+            read += n;
+        }
+        return data;
+    }
+
+    // A kept-alive socket with its buffered streams, which must stay with it between requests
+    private static class Connection {
+        final Socket socket;
+        final InputStream in;
+        final OutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream(), 1 << 16);
+            this.out = new BufferedOutputStream(socket.getOutputStream(), 1 << 16);
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Nothing to do
+            }
+        }
+    }
+
+    private static SSLSocketFactory trustingSocketFactory() {
+        try {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, new TrustManager[] { new X509TrustManager() {
+                public void checkClientTrusted(X509Certificate[] chain, String authType) { }
+                public void checkServerTrusted(X509Certificate[] chain, String authType) { }
+                public X509Certificate[] getAcceptedIssuers() { return new X509Certificate[0]; }
+            } }, null);
+            return context.getSocketFactory();
+        } catch (Exception e) {
+            throw new IllegalStateException("TLS unavailable", e);
+        }
+    }
+
+    // ---- Montoya factories and messages ----
+
+    private static final Object UNHANDLED = new Object();
+
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    /**
+     * Backs the static Montoya factories with the fakes below. Safe to call more than once.
+     */
+    public static synchronized void installObjectFactory() {
+        if (ObjectFactoryLocator.FACTORY != null) {
+            return;
+        }
+        ObjectFactoryLocator.FACTORY = fake(MontoyaObjectFactory.class, (name, args) -> {
+            switch (name) {
+                case "httpService":
+                    if (args.length == 3) {
+                        return service((String) args[0], (Integer) args[1], (Boolean) args[2]);
+                    }
+                    return UNHANDLED;
+                case "httpRequest":
+                    if (args.length == 2 && args[1] instanceof ByteArray) {
+                        return new FakeMessage((HttpService) args[0], ((ByteArray) args[1]).getBytes()).asRequest();
+                    }
+                    if (args.length == 2 && args[1] instanceof String) {
+                        return new FakeMessage((HttpService) args[0],
+                            ((String) args[1]).getBytes(StandardCharsets.UTF_8)).asRequest();
+                    }
+                    return UNHANDLED;
+                case "httpRequestResponse":
+                    return requestResponse((HttpRequest) args[0], (HttpResponse) args[1]);
+                case "byteArray":
+                    if (args[0] instanceof byte[]) {
+                        return bytes((byte[]) args[0]);
+                    }
+                    if (args[0] instanceof String) {
+                        return bytes(((String) args[0]).getBytes(StandardCharsets.UTF_8));
+                    }
+                    return UNHANDLED;
+                case "annotations":
+                    return annotations();
+                default:
+                    return UNHANDLED;
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            Object[] arguments = args == null ? new Object[0] : args;
+            switch (method.getName()) {
+                case "hashCode":
+                    if (arguments.length == 0) {
+                        return System.identityHashCode(proxy);
+                    }
+                    break;
+                case "equals":
+                    if (arguments.length == 1) {
+                        return proxy == arguments[0];
+                    }
+                    break;
+                default:
+                    break;
+            }
+            Object result = handler.invoke(method.getName(), arguments);
+            if (result == UNHANDLED) {
+                if ("toString".equals(method.getName())) {
+                    return "Fake" + type.getSimpleName();
+                }
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() +
+                    "() is not faked");
+            }
+            return result;
+        });
+    }
+
+    private static HttpService service(String host, int port, boolean secure) {
+        return fake(HttpService.class, (name, args) -> {
+            switch (name) {
+                case "host":
+                    return host;
+                case "port":
+                    return port;
+                case "secure":
+                    return secure;
+                case "toString":
+                    return (secure ? "https://" : "http://") + host + ":" + port;
+                default:
+                    return UNHANDLED;
+            }
+        });
+    }
+
+    private static HttpRequestResponse requestResponse(HttpRequest request, HttpResponse response) {
+        Annotations annotations = annotations();
+        return fake(HttpRequestResponse.class, (name, args) -> {
+            switch (name) {
+                case "request":
+                    return request;
+                case "response":
+                    return response;
+                case "hasResponse":
+                    return response != null;
+                case "annotations":
+                    return annotations;
+                case "httpService":
+                    return request.httpService();
+                default:
+                    return UNHANDLED;
+            }
+        });
+    }
+
+    private static Annotations annotations() {
+        return fake(Annotations.class, (name, args) -> UNHANDLED);
+    }
+
+    static ByteArray bytes(byte[] data) {
+        return fake(ByteArray.class, (name, args) -> {
+            switch (name) {
+                case "getBytes":
+                    return data.clone();
+                case "length":
+                    return data.length;
+                case "getByte":
+                    return data[(Integer) args[0]];
+                case "subArray":
+                    return args.length == 2 ? bytes(Arrays.copyOfRange(data, (Integer) args[0], (Integer) args[1])) :
+                        UNHANDLED;
+                case "withAppended":
+                    byte[] extra = args[0] instanceof String ? ((String) args[0]).getBytes(StandardCharsets.UTF_8) :
+                        args[0] instanceof byte[] ? (byte[]) args[0] :
+                        args[0] instanceof ByteArray ? ((ByteArray) args[0]).getBytes() : null;
+                    if (extra == null) {
+                        return UNHANDLED;
+                    }
+                    byte[] joined = Arrays.copyOf(data, data.length + extra.length);
+                    System.arraycopy(extra, 0, joined, data.length, extra.length);
+                    return bytes(joined);
+                case "toString":
+                    return new String(data, StandardCharsets.ISO_8859_1);
+                default:
+                    return UNHANDLED;
+            }
+        });
+    }
+
+    /**
+     * A raw HTTP message: start line, headers, blank line, body. Backs both requests and responses.
+     */
+    private static class FakeMessage {
+        final HttpService service; // Requests only
+        final byte[] raw;
+        final int bodyOffset;
+
+        FakeMessage(HttpService service, byte[] raw) {
+            this.service = service;
+            this.raw = raw;
+            this.bodyOffset = bodyOffset(raw);
+        }
+
+        String startLine() {
+            String head = new String(raw, 0, bodyOffset, StandardCharsets.ISO_8859_1);
+            int end = head.indexOf("\r\n");
+            return end < 0 ? head.trim() : head.substring(0, end);
+        }
+
+        String headerValue(String name) {
+            String head = new String(raw, 0, bodyOffset, StandardCharsets.ISO_8859_1);
+            String prefix = name.toLowerCase(Locale.ROOT) + ":";
+            for (String line : head.split("\r\n")) {
+                if (line.toLowerCase(Locale.ROOT).startsWith(prefix)) {
+                    return line.substring(prefix.length()).trim();
+                }
+            }
+            return null;
+        }
+
+        byte[] body() {
+            return Arrays.copyOfRange(raw, bodyOffset, raw.length);
+        }
+
+        // Same headers with a new body; the Content-Length is updated unless the message had none
+        FakeMessage withBody(byte[] body, boolean updateLength) {
+            String head = new String(raw, 0, bodyOffset, StandardCharsets.ISO_8859_1);
+            if (updateLength) {
+                StringBuilder rebuilt = new StringBuilder();
+                for (String line : head.split("\r\n")) {
+                    if (!line.isEmpty() && !line.toLowerCase(Locale.ROOT).startsWith("content-length:")) {
+                        rebuilt.append(line).append("\r\n");
+                    }
+                }
+                head = rebuilt.append("Content-Length: ").append(body.length).append("\r\n\r\n").toString();
+            }
+            return new FakeMessage(service, concat(head.getBytes(StandardCharsets.ISO_8859_1), body));
+        }
+
+        FakeMessage withAddedHeader(String name, String value) {
+            String head = new String(raw, 0, bodyOffset, StandardCharsets.ISO_8859_1);
+            String trimmed = head.substring(0, head.length() - 2);
+            return new FakeMessage(service, concat((trimmed + name + ": " + value + "\r\n\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1), body()));
+        }
+
+        HttpRequest asRequest() {
+            return fake(HttpRequest.class, (name, args) -> {
+                switch (name) {
+                    case "httpService":
+                        return service;
+                    case "toByteArray":
+                        return bytes(raw);
+                    case "body":
+                        return bytes(body());
+                    case "bodyToString":
+                        return new String(body(), StandardCharsets.UTF_8);
+                    case "method":
+                        return startLine().split(" ")[0];
+                    case "path":
+                        return startLine().split(" ")[1];
+                    case "url":
+                        return service + startLine().split(" ")[1];
+                    case "headerValue":
+                        return headerValue((String) args[0]);
+                    case "withBody":
+                        byte[] body = args[0] instanceof String ? ((String) args[0]).getBytes(StandardCharsets.UTF_8) :
+                            ((ByteArray) args[0]).getBytes();
+                        return withBody(body, true).asRequest();
+                    case "toString":
+                        return new String(raw, StandardCharsets.ISO_8859_1);
+                    default:
+                        return UNHANDLED;
+                }
+            });
+        }
+
+        HttpResponse asResponse() {
+            return fake(HttpResponse.class, (name, args) -> {
+                switch (name) {
+                    case "statusCode":
+                        String[] parts = startLine().split(" ");
+                        return (short) Integer.parseInt(parts[1]);
+                    case "toByteArray":
+                        return bytes(raw);
+                    case "body":
+                        return bytes(body());
+                    case "bodyToString":
+                        return new String(body(), StandardCharsets.UTF_8);
+                    case "headerValue":
+                        return headerValue((String) args[0]);
+                    case "withBody":
+                        byte[] body = args[0] instanceof String ? ((String) args[0]).getBytes(StandardCharsets.UTF_8) :
+                            ((ByteArray) args[0]).getBytes();
+                        return withBody(body, true).asResponse();
+                    case "withAddedHeader":
+                        return args.length == 2 ?
+                            withAddedHeader((String) args[0], (String) args[1]).asResponse() : UNHANDLED;
+                    case "toString":
+                        return new String(raw, StandardCharsets.ISO_8859_1);
+                    default:
+                        return UNHANDLED;
+                }
+            });
+        }
+
+        private static int bodyOffset(byte[] raw) {
+            for (int i = 0; i + 3 < raw.length; i++) {
+                if (raw[i] == '\r' && raw[i + 1] == '\n' && raw[i + 2] == '\r' && raw[i + 3] == '\n') {
+                    return i + 4;
+                }
+            }
+            return raw.length;
+        }
+
+        private static byte[] concat(byte[] a, byte[] b) {
+            byte[] joined = Arrays.copyOf(a, a.length + b.length);
+            System.arraycopy(b, 0, joined, a.length, b.length);
+            return joined;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package burp.test;
+
+import burp.parser.VariableResolver;
+import burp.utils.GraphQLDocument;
+
+/**
+ * Simple test to verify GraphQL minification keeps the document intact
+ */
+public class GraphQLDocumentTest {
+
+    public static void main(String[] args) {
+        System.out.println("Testing GraphQLDocument class...");
+
+        String query = "# Fetch a user\n" +
+                       "query GetUser($id: ID!, $first: Int = 10) {\n" +
+                       "  user(id: $id, note: \"two  spaces, kept\") {\n" +
+                       "    ...UserFields\n" +
+                       "    posts(first: {{posts_limit}}, ratio: -1.5e-3) { id }\n" +
+                       "  }\n" +
+                       "}";
+
+        GraphQLDocument document = GraphQLDocument.compile(query);
+        assert document.hasVariables();
+
+        // Unresolved render keeps the Postman placeholder
+        String expected = "query GetUser($id:ID!$first:Int=10){user(id:$id note:\"two  spaces, kept\")" +
+                          "{...UserFields posts(first:{{posts_limit}} ratio:-1.5e-3){id}}}";
+        String minified = document.render(null);
+        assert minified.equals(expected) : minified;
+
+        // Resolved render substitutes the variable token only
+        VariableResolver resolver = new VariableResolver();
+        resolver.addCustomVariable("posts_limit", "5");
+        String resolved = document.render(resolver);
+        assert resolved.equals(expected.replace("{{posts_limit}}", "5")) : resolved;
+
+        // Documents without variables are rendered once and reused
+        GraphQLDocument plain = GraphQLDocument.compile("{\n  viewer { login }\n}");
+        assert !plain.hasVariables();
+        assert plain.render(resolver).equals("{viewer{login}}");
+
+        // Well-known APQ hash of "{__typename}"
+        assert GraphQLDocument.sha256Hex("{__typename}")
+            .equals("ecf4edb46db40b5132295c0291d62fb65d6759a9eedfa4d5d612dd5ec54a6b38");
+
+        System.out.println("✓ All tests passed!");
+    }
+}
@@ -0,0 +1,146 @@
+package burp.test;
+
+import burp.cli.HeadlessImporter;
+import burp.utils.RequestArchive;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Simple test to verify HeadlessImporter renders a collection to files and to an HTTP endpoint without Burp
+ */
+public class HeadlessImporterTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing HeadlessImporter class...");
+
+        String json = "{\"info\": {\"name\": \"Headless\"}, \"item\": [" +
+            "{\"name\": \"List users\", \"request\": {\"method\": \"GET\", \"url\": \"{{base}}/users?page=1\"}}," +
+            "{\"name\": \"Create\", \"request\": {\"method\": \"POST\", \"url\": \"{{base}}/users\"," +
+            "  \"header\": [{\"key\": \"Content-Type\", \"value\": \"application/json\"}]," +
+            "  \"body\": {\"mode\": \"raw\", \"raw\": \"{\\\"name\\\": \\\"{{user}}\\\"}\"}}}]," +
+            "\"variable\": [{\"key\": \"base\", \"value\": \"https://api.example.com\"}," +
+            "  {\"key\": \"user\", \"value\": \"alice\"}]}";
+        File collection = File.createTempFile("headless-importer", ".json");
+        collection.deleteOnExit();
+        Files.write(collection.toPath(), json.getBytes(StandardCharsets.UTF_8));
+        File outDir = Files.createTempDirectory("headless-importer").toFile();
+
+        // One numbered file per request, with --var overriding the collection variable
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exit = HeadlessImporter.run(new String[] {collection.getPath(), "--out", outDir.getPath(),
+            "--var", "user=bob"}, new PrintStream(out, true), new PrintStream(err, true));
+        assert exit == 0 : err;
+        String[] files = outDir.list();
+        Arrays.sort(files);
+        assert Arrays.equals(files, new String[] {"00001-List_users.http", "00002-Create.http"}) : Arrays.toString(files);
+
+        String first = new String(Files.readAllBytes(new File(outDir, files[0]).toPath()), StandardCharsets.UTF_8);
+        assert first.startsWith("GET /users?page=1 HTTP/1.1\r\n") : first;
+        assert first.contains("Host: api.example.com\r\n") : first;
+        String second = new String(Files.readAllBytes(new File(outDir, files[1]).toPath()), StandardCharsets.UTF_8);
+        assert second.startsWith("POST /users HTTP/1.1\r\n") : second;
+        assert second.endsWith("{\"name\": \"bob\"}") : second;
+        assert out.toString("UTF-8").contains("Rendered 2 requests (0 failed)") : out;
+
+        // --post delivers each raw request with its real target in headers
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        server.createContext("/collect", exchange -> {
+            byte[] body = readAll(exchange.getRequestBody());
+            received.add(exchange.getRequestHeaders().getFirst("X-Target-Host") + " " +
+                new String(body, StandardCharsets.UTF_8).split("\r\n")[0]);
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/collect";
+            int postExit = HeadlessImporter.run(new String[] {collection.getPath(), "--post", url},
+                new PrintStream(new ByteArrayOutputStream()), new PrintStream(new ByteArrayOutputStream()));
+            assert postExit == 0 : postExit;
+        } finally {
+            server.stop(0);
+        }
+        Collections.sort(received);
+        assert received.equals(Arrays.asList("api.example.com:443 GET /users?page=1 HTTP/1.1",
+            "api.example.com:443 POST /users HTTP/1.1")) : received;
+
+        // --export writes one archive that reads back without the collection
+        File export = File.createTempFile("headless-importer", ".pmra");
+        export.deleteOnExit();
+        int exportExit = HeadlessImporter.run(new String[] {collection.getPath(), "--export", export.getPath()},
+            new PrintStream(new ByteArrayOutputStream()), new PrintStream(new ByteArrayOutputStream()));
+        assert exportExit == 0 : exportExit;
+        RequestArchive archive = RequestArchive.open(export);
+        assert archive.size() == 2;
+        assert archive.get(1).path.equals("Create");
+        assert archive.get(1).hostInfo.useHttps && archive.get(1).hostInfo.port == 443;
+        assert new String(archive.getRequest(1), StandardCharsets.UTF_8).endsWith("{\"name\": \"alice\"}");
+        archive.close();
+
+        // A request that cannot be built keeps its index in the archive as a failed placeholder
+        String brokenJson = "{\"info\": {\"name\": \"Broken\"}, \"item\": [" +
+            "{\"name\": \"First\", \"request\": {\"method\": \"GET\", \"url\": \"https://api.example.com/first\"}}," +
+            "{\"name\": \"No URL\", \"request\": {\"method\": \"GET\"}}," +
+            "{\"name\": \"Third\", \"request\": {\"method\": \"GET\", \"url\": \"https://api.example.com/third\"}}]}";
+        File broken = File.createTempFile("headless-importer-broken", ".json");
+        broken.deleteOnExit();
+        Files.write(broken.toPath(), brokenJson.getBytes(StandardCharsets.UTF_8));
+        File brokenExport = File.createTempFile("headless-importer-broken", ".pmra");
+        brokenExport.deleteOnExit();
+        int brokenExit = HeadlessImporter.run(new String[] {broken.getPath(), "--export", brokenExport.getPath()},
+            new PrintStream(new ByteArrayOutputStream()), new PrintStream(new ByteArrayOutputStream()));
+        assert brokenExit == 1 : brokenExit;
+        RequestArchive brokenArchive = RequestArchive.open(brokenExport);
+        assert brokenArchive.size() == 3 : brokenArchive.size();
+        assert !brokenArchive.get(0).isFailed();
+        assert brokenArchive.get(1).isFailed() && brokenArchive.get(1).path.equals("No URL");
+        assert brokenArchive.get(2).path.equals("Third");
+        assert new String(brokenArchive.getRequest(2), StandardCharsets.UTF_8).startsWith("GET /third HTTP/1.1\r\n");
+        brokenArchive.close();
+
+        // Render-only run succeeds without writing anything
+        int renderExit = HeadlessImporter.run(new String[] {collection.getPath()},
+            new PrintStream(new ByteArrayOutputStream()), new PrintStream(new ByteArrayOutputStream()));
+        assert renderExit == 0 : renderExit;
+
+        // Bad arguments give the usage exit code
+        err.reset();
+        int badThreadsExit = HeadlessImporter.run(new String[] {collection.getPath(), "--threads", "0"},
+            new PrintStream(new ByteArrayOutputStream()), new PrintStream(err, true));
+        assert badThreadsExit == 2 : badThreadsExit;
+        assert err.toString("UTF-8").contains("Usage:");
+        int noArgsExit = HeadlessImporter.run(new String[0],
+            new PrintStream(new ByteArrayOutputStream()), new PrintStream(new ByteArrayOutputStream()));
+        assert noArgsExit == 2 : noArgsExit;
+
+        for (File f : outDir.listFiles()) {
+            f.delete();
+        }
+        outDir.delete();
+
+        System.out.println("✓ All tests passed!");
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            buffer.write(chunk, 0, read);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,67 @@
+package burp.test;
+
+import burp.utils.HostPreflight;
+import burp.utils.HostProbe;
+import burp.utils.HttpUtils;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simple test to verify HostPreflight probes each host once, when first seen, in the background,
+ * and only skips hosts Burp could not reach either
+ */
+public class HostPreflightTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing HostPreflight class...");
+
+        try (ServerSocket open = new ServerSocket(0)) {
+            int closedPort;
+            try (ServerSocket closed = new ServerSocket(0)) {
+                closedPort = closed.getLocalPort();
+            }
+
+            AtomicInteger reported = new AtomicInteger();
+            HostPreflight preflight = new HostPreflight(new HostProbe(1000), result -> reported.incrementAndGet());
+            try {
+                // Nothing is probed until a host is seen, and a host seen again is not probed again
+                assert preflight.size() == 0;
+                HostProbe.Result unseen = preflight.await("127.0.0.1:" + open.getLocalPort());
+                assert unseen == null : unseen;
+                HttpUtils.HostInfo up = new HttpUtils.HostInfo("127.0.0.1", open.getLocalPort(), false);
+                preflight.seen(up);
+                preflight.seen(up);
+                preflight.seen(new HttpUtils.HostInfo("127.0.0.1", closedPort, false));
+                assert preflight.size() == 2;
+
+                HostProbe.Result reachable = preflight.await("127.0.0.1:" + open.getLocalPort());
+                assert reachable != null && reachable.reachable : reachable;
+                HostProbe.Result refused = preflight.await("127.0.0.1:" + closedPort);
+                assert refused != null && !refused.reachable : refused;
+
+                List<HostProbe.Result> unreachable = preflight.unreachable();
+                assert unreachable.size() == 1 && unreachable.get(0).port == closedPort : unreachable;
+                assert reported.get() == 2 : reported.get();
+
+                // A failed probe alone never skips a host, since probes bypass Burp's upstream proxy
+                String down = "127.0.0.1:" + closedPort;
+                assert preflight.skipReason(down) == null;
+                preflight.recordSend(down, false);
+                HostProbe.Result skip = preflight.skipReason(down);
+                assert skip != null && skip.port == closedPort : skip;
+                // Hosts the probe reached are never skipped, nor are hosts Burp reached once
+                String upKey = "127.0.0.1:" + open.getLocalPort();
+                preflight.recordSend(upKey, false);
+                assert preflight.skipReason(upKey) == null;
+                preflight.recordSend(down, true);
+                preflight.recordSend(down, false);
+                assert preflight.skipReason(down) == null;
+            } finally {
+                preflight.close();
+            }
+        }
+
+        System.out.println("✓ All tests passed!");
+    }
+}
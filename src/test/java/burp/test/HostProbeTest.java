@@ -0,0 +1,53 @@
+package burp.test;
+
+import burp.models.FailureClass;
+import burp.utils.HostProbe;
+import burp.utils.HttpUtils;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Simple test to verify HostProbe tells reachable, refused and unresolvable hosts apart
+ */
+public class HostProbeTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing HostProbe class...");
+
+        try (ServerSocket open = new ServerSocket(0)) {
+            int closedPort;
+            try (ServerSocket closed = new ServerSocket(0)) {
+                closedPort = closed.getLocalPort();
+            }
+
+            HostProbe probe = new HostProbe(1000);
+            Map<String, HostProbe.Result> results = probe.probeAll(Arrays.asList(
+                new HttpUtils.HostInfo("127.0.0.1", open.getLocalPort(), false),
+                new HttpUtils.HostInfo("127.0.0.1", closedPort, false),
+                new HttpUtils.HostInfo("no-such-host.invalid", 443, true)));
+
+            assert results.size() == 3;
+            HostProbe.Result up = results.get("127.0.0.1:" + open.getLocalPort());
+            HostProbe.Result refused = results.get("127.0.0.1:" + closedPort);
+            HostProbe.Result unresolved = results.get("no-such-host.invalid:443");
+            assert up.reachable : up;
+            assert !refused.reachable && refused.failure == FailureClass.CONNECT : refused;
+            assert !unresolved.reachable && unresolved.failure == FailureClass.DNS : unresolved;
+
+            // Results are cached, so a second check costs nothing
+            Map<String, HostProbe.Result> again = probe.probeAll(Arrays.asList(
+                new HttpUtils.HostInfo("127.0.0.1", open.getLocalPort(), false)));
+            assert again.get("127.0.0.1:" + open.getLocalPort()) == up;
+
+            // A single host is probed on the calling thread and shares the cache
+            HostProbe.Result single = probe.probe(new HttpUtils.HostInfo("127.0.0.1", open.getLocalPort(), false));
+            assert single == up : single;
+            HostProbe fresh = new HostProbe(1000);
+            HostProbe.Result singleRefused = fresh.probe(new HttpUtils.HostInfo("127.0.0.1", closedPort, false));
+            assert !singleRefused.reachable && singleRefused.failure == FailureClass.CONNECT : singleRefused;
+        }
+
+        System.out.println("✓ All tests passed!");
+    }
+}
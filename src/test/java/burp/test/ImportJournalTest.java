@@ -0,0 +1,78 @@
+package burp.test;
+
+import burp.models.FailureClass;
+import burp.utils.ImportJournal;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Simple test to verify ImportJournal survives an interrupted import and resumes from it
+ */
+public class ImportJournalTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing ImportJournal class...");
+
+        File dir = Files.createTempDirectory("import-journal").toFile();
+        File collection = new File(dir, "collection.json");
+        Files.write(collection.toPath(), "{\"item\": []}".getBytes(StandardCharsets.UTF_8));
+
+        // Same files and settings give the same key; a different destination does not
+        String key = ImportJournal.fingerprint(new File[] {collection, null}, "sitemap", "");
+        assert key.equals(ImportJournal.fingerprint(new File[] {collection, null}, "sitemap", ""));
+        assert !key.equals(ImportJournal.fingerprint(new File[] {collection, null}, "repeater", ""));
+        // Manual variable overrides are not in the files, so they go in as extras
+        assert !ImportJournal.fingerprint(new File[] {collection, null}, "sitemap", "", "host=a\n")
+            .equals(ImportJournal.fingerprint(new File[] {collection, null}, "sitemap", "", "host=b\n"));
+        assert !ImportJournal.exists(dir, key);
+
+        // First run records some outcomes and dies without finishing
+        ImportJournal first = ImportJournal.open(dir, key, true);
+        assert first.resumedCount() == 0;
+        for (int i = 0; i < 300; i++) {
+            first.recordSuccess(i);
+        }
+        first.recordFailure(300, FailureClass.DNS);
+        first.recordFailure(301, FailureClass.TIMEOUT);
+        first.close(false);
+        assert ImportJournal.exists(dir, key);
+
+        // A crash mid-write leaves a torn record behind
+        File file = new File(dir, key + ".journal");
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write("S 30".getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Resume picks up every complete record and ignores the torn one
+        ImportJournal second = ImportJournal.open(dir, key, true);
+        assert second.resumedCount() == 302 : second.resumedCount();
+        assert second.resumedFailureCount() == 2;
+        assert second.succeededBefore(0) && second.succeededBefore(299);
+        assert !second.succeededBefore(302);
+        assert second.failedBefore(300) == FailureClass.DNS;
+        assert second.failedBefore(5) == null;
+
+        // New records after resume land on their own lines
+        second.recordSuccess(301);
+        second.recordSuccess(302);
+        second.close(false);
+        ImportJournal third = ImportJournal.open(dir, key, true);
+        assert third.succeededBefore(301) && third.failedBefore(301) == null;
+        assert third.succeededBefore(302);
+        assert third.resumedCount() == 303 : third.resumedCount();
+
+        // A finished import removes its journal; starting without resume ignores old outcomes
+        third.close(true);
+        assert !file.exists() && !ImportJournal.exists(dir, key);
+        ImportJournal fresh = ImportJournal.open(dir, key, false);
+        assert fresh.resumedCount() == 0;
+        fresh.close(true);
+
+        collection.delete();
+        dir.delete();
+
+        System.out.println("✓ All tests passed!");
+    }
+}
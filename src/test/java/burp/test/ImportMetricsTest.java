@@ -0,0 +1,103 @@
+package burp.test;
+
+import burp.utils.ImportMetrics;
+import burp.utils.LatencyHistogram;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simple test to verify LatencyHistogram percentiles and the per-stage and per-host ImportMetrics
+ */
+public class ImportMetricsTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing ImportMetrics class...");
+
+        // Empty histograms report zeros
+        LatencyHistogram empty = new LatencyHistogram();
+        assert empty.getCount() == 0;
+        assert empty.percentile(99) == 0;
+        assert empty.getMeanNanos() == 0;
+
+        // 1..1000 ms: percentiles land within the bucket error of the exact values
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 1000; ms++) {
+            histogram.record(ms * 1000000L);
+        }
+        assert histogram.getCount() == 1000;
+        assert histogram.getMaxNanos() == 1000000000L;
+        assertNear(histogram.percentile(50), 500000000L);
+        assertNear(histogram.percentile(95), 950000000L);
+        assertNear(histogram.percentile(99), 990000000L);
+        assert histogram.percentile(100) == 1000000000L;
+        assert histogram.getMeanNanos() == 500500000L;
+
+        // Sub-microsecond, negative and huge values don't break the buckets
+        LatencyHistogram edges = new LatencyHistogram();
+        edges.record(-5);
+        edges.record(300);
+        edges.record(Long.MAX_VALUE / 2);
+        assert edges.getCount() == 3;
+        assert edges.percentile(50) <= 1000 : edges.percentile(50);
+        assert edges.percentile(100) == Long.MAX_VALUE / 2;
+
+        // Concurrent recording loses nothing
+        LatencyHistogram shared = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    shared.record(i * 1000L);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assert shared.getCount() == 40000;
+        assert shared.percentile(100) == 9999000L;
+
+        // Stages and sitemap hosts are timed separately, slowest host first
+        ImportMetrics metrics = new ImportMetrics();
+        metrics.record(ImportMetrics.Stage.BUILD, 2000000L);
+        for (int i = 0; i < 20; i++) {
+            metrics.recordSitemap("fast.example.com:443", 10000000L);
+            metrics.recordSitemap("slow.example.com:443", 400000000L);
+            metrics.requestCompleted();
+        }
+        assert metrics.getStage(ImportMetrics.Stage.BUILD).getCount() == 1;
+        assert metrics.getStage(ImportMetrics.Stage.SITEMAP).getCount() == 40;
+        assert metrics.getStage(ImportMetrics.Stage.PARSE).getCount() == 0;
+        List<Map.Entry<String, LatencyHistogram>> hosts = metrics.getSitemapHosts();
+        assert hosts.size() == 2;
+        assert hosts.get(0).getKey().equals("slow.example.com:443");
+        assert metrics.getThroughput() > 0;
+        assert metrics.liveStatus().startsWith("20 done") : metrics.liveStatus();
+
+        metrics.finish();
+        assert metrics.isFinished();
+        long elapsed = metrics.getElapsedNanos();
+        Thread.sleep(5);
+        assert metrics.getElapsedNanos() == elapsed;
+        String report = metrics.report();
+        assert report.contains("Build") && report.contains("Sitemap round trip") : report;
+        assert !report.contains("Parse") : report;
+        assert report.indexOf("slow.example.com") < report.indexOf("fast.example.com") : report;
+
+        // Hosts past the cap share one histogram
+        ImportMetrics manyHosts = new ImportMetrics();
+        for (int i = 0; i < ImportMetrics.MAX_HOSTS + 50; i++) {
+            manyHosts.recordSitemap("host" + i + ":80", 1000000L);
+        }
+        assert manyHosts.getSitemapHosts().size() == ImportMetrics.MAX_HOSTS + 1;
+        assert manyHosts.getStage(ImportMetrics.Stage.SITEMAP).getCount() == ImportMetrics.MAX_HOSTS + 50;
+
+        System.out.println("✓ All tests passed!");
+    }
+
+    // Within the 1/16 bucket width of the expected value
+    private static void assertNear(long actual, long expected) {
+        assert Math.abs(actual - expected) <= expected / 16 : actual + " vs " + expected;
+    }
+}
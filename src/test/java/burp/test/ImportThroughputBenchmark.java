@@ -0,0 +1,162 @@
+package burp.test;
+
+import burp.ImportEngine;
+import burp.models.ImportResult;
+import burp.models.ImportSettings;
+import burp.parser.VariableResolver;
+import burp.utils.ImportMetrics;
+import burp.utils.LatencyHistogram;
+import burp.utils.Log;
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs a whole sitemap import end to end: a synthetic collection is parsed, resolved, built and
+ * sent through ImportEngine.runImport to a local stub server, with fakes in place of Burp's
+ * HTTP client, sitemap and Repeater. Reports requests per second, sitemap latency percentiles
+ * and the heap high-water mark.
+ * Run with: java -cp target/classes:target/test-classes:gson.jar:montoya-api.jar
+ *           burp.test.ImportThroughputBenchmark [requests] [latencyMs] [errorRate] [429Rate] [https] [concurrency]
+ */
+public class ImportThroughputBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int latencyMs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        double errorRate = args.length > 2 ? Double.parseDouble(args[2]) : 0.01;
+        double tooManyRequestsRate = args.length > 3 ? Double.parseDouble(args[3]) : 0;
+        boolean https = args.length > 4 && Boolean.parseBoolean(args[4]);
+        int concurrency = args.length > 5 ? Integer.parseInt(args[5]) : 16;
+
+        StubHttpServer server = new StubHttpServer();
+        server.latencyMs = latencyMs;
+        server.jitterMs = latencyMs / 2;
+        server.errorRate = errorRate;
+        server.tooManyRequestsRate = tooManyRequestsRate;
+        server.https = https;
+        server.start();
+
+        System.out.println("Import benchmark: " + requests + " requests to " + server.url() + ", " +
+                           latencyMs + "ms latency, " + errorRate + " errors, " + tooManyRequestsRate +
+                           " 429s, concurrency " + concurrency);
+        Run run = run(server, requests, "sitemap", concurrency, 0);
+        server.stop();
+
+        ImportMetrics metrics = run.metrics;
+        System.out.printf("  %d sent, %d in sitemap, %d failed in %.1f s: %.0f req/s%n",
+            run.result.totalRequests, run.burp.sitemapEntries.get(), run.result.getFailureCount(),
+            metrics.getElapsedNanos() / 1e9, metrics.getThroughput());
+        for (Map.Entry<String, LatencyHistogram> host : metrics.getSitemapHosts()) {
+            LatencyHistogram latency = host.getValue();
+            System.out.printf("  %-28s p50 %6.1f ms  p95 %6.1f ms  p99 %6.1f ms  max %6.1f ms%n", host.getKey(),
+                latency.percentile(50) / 1e6, latency.percentile(95) / 1e6, latency.percentile(99) / 1e6,
+                latency.getMaxNanos() / 1e6);
+        }
+        System.out.printf("  Heap high-water mark: %.1f MB%n", run.peakHeapBytes / 1048576.0);
+        System.out.println("  Server: " + server.received.get() + " received, " + server.errors.get() +
+                           " errors, " + server.tooManyRequests.get() + " 429s");
+        System.out.println();
+        System.out.println(metrics.report());
+    }
+
+    /**
+     * Outcome of one end-to-end import.
+     */
+    public static class Run {
+        public ImportResult result;
+        public ImportMetrics metrics;
+        public FakeBurp burp;
+        public long peakHeapBytes;
+    }
+
+    /**
+     * Imports a synthetic collection of the given size to the fake sitemap or Repeater, spreading
+     * it over two host names for the same server. maxRetries 0 keeps failures from being retried.
+     */
+    public static Run run(StubHttpServer server, int requests, String destination, int concurrency,
+                          int maxRetries) throws Exception {
+        return run(server, requests, destination, concurrency, maxRetries, settings -> { });
+    }
+
+    /**
+     * Like run, with further settings applied on top of the benchmark's own.
+     */
+    public static Run run(StubHttpServer server, int requests, String destination, int concurrency,
+                          int maxRetries, Consumer<ImportSettings> tweak) throws Exception {
+        SyntheticCollectionGenerator generator = new SyntheticCollectionGenerator();
+        generator.requests = requests;
+        generator.baseUrls = new String[] { server.url("127.0.0.1"), server.url("localhost") };
+        File collection = generator.writeTemp();
+        File environment = File.createTempFile("synthetic-environment", ".json");
+        environment.deleteOnExit();
+        generator.writeEnvironment(environment);
+
+        ImportSettings settings = new ImportSettings();
+        settings.perHostRequestsPerSecond = 0;
+        settings.concurrency = concurrency;
+        settings.perHostConcurrency = concurrency;
+        settings.adaptiveConcurrency = false;
+        settings.maxRetries = maxRetries;
+        settings.circuitBreakerThreshold = 0;
+        settings.resume = false;
+        tweak.accept(settings);
+
+        PrintStream quiet = new PrintStream(new OutputStream() {
+            public void write(int b) { }
+        });
+        Run run = new Run();
+        run.burp = new FakeBurp(quiet, System.err);
+        ImportEngine engine = new ImportEngine(run.burp.api(), new Log(run.burp.api().logging()),
+            new VariableResolver());
+
+        HeapSampler sampler = new HeapSampler();
+        sampler.start();
+        try {
+            run.result = engine.runImport(collection, environment, destination, settings,
+                new ImportEngine.ImportListener() {
+                    public boolean cancelled() { return false; }
+                    public void log(String message) { }
+                    public void progress(int percent) { }
+                });
+        } finally {
+            sampler.interrupt();
+            sampler.join();
+            run.burp.close();
+            collection.delete();
+            environment.delete();
+        }
+        run.metrics = engine.getImportMetrics();
+        run.peakHeapBytes = sampler.peak.get();
+        return run;
+    }
+
+    // Polls heap usage, since the JVM keeps no high-water mark for the heap as a whole
+    private static class HeapSampler extends Thread {
+        final AtomicLong peak = new AtomicLong();
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        HeapSampler() {
+            super("heap-sampler");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!isInterrupted()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+        }
+    }
+}
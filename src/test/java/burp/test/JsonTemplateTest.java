@@ -0,0 +1,56 @@
+package burp.test;
+
+import burp.parser.VariableResolver;
+import burp.utils.JsonTemplate;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Simple test to verify JsonTemplate escapes variables inside JSON strings and nowhere else
+ */
+public class JsonTemplateTest {
+
+    public static void main(String[] args) {
+        System.out.println("Testing JsonTemplate class...");
+
+        VariableResolver resolver = new VariableResolver();
+        String tricky = "say \"hi\"\\path\nnext\ttab\u0001end";
+        resolver.addCustomVariable("tricky", tricky);
+        resolver.addCustomVariable("userId", "42");
+
+        // Inside a string the value is JSON-escaped, so the document stays valid and reads back intact
+        String rendered = JsonTemplate.compile("{\"note\": \"{{tricky}}\"}").render(resolver);
+        assert rendered.equals("{\"note\": \"say \\\"hi\\\"\\\\path\\nnext\\ttab\\u0001end\"}") : rendered;
+        JsonObject parsed = JsonParser.parseString(rendered).getAsJsonObject();
+        assert parsed.get("note").getAsString().equals(tricky) : parsed;
+
+        // Outside a string the value goes in verbatim, like Postman
+        rendered = JsonTemplate.compile("{\"id\": {{userId}}, \"ids\": [{{userId}}]}").render(resolver);
+        assert rendered.equals("{\"id\": 42, \"ids\": [42]}") : rendered;
+
+        // Escaped quotes and backslashes just before a variable do not end the string
+        rendered = JsonTemplate.compile("{\"a\": \"x\\\"{{userId}}\", \"b\": \"y\\\\{{tricky}}\"}").render(resolver);
+        parsed = JsonParser.parseString(rendered).getAsJsonObject();
+        assert parsed.get("a").getAsString().equals("x\"42") : rendered;
+        assert parsed.get("b").getAsString().equals("y\\" + tricky) : rendered;
+        // ...and a string that did end leaves the next variable bare
+        rendered = JsonTemplate.compile("{\"c\": \"z\\\\\", \"d\": {{userId}}}").render(resolver);
+        assert rendered.equals("{\"c\": \"z\\\\\", \"d\": 42}") : rendered;
+
+        // Unresolved variables are kept verbatim, in strings and out
+        rendered = JsonTemplate.compile("{\"token\": \"{{missing}}\", \"n\": {{other}}}").render(resolver);
+        assert rendered.equals("{\"token\": \"{{missing}}\", \"n\": {{other}}}") : rendered;
+
+        // The declared language wins; without one the body is sniffed
+        assert JsonTemplate.isJsonBody("anything", "json");
+        assert JsonTemplate.isJsonBody("anything", "JSON");
+        assert !JsonTemplate.isJsonBody("{\"a\": 1}", "text");
+        assert JsonTemplate.isJsonBody("  {\"a\": 1}", null);
+        assert JsonTemplate.isJsonBody("\n[1, 2]", null);
+        assert !JsonTemplate.isJsonBody("{{body}}", null);
+        assert !JsonTemplate.isJsonBody("a=1&b=2", null);
+        assert !JsonTemplate.isJsonBody("   ", null);
+
+        System.out.println("✓ All tests passed!");
+    }
+}
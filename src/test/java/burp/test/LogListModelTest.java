@@ -0,0 +1,71 @@
+package burp.test;
+
+import burp.ui.LogListModel;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+/**
+ * Simple test to verify LogListModel caps memory, batches updates and saves the full log
+ */
+public class LogListModelTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing LogListModel class...");
+
+        LogListModel model = new LogListModel(10);
+        AtomicInteger events = new AtomicInteger();
+        model.addListDataListener(new ListDataListener() {
+            public void intervalAdded(ListDataEvent e) { events.incrementAndGet(); }
+            public void intervalRemoved(ListDataEvent e) { events.incrementAndGet(); }
+            public void contentsChanged(ListDataEvent e) { events.incrementAndGet(); }
+        });
+
+        // Appends are queued until the next refresh
+        for (int i = 0; i < 5; i++) {
+            model.append("line " + i);
+        }
+        assert model.getSize() == 0;
+        model.flush();
+        assert model.getSize() == 5;
+        assert events.get() == 1 : events.get();
+
+        // Only the newest lines stay in memory; older ones are spilled
+        model.append("line 5\nline 6");
+        for (int i = 7; i < 25; i++) {
+            model.append("line " + i);
+        }
+        model.flush();
+        assert model.getSize() == 10 : model.getSize();
+        assert model.getElementAt(0).equals("line 15") : model.getElementAt(0);
+        assert model.getElementAt(9).equals("line 24");
+        assert model.getSpilledLineCount() == 15;
+
+        // Shrinking spills the oldest visible lines too
+        model.setCapacity(4);
+        assert model.getSize() == 4;
+        assert model.getElementAt(0).equals("line 21");
+
+        // Saving writes spilled, visible and still-queued lines in order
+        model.append("line 25");
+        File file = File.createTempFile("log-list-model", ".txt");
+        file.deleteOnExit();
+        model.writeTo(file);
+        List<String> saved = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assert saved.size() == 26 : saved.size();
+        for (int i = 0; i < saved.size(); i++) {
+            assert saved.get(i).equals("line " + i) : saved.get(i);
+        }
+
+        model.clear();
+        assert model.getSize() == 0;
+        assert model.getSpilledLineCount() == 0;
+        model.dispose();
+
+        System.out.println("✓ All tests passed!");
+    }
+}
@@ -0,0 +1,57 @@
+package burp.test;
+
+import burp.utils.PercentEncoder;
+import java.net.URLEncoder;
+import java.util.Random;
+
+/**
+ * Simple test to verify PercentEncoder against URLEncoder and RFC 3986 rules
+ */
+public class PercentEncoderTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing PercentEncoder class...");
+
+        // Form bodies must match URLEncoder byte for byte
+        Random random = new Random(42);
+        String alphabet = "aZ09 -._*~!@#$%^&()+=/?;:'\",<>[]{}|\\`é€中😀";
+        for (int i = 0; i < 10000; i++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(20);
+            for (int j = 0; j < length; j++) {
+                input.appendCodePoint(alphabet.codePointAt(
+                    alphabet.offsetByCodePoints(0, random.nextInt(alphabet.codePointCount(0, alphabet.length())))));
+            }
+            StringBuilder out = new StringBuilder();
+            PercentEncoder.appendFormComponent(out, input.toString());
+            String expected = URLEncoder.encode(input.toString(), "UTF-8");
+            assert out.toString().equals(expected) : input + " -> " + out + " expected " + expected;
+        }
+
+        // Query components use %20 for spaces and escape delimiters
+        assert encodeQuery("a b&c=d+e#f").equals("a%20b%26c%3Dd%2Be%23f");
+        assert encodeQuery("2024-01-01T10:00:00Z").equals("2024-01-01T10:00:00Z");
+        assert encodeQuery("already%20encoded").equals("already%20encoded");
+        assert encodeQuery("100%").equals("100%25");
+
+        // Path segments keep sub-delimiters but escape "/" and "?"
+        StringBuilder path = new StringBuilder("/");
+        PercentEncoder.appendPathSegment(path, "users:search@v1;x=1");
+        path.append('/');
+        PercentEncoder.appendPathSegment(path, "a/b?c d");
+        assert path.toString().equals("/users:search@v1;x=1/a%2Fb%3Fc%20d") : path;
+
+        // Multi-segment paths keep "/" as a separator
+        StringBuilder multi = new StringBuilder("/");
+        PercentEncoder.appendPath(multi, "api/v1/a b?");
+        assert multi.toString().equals("/api/v1/a%20b%3F") : multi;
+
+        System.out.println("✓ All tests passed!");
+    }
+
+    private static String encodeQuery(String value) {
+        StringBuilder out = new StringBuilder();
+        PercentEncoder.appendQueryComponent(out, value);
+        return out.toString();
+    }
+}
@@ -0,0 +1,66 @@
+package burp.test;
+
+import burp.utils.RateLimiter;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Simple test to verify RateLimiter rates, bursts and cancellation
+ */
+public class RateLimiterTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing RateLimiter class...");
+
+        // 50 req/s with bursts of 10: the first 10 are immediate, the next 25 take about half a second
+        RateLimiter limiter = new RateLimiter(0, 50, 10, 0, () -> false);
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            boolean acquired = limiter.acquire("api.example.com:443");
+            assert acquired;
+        }
+        long burstMs = (System.nanoTime() - start) / 1_000_000;
+        assert burstMs < 100 : "burst took " + burstMs + "ms";
+        for (int i = 0; i < 25; i++) {
+            boolean acquired = limiter.acquire("api.example.com:443");
+            assert acquired;
+        }
+        long totalMs = (System.nanoTime() - start) / 1_000_000;
+        assert totalMs >= 450 && totalMs < 1500 : "35 requests took " + totalMs + "ms";
+
+        // Other hosts have their own bucket
+        long otherStart = System.nanoTime();
+        boolean otherAcquired = limiter.acquire("other.example.com:443");
+        assert otherAcquired;
+        assert (System.nanoTime() - otherStart) / 1_000_000 < 50;
+
+        // A global limit applies across hosts
+        RateLimiter global = new RateLimiter(20, 0, 1, 0, () -> false);
+        start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            boolean acquired = global.acquire("host" + i + ":80");
+            assert acquired;
+        }
+        totalMs = (System.nanoTime() - start) / 1_000_000;
+        assert totalMs >= 180 : "global limit not applied, took " + totalMs + "ms";
+
+        // Cancelling stops a long wait straight away
+        AtomicBoolean cancelled = new AtomicBoolean();
+        RateLimiter slow = new RateLimiter(0, 0.1, 1, 0, cancelled::get);
+        boolean firstAcquired = slow.acquire("slow:80");
+        assert firstAcquired;
+        new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+            cancelled.set(true);
+        }).start();
+        start = System.nanoTime();
+        boolean acquiredAfterCancel = slow.acquire("slow:80");
+        assert !acquiredAfterCancel;
+        totalMs = (System.nanoTime() - start) / 1_000_000;
+        assert totalMs < 500 : "cancel took " + totalMs + "ms";
+
+        System.out.println("✓ All tests passed!");
+    }
+}
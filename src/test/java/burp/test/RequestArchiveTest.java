@@ -0,0 +1,102 @@
+package burp.test;
+
+import burp.utils.HttpUtils;
+import burp.utils.RequestArchive;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Simple test to verify RequestArchive round-trips requests and reads any of them directly
+ */
+public class RequestArchiveTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing RequestArchive class...");
+
+        File file = File.createTempFile("request-archive", ".pmra");
+        file.deleteOnExit();
+        int count = 100000;
+
+        // 100k requests plus one larger than the write buffer
+        long start = System.nanoTime();
+        RequestArchive.Writer writer = RequestArchive.create(file, "source-key");
+        for (int i = 0; i < count; i++) {
+            writer.add("Folder/Request " + i, new HttpUtils.HostInfo("host" + (i % 7) + ".example.com", 8000 + i % 3, i % 2 == 0),
+                request(i));
+        }
+        byte[] large = new byte[3 << 20];
+        Arrays.fill(large, (byte) 'x');
+        writer.add("Upload/Big", new HttpUtils.HostInfo("upload.example.com", 443, true), large);
+        writer.addFailed("Broken/No URL", "Unable to extract URL from request");
+
+        // Nothing appears at the target until the writer is closed
+        assert !file.exists() || file.length() == 0;
+        writer.close();
+        long writeMs = (System.nanoTime() - start) / 1000000;
+        assert writeMs < 10000 : writeMs;
+
+        RequestArchive archive = RequestArchive.open(file);
+        assert archive.size() == count + 2;
+        assert archive.getSourceKey().equals("source-key");
+
+        Random random = new Random(7);
+        for (int n = 0; n < 1000; n++) {
+            int i = random.nextInt(count);
+            RequestArchive.Entry entry = archive.get(i);
+            assert entry.path.equals("Folder/Request " + i) : entry.path;
+            assert entry.hostInfo.host.equals("host" + (i % 7) + ".example.com");
+            assert entry.hostInfo.port == 8000 + i % 3;
+            assert entry.hostInfo.useHttps == (i % 2 == 0);
+            assert Arrays.equals(entry.request, request(i));
+        }
+        RequestArchive.Entry big = archive.get(count);
+        assert big.path.equals("Upload/Big");
+        assert Arrays.equals(big.request, large);
+        assert Arrays.equals(archive.getRequest(count - 1), request(count - 1));
+
+        // A request that could not be built keeps its index, with the error instead of bytes
+        RequestArchive.Entry broken = archive.get(count + 1);
+        assert broken.isFailed();
+        assert broken.path.equals("Broken/No URL");
+        assert broken.error.equals("Unable to extract URL from request") : broken.error;
+        assert broken.hostInfo == null && broken.request.length == 0;
+        assert !big.isFailed();
+
+        try {
+            archive.get(count + 2);
+            assert false : "read past the end";
+        } catch (IndexOutOfBoundsException e) {
+            // Expected
+        }
+        archive.close();
+
+        // A truncated file is rejected instead of returning garbage
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 4);
+        }
+        try {
+            RequestArchive.open(file);
+            assert false : "truncated archive opened";
+        } catch (IOException e) {
+            assert e.getMessage().contains("incomplete") : e.getMessage();
+        }
+
+        // An aborted export leaves nothing behind
+        File aborted = new File(file.getPath() + "-aborted");
+        RequestArchive.Writer abortedWriter = RequestArchive.create(aborted, "");
+        abortedWriter.add("A", new HttpUtils.HostInfo("a", 80, false), request(1));
+        abortedWriter.abort();
+        assert !aborted.exists();
+        assert !new File(aborted.getPath() + ".part").exists();
+
+        System.out.println("✓ All tests passed!");
+    }
+
+    private static byte[] request(int i) {
+        return ("GET /items/" + i + " HTTP/1.1\r\nHost: example.com\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+}
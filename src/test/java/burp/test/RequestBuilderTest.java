@@ -0,0 +1,98 @@
+package burp.test;
+
+import burp.models.PostmanCollection;
+import burp.parser.VariableResolver;
+import burp.utils.Log;
+import burp.utils.RequestBuilder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Simple test to verify RequestBuilder builds request lines from Url objects without a raw URL,
+ * and expands persisted GraphQL queries from the query kept with the request
+ */
+public class RequestBuilderTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing RequestBuilder class...");
+
+        VariableResolver resolver = new VariableResolver();
+        resolver.addCustomVariable("basePath", "api/v1");
+        resolver.addCustomVariable("name", "John Doe");
+        RequestBuilder builder = new RequestBuilder(Log.disabled(), resolver);
+
+        // A variable spanning several segments keeps its "/", literal text is still encoded
+        assert requestLine(builder, url(Arrays.asList("{{basePath}}", "users", "a b"))).equals("GET /api/v1/users/a%20b HTTP/1.1")
+            : requestLine(builder, url(Arrays.asList("{{basePath}}", "users", "a b")));
+        // Values are encoded, but only within their segments
+        assert requestLine(builder, url(Arrays.asList("{{basePath}}", "users", "{{name}}"))).equals("GET /api/v1/users/John%20Doe HTTP/1.1");
+
+        // Unresolved variables stay readable instead of turning into %7B%7B...%7D%7D
+        assert requestLine(builder, url(Arrays.asList("{{version}}", "users"))).equals("GET /{{version}}/users HTTP/1.1")
+            : requestLine(builder, url(Arrays.asList("{{version}}", "users")));
+
+        // The same goes for query parameters
+        PostmanCollection.Url withQuery = url(Collections.singletonList("search"));
+        withQuery.query = Arrays.asList(query("q", "{{name}}&more"), query("page", "{{page}}"));
+        assert requestLine(builder, withQuery).equals("GET /search?q=John%20Doe%26more&page={{page}} HTTP/1.1")
+            : requestLine(builder, withQuery);
+
+        // Persisted queries expand from the query kept with the request, however many were built since
+        PostmanCollection.Request first = graphQLRequest("{ user(id: 0) { name } }");
+        String hashOnly = body(builder.buildRequest(first, true));
+        String fullQuery = builder.resolveGraphQLQuery(first);
+        assert !hashOnly.contains("\"query\"") : hashOnly;
+        for (int i = 1; i < 1000; i++) {
+            builder.buildRequest(graphQLRequest("{ user(id: " + i + ") { name } }"), true);
+        }
+        String expanded = RequestBuilder.expandPersistedQuery(hashOnly, fullQuery);
+        assert expanded != null && expanded.contains("\"query\"") && expanded.contains("sha256Hash") : expanded;
+        // Without the query, or with one that does not match the hash, there is nothing to resend
+        assert RequestBuilder.expandPersistedQuery(hashOnly, null) == null;
+        assert RequestBuilder.expandPersistedQuery(hashOnly, builder.resolveGraphQLQuery(
+            graphQLRequest("{ user(id: 1) { name } }"))) == null;
+
+        System.out.println("✓ All tests passed!");
+    }
+
+    private static PostmanCollection.Request graphQLRequest(String query) {
+        PostmanCollection.Request request = new PostmanCollection.Request();
+        request.method = "POST";
+        request.url = "https://example.com/graphql";
+        request.body = new PostmanCollection.Body();
+        request.body.mode = "graphql";
+        request.body.graphql = new PostmanCollection.GraphQL();
+        request.body.graphql.query = query;
+        return request;
+    }
+
+    private static String body(byte[] request) {
+        String rendered = new String(request, StandardCharsets.UTF_8);
+        return rendered.substring(rendered.indexOf("\r\n\r\n") + 4);
+    }
+
+    private static PostmanCollection.Url url(List<String> path) {
+        PostmanCollection.Url url = new PostmanCollection.Url();
+        url.protocol = "https";
+        url.host = Collections.singletonList("example.com");
+        url.path = path;
+        return url;
+    }
+
+    private static PostmanCollection.Query query(String key, String value) {
+        PostmanCollection.Query query = new PostmanCollection.Query();
+        query.key = key;
+        query.value = value;
+        return query;
+    }
+
+    private static String requestLine(RequestBuilder builder, PostmanCollection.Url url) throws Exception {
+        PostmanCollection.Request request = new PostmanCollection.Request();
+        request.method = "GET";
+        request.url = url;
+        String rendered = new String(builder.buildRequest(request), StandardCharsets.UTF_8);
+        return rendered.substring(0, rendered.indexOf("\r\n"));
+    }
+}
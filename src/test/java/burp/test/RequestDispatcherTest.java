@@ -0,0 +1,70 @@
+package burp.test;
+
+import burp.utils.RequestDispatcher;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simple test to verify RequestDispatcher honours its global and per-host limits
+ */
+public class RequestDispatcherTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing RequestDispatcher class...");
+
+        RequestDispatcher dispatcher = new RequestDispatcher(6, 2);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        Map<String, AtomicInteger> perHost = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> maxPerHost = new ConcurrentHashMap<>();
+
+        for (int i = 0; i < 60; i++) {
+            String host = "host" + (i % 4) + ":443";
+            perHost.putIfAbsent(host, new AtomicInteger());
+            maxPerHost.putIfAbsent(host, new AtomicInteger());
+            dispatcher.submit(host, () -> {
+                int global = inFlight.incrementAndGet();
+                int hostCount = perHost.get(host).incrementAndGet();
+                maxInFlight.accumulateAndGet(global, Math::max);
+                maxPerHost.get(host).accumulateAndGet(hostCount, Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                perHost.get(host).decrementAndGet();
+                inFlight.decrementAndGet();
+                completed.incrementAndGet();
+            });
+        }
+        dispatcher.awaitCompletion(() -> false);
+
+        assert completed.get() == 60 : completed;
+        assert maxInFlight.get() <= 6 : maxInFlight;
+        assert maxInFlight.get() > 2 : "hosts should run in parallel, max was " + maxInFlight;
+        for (AtomicInteger max : maxPerHost.values()) {
+            assert max.get() <= 2 : max;
+        }
+
+        // Cancelling drops queued work but lets in-flight tasks finish
+        RequestDispatcher cancelled = new RequestDispatcher(1, 1);
+        AtomicInteger ran = new AtomicInteger();
+        for (int i = 0; i < 20; i++) {
+            cancelled.submit("slow:80", () -> {
+                ran.incrementAndGet();
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        cancelled.awaitCompletion(() -> true);
+        assert ran.get() < 20 : ran;
+        assert cancelled.activeCount() == 0 && cancelled.queuedCount() == 0;
+
+        System.out.println("✓ All tests passed!");
+    }
+}
@@ -0,0 +1,56 @@
+package burp.test;
+
+import burp.models.ImportSettings;
+import burp.models.RetentionMode;
+import burp.utils.ResponseRetention;
+
+/**
+ * Simple test to verify ResponseRetention keeps, truncates or drops bodies as configured
+ */
+public class ResponseRetentionTest {
+
+    public static void main(String[] args) {
+        System.out.println("Testing ResponseRetention class...");
+
+        // Full responses are never touched
+        ResponseRetention full = ResponseRetention.keepAll();
+        assert full.keptBodyLength("application/zip", 50000000) == 50000000;
+
+        // Limited: small bodies kept, large ones cut, listed types dropped
+        ResponseRetention limited = new ResponseRetention(RetentionMode.LIMITED, 1024,
+            ImportSettings.DEFAULT_DROPPED_RESPONSE_TYPES);
+        assert limited.keptBodyLength("application/json", 500) == 500;
+        assert limited.keptBodyLength("application/json; charset=utf-8", 5000) == 1024;
+        assert limited.keptBodyLength(null, 5000) == 1024;
+        assert limited.keptBodyLength("Image/PNG", 500) == 0;
+        assert limited.keptBodyLength(" application/pdf", 500) == 0;
+        assert limited.keptBodyLength("application/pdfx", 0) == 0;
+        assert limited.keptBodyLength("text/html", 0) == 0;
+
+        // A body barely over the limit is kept whole rather than grown by the truncation marker
+        int marker = ResponseRetention.truncationMarker(1050).length();
+        assert limited.keptBodyLength("application/json", 1050) == 1050;
+        assert limited.keptBodyLength("application/json", 1024 + marker) == 1024 + marker;
+        assert limited.keptBodyLength("application/json", 1025 + marker) == 1024;
+        ResponseRetention dropAll = new ResponseRetention(RetentionMode.LIMITED, 0, null);
+        assert dropAll.keptBodyLength("application/json", 10) == 0;
+
+        // Custom type list, with blanks and case ignored
+        ResponseRetention custom = new ResponseRetention(RetentionMode.LIMITED, 100, " Text/CSV , ,");
+        assert custom.keptBodyLength("text/csv", 10) == 0;
+        assert custom.keptBodyLength("image/png", 10) == 10;
+
+        // Headers only drops every body
+        ResponseRetention headers = new ResponseRetention(RetentionMode.HEADERS_ONLY, 1024, null);
+        assert headers.keptBodyLength("application/json", 10) == 0;
+
+        // Counters
+        limited.recordTrimmed(4000);
+        limited.recordTrimmed(500);
+        assert limited.getTrimmedCount() == 2;
+        assert limited.getBytesSaved() == 4500;
+        assert ResponseRetention.truncationMarker(5000).contains("5000 bytes");
+
+        System.out.println("✓ All tests passed!");
+    }
+}
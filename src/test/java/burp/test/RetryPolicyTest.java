@@ -0,0 +1,60 @@
+package burp.test;
+
+import burp.models.FailureClass;
+import burp.utils.RetryPolicy;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Simple test to verify failure classification and RetryPolicy backoff with jitter
+ */
+public class RetryPolicyTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing RetryPolicy class...");
+
+        // Classification follows the cause chain, then the message
+        assert FailureClass.classify(new RuntimeException(new UnknownHostException("api.internal"))) == FailureClass.DNS;
+        assert FailureClass.classify(new RuntimeException(new ConnectException("refused"))) == FailureClass.CONNECT;
+        assert FailureClass.classify(new SocketTimeoutException("Read timed out")) == FailureClass.TIMEOUT;
+        assert FailureClass.classify(new Exception("java.net.UnknownHostException: api.internal")) == FailureClass.DNS;
+        assert FailureClass.classify(new Exception("Connection refused")) == FailureClass.CONNECT;
+        assert FailureClass.classify(new Exception("Invalid URL")) == FailureClass.OTHER;
+        assert FailureClass.forStatus(503) == FailureClass.HTTP_5XX;
+        assert FailureClass.forStatus(429) == FailureClass.THROTTLED;
+        assert FailureClass.forStatus(404) == null;
+
+        // Only transient classes are retried, up to the limit
+        RetryPolicy policy = new RetryPolicy(3, 100, 1000);
+        assert policy.shouldRetry(FailureClass.CONNECT, 0);
+        assert policy.shouldRetry(FailureClass.HTTP_5XX, 2);
+        assert !policy.shouldRetry(FailureClass.HTTP_5XX, 3);
+        assert !policy.shouldRetry(FailureClass.DNS, 0);
+        assert !policy.shouldRetry(FailureClass.CIRCUIT_OPEN, 0);
+        assert !RetryPolicy.none().shouldRetry(FailureClass.TIMEOUT, 0);
+
+        // Backoff doubles per retry, capped, with the jitter in the upper half
+        for (int i = 0; i < 200; i++) {
+            long first = policy.backoffMillis(0);
+            long third = policy.backoffMillis(2);
+            long capped = policy.backoffMillis(20);
+            assert first >= 50 && first <= 100 : first;
+            assert third >= 200 && third <= 400 : third;
+            assert capped >= 500 && capped <= 1000 : capped;
+        }
+
+        // Waiting gives up when the import is cancelled
+        long start = System.nanoTime();
+        try {
+            new RetryPolicy(1, 60000, 60000).awaitBackoff(0, () -> true);
+            assert false : "expected cancellation";
+        } catch (CancellationException e) {
+            // Expected
+        }
+        assert (System.nanoTime() - start) / 1_000_000L < 1000;
+
+        System.out.println("✓ All tests passed!");
+    }
+}
@@ -0,0 +1,144 @@
+package burp.test;
+
+import burp.ImportEngine;
+import burp.models.FailureClass;
+import burp.models.ImportResult;
+import burp.models.ImportSettings;
+import burp.parser.VariableResolver;
+import burp.utils.ImportMetrics;
+import burp.utils.Log;
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+/**
+ * Simple test to verify a whole import runs end to end against a local stub server, with every
+ * request accounted for and timed
+ */
+public class SitemapImportTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing SitemapImport end to end...");
+
+        StubHttpServer server = new StubHttpServer();
+        server.latencyMs = 1;
+        server.errorRate = 0.05;
+        server.tooManyRequestsRate = 0.05;
+        server.start();
+        try {
+            // Every request reaches the server once and lands in the sitemap, errors included
+            ImportThroughputBenchmark.Run run = ImportThroughputBenchmark.run(server, 200, "sitemap", 8, 0);
+            assert run.result.error == null : run.result.error;
+            assert run.result.totalRequests == 200 : run.result.totalRequests;
+            assert run.result.successCount + run.result.getFailureCount() == 200 :
+                run.result.successCount + " + " + run.result.getFailureCount();
+            assert server.received.get() == 200 : server.received.get();
+            assert run.result.getFailureCount() == server.errors.get() + server.tooManyRequests.get() :
+                run.result.getFailureCount() + " vs " + server.errors.get() + " + " + server.tooManyRequests.get();
+            assert run.burp.sitemapEntries.get() == 200 : run.burp.sitemapEntries.get();
+            assert run.burp.sitemapBytes.get() > 0;
+            assert run.burp.repeaterTabs.get() == 0;
+
+            // Both host names were timed, and the run was measured
+            ImportMetrics metrics = run.metrics;
+            assert metrics.isFinished();
+            assert metrics.getSitemapHosts().size() == 2 : metrics.getSitemapHosts();
+            assert metrics.getStage(ImportMetrics.Stage.SITEMAP).getCount() == 200;
+            assert metrics.getStage(ImportMetrics.Stage.PARSE).getCount() == 200;
+            assert metrics.getThroughput() > 0;
+            assert run.result.metricsReport != null && run.result.metricsReport.contains("Throughput");
+            assert run.peakHeapBytes > 0;
+
+            // Repeater imports open tabs without sending anything
+            int before = server.received.get();
+            ImportThroughputBenchmark.Run repeater = ImportThroughputBenchmark.run(server, 20, "repeater", 4, 0);
+            assert repeater.burp.repeaterTabs.get() == 20 : repeater.burp.repeaterTabs.get();
+            assert repeater.burp.sitemapEntries.get() == 0;
+            assert server.received.get() == before;
+
+            // Past the tab limit requests are skipped, not failed
+            ImportThroughputBenchmark.Run capped = ImportThroughputBenchmark.run(server, 20, "repeater", 4, 0,
+                settings -> settings.maxRepeaterTabs = 5);
+            assert capped.burp.repeaterTabs.get() == 5 : capped.burp.repeaterTabs.get();
+            assert capped.result.successCount == 5 : capped.result.successCount;
+            assert capped.result.skippedCount == 15 : capped.result.skippedCount;
+            assert capped.result.getFailureCount() == 0 : capped.result.failedRequestDetails;
+        } finally {
+            server.stop();
+        }
+
+        StubHttpServer batching = new StubHttpServer();
+        batching.graphQLBatching = true;
+        batching.start();
+        StubHttpServer failing = new StubHttpServer();
+        failing.errorRate = 1;
+        failing.start();
+        try {
+            // GraphQL operations to one endpoint go out as batches and come back as one entry each
+            ImportResult batched = importGraphQL(batching, 8, 4, 2, 0);
+            assert batched.successCount == 8 && batched.getFailureCount() == 0 : batched.failedRequestDetails;
+            assert batching.batches.get() == 2 && batching.received.get() == 2 : batching.received.get();
+
+            // A batch answered with an error fails every operation in it
+            ImportResult failed = importGraphQL(failing, 8, 4, 2, 0);
+            assert failed.successCount == 0 : failed.successCount;
+            assert failed.failureCounts().get(FailureClass.HTTP_5XX) == 8 : failed.failureCounts();
+
+            // Batches count towards the circuit breaker, and an open breaker stops them
+            int before = failing.received.get();
+            ImportResult broken = importGraphQL(failing, 12, 4, 1, 1);
+            Map<FailureClass, Integer> counts = broken.failureCounts();
+            assert counts.get(FailureClass.HTTP_5XX) == 4 && counts.get(FailureClass.CIRCUIT_OPEN) == 8 : counts;
+            assert failing.received.get() == before + 1 : failing.received.get() - before;
+        } finally {
+            batching.stop();
+            failing.stop();
+        }
+
+        System.out.println("✓ All tests passed!");
+    }
+
+    // Imports a collection of identical GraphQL operations to one endpoint into the fake sitemap
+    private static ImportResult importGraphQL(StubHttpServer server, int operations, int batchSize,
+                                              int concurrency, int circuitBreakerThreshold) throws Exception {
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < operations; i++) {
+            items.append(i > 0 ? "," : "").append("{\"name\": \"Operation ").append(i).append("\", ")
+                .append("\"request\": {\"method\": \"POST\", \"url\": \"").append(server.url()).append("/graphql\", ")
+                .append("\"header\": [{\"key\": \"Content-Type\", \"value\": \"application/json\"}], ")
+                .append("\"body\": {\"mode\": \"graphql\", \"graphql\": {\"query\": \"{ item(id: ")
+                .append(i).append(") { id } }\"}}}}");
+        }
+        File collection = File.createTempFile("graphql-collection", ".json");
+        Files.write(collection.toPath(), ("{\"info\": {\"name\": \"GraphQL\"}, \"item\": [" + items + "]}")
+            .getBytes(StandardCharsets.UTF_8));
+
+        ImportSettings settings = new ImportSettings();
+        settings.perHostRequestsPerSecond = 0;
+        settings.graphQLBatchSize = batchSize;
+        settings.concurrency = concurrency;
+        settings.perHostConcurrency = concurrency;
+        settings.adaptiveConcurrency = false;
+        settings.maxRetries = 0;
+        settings.circuitBreakerThreshold = circuitBreakerThreshold;
+
+        PrintStream quiet = new PrintStream(new OutputStream() {
+            public void write(int b) { }
+        });
+        FakeBurp burp = new FakeBurp(quiet, System.err);
+        try {
+            return new ImportEngine(burp.api(), new Log(burp.api().logging()), new VariableResolver())
+                .runImport(collection, null, "sitemap", settings, new ImportEngine.ImportListener() {
+                    public boolean cancelled() { return false; }
+                    public void log(String message) { }
+                    public void progress(int percent) { }
+                });
+        } finally {
+            burp.close();
+            collection.delete();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package burp.test;
+
+import burp.models.CollectionHeader;
+import burp.parser.PostmanParser;
+import burp.utils.StagedPipeline;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simple test to verify StagedPipeline keeps order and bounds read-ahead, and that the
+ * streaming parser yields the same requests and paths as the collection tree
+ */
+public class StagedPipelineTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing StagedPipeline class...");
+
+        // Items reach the consumer in production order even though builds finish out of order
+        AtomicInteger produced = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+        List<Integer> consumed = new ArrayList<>();
+        StagedPipeline<Integer, String> pipeline = new StagedPipeline<>(8, 4, () -> false);
+        pipeline.run(sink -> {
+            for (int i = 0; i < 200; i++) {
+                produced.incrementAndGet();
+                sink.accept(i);
+            }
+        }, item -> {
+            Thread.sleep(item % 3);
+            if (item == 42) {
+                throw new IllegalStateException("bad item");
+            }
+            return "built-" + item;
+        }, (item, built, error) -> {
+            maxAhead.accumulateAndGet(produced.get() - consumed.size(), Math::max);
+            if (item == 42) {
+                assert built == null && error != null && "bad item".equals(error.getMessage());
+            } else {
+                assert error == null && ("built-" + item).equals(built) : built;
+            }
+            consumed.add(item);
+            Thread.sleep(1);
+        });
+        assert consumed.size() == 200;
+        for (int i = 0; i < consumed.size(); i++) {
+            assert consumed.get(i) == i;
+        }
+        // Queue capacity plus the slot being handed over
+        assert maxAhead.get() <= 10 : maxAhead.get();
+
+        // Producer errors surface after the items before them
+        List<Integer> beforeError = new ArrayList<>();
+        try {
+            new StagedPipeline<Integer, Integer>(4, 1, () -> false).run(sink -> {
+                sink.accept(1);
+                sink.accept(2);
+                throw new IllegalArgumentException("truncated file");
+            }, item -> item, (item, built, error) -> beforeError.add(built));
+            assert false : "producer error was swallowed";
+        } catch (IllegalArgumentException e) {
+            assert "truncated file".equals(e.getMessage());
+        }
+        assert beforeError.size() == 2;
+
+        // Cancelling stops a producer that would otherwise never end
+        AtomicInteger seen = new AtomicInteger();
+        new StagedPipeline<Integer, Integer>(4, 1, () -> seen.get() >= 5).run(sink -> {
+            for (int i = 0; ; i++) {
+                sink.accept(i);
+            }
+        }, item -> item, (item, built, error) -> seen.incrementAndGet());
+        assert seen.get() == 5 : seen.get();
+
+        // Streaming parse: variables after the items, wrapped format, and a folder named after its children
+        String json = "{\"collection\": {\"info\": {\"name\": \"Streamed\"}, \"item\": [" +
+            "{\"name\": \"Users\", \"item\": [" +
+            "  {\"name\": \"List\", \"request\": {\"method\": \"GET\", \"url\": \"{{base}}/users\"}}," +
+            "  {\"item\": [{\"name\": \"Get\", \"request\": {\"method\": \"GET\", \"url\": \"{{base}}/users/1\"}}]," +
+            "   \"name\": \"Detail\"}]}," +
+            "{\"name\": \"Health\", \"request\": {\"method\": \"GET\", \"url\": \"{{base}}/health\"}}]," +
+            "\"variable\": [{\"key\": \"base\", \"value\": \"https://api.example.com\"}]}}";
+        File file = File.createTempFile("staged-pipeline", ".json");
+        file.deleteOnExit();
+        Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+
+        PostmanParser parser = new PostmanParser();
+        CollectionHeader header = parser.readCollectionHeader(file);
+        assert "Streamed".equals(header.collection.info.name);
+        assert header.requestCount == 3 : header.requestCount;
+        assert header.collection.variable.size() == 1;
+        assert header.collection.item.isEmpty();
+
+        List<String> paths = new ArrayList<>();
+        parser.streamRequests(file, (name, path, request) -> {
+            assert request != null && "GET".equals(request.method);
+            paths.add(path);
+        });
+        assert paths.size() == 3 : paths;
+        assert paths.get(0).equals("Users/List");
+        assert paths.get(1).equals("Users/Detail/Get");
+        assert paths.get(2).equals("Health");
+
+        System.out.println("✓ All tests passed!");
+    }
+}
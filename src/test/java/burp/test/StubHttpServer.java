@@ -0,0 +1,192 @@
+package burp.test;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+
+/**
+ * Local HTTP or HTTPS server that stands in for a collection's API in end-to-end runs. Every
+ * request is answered after latencyMs plus up to jitterMs, with a 500 at errorRate, a 429 with
+ * Retry-After at tooManyRequestsRate, and otherwise a small JSON body. With graphQLBatching, a
+ * JSON array body is answered with an array holding one such body per element. Set the options
+ * before start().
+ */
+public class StubHttpServer {
+    public int latencyMs = 0;
+    public int jitterMs = 0;
+    public double errorRate = 0;
+    public double tooManyRequestsRate = 0;
+    public int retryAfterSeconds = 1;
+    public int responseBytes = 256;
+    public boolean https = false;
+    public boolean graphQLBatching = false;
+
+    public final AtomicInteger received = new AtomicInteger();
+    public final AtomicInteger errors = new AtomicInteger();
+    public final AtomicInteger tooManyRequests = new AtomicInteger();
+    public final AtomicInteger batches = new AtomicInteger();
+
+    private HttpServer server;
+    private ExecutorService threads;
+    private File keyStore;
+
+    public StubHttpServer start() throws IOException {
+        // Headers and body go out in separate writes, which Nagle's algorithm would hold for an ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", 0);
+        if (https) {
+            HttpsServer httpsServer = HttpsServer.create(address, 1024);
+            httpsServer.setHttpsConfigurator(new HttpsConfigurator(selfSignedContext()));
+            server = httpsServer;
+        } else {
+            server = HttpServer.create(address, 1024);
+        }
+        threads = Executors.newCachedThreadPool();
+        server.setExecutor(threads);
+        byte[] body = body(responseBytes);
+        server.createContext("/", exchange -> handle(exchange, body));
+        server.start();
+        return this;
+    }
+
+    /**
+     * Base URL of the running server, e.g. http://127.0.0.1:51234.
+     */
+    public String url() {
+        return url("127.0.0.1");
+    }
+
+    /**
+     * Base URL under another name for the loopback address, e.g. localhost, so one server can
+     * play several hosts.
+     */
+    public String url(String host) {
+        return (https ? "https" : "http") + "://" + host + ":" + server.getAddress().getPort();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            threads.shutdownNow();
+        }
+        if (keyStore != null) {
+            keyStore.delete();
+        }
+    }
+
+    private void handle(HttpExchange exchange, byte[] body) throws IOException {
+        // Read the whole request so the connection can be reused
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                request.write(buffer, 0, read);
+            }
+        }
+        received.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int delay = latencyMs + (jitterMs > 0 ? random.nextInt(jitterMs + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        double roll = random.nextDouble();
+        if (roll < tooManyRequestsRate) {
+            tooManyRequests.incrementAndGet();
+            exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+            exchange.sendResponseHeaders(429, -1);
+        } else if (roll < tooManyRequestsRate + errorRate) {
+            errors.incrementAndGet();
+            exchange.sendResponseHeaders(500, -1);
+        } else {
+            int operations = graphQLBatching ? batchSize(request.toByteArray()) : 0;
+            if (operations > 0) {
+                batches.incrementAndGet();
+                StringBuilder array = new StringBuilder("[");
+                for (int i = 0; i < operations; i++) {
+                    array.append(i > 0 ? "," : "").append(new String(body, StandardCharsets.UTF_8));
+                }
+                body = array.append(']').toString().getBytes(StandardCharsets.UTF_8);
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            return;
+        }
+        exchange.close();
+    }
+
+    // Number of operations in a JSON array body, 0 if it is not one
+    private static int batchSize(byte[] request) {
+        try {
+            JsonElement element = JsonParser.parseString(new String(request, StandardCharsets.UTF_8));
+            return element.isJsonArray() ? element.getAsJsonArray().size() : 0;
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] body(int size) {
+        StringBuilder json = new StringBuilder("{\"ok\":true,\"padding\":\"");
+        while (json.length() < size - 2) {
+            json.append('x');
+        }
+        return json.append("\"}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // A throwaway self-signed certificate from the JDK's keytool
+    private SSLContext selfSignedContext() throws IOException {
+        keyStore = File.createTempFile("stub-server", ".p12");
+        keyStore.delete();
+        String keytool = System.getProperty("java.home") + File.separator + "bin" + File.separator + "keytool";
+        char[] password = "changeit".toCharArray();
+        Process process = new ProcessBuilder(keytool, "-genkeypair", "-alias", "stub", "-keyalg", "RSA",
+            "-keysize", "2048", "-validity", "1", "-dname", "CN=localhost", "-storetype", "PKCS12",
+            "-keystore", keyStore.getAbsolutePath(), "-storepass", "changeit", "-keypass", "changeit")
+            .redirectErrorStream(true).start();
+        try {
+            if (process.waitFor() != 0) {
+                throw new IOException("keytool failed with exit code " + process.exitValue());
+            }
+            KeyStore store = KeyStore.getInstance("PKCS12");
+            try (InputStream in = new FileInputStream(keyStore)) {
+                store.load(in, password);
+            }
+            KeyManagerFactory keys = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keys.init(store, password);
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(keys.getKeyManagers(), null, null);
+            return context;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while creating a certificate", e);
+        } catch (Exception e) {
+            throw e instanceof IOException ? (IOException) e : new IOException("Cannot create a certificate", e);
+        }
+    }
+}
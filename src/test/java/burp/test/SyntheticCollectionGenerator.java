@@ -0,0 +1,312 @@
+package burp.test;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Writes realistic Postman collections of any size for scale tests and benchmarks. Output is
+ * streamed straight to disk, so a million-request collection needs no more memory than a small
+ * one, and the same seed and options always produce the same bytes.
+ *
+ * Requests sit in a folder tree of the configured depth and mix GET requests without a body
+ * with raw JSON, form-data, urlencoded and GraphQL bodies. Hosts, path segments, query values,
+ * headers and body fields are templated with {{variables}} at the configured density; the
+ * matching environment file comes from writeEnvironment.
+ *
+ * Run with: java -cp target/test-classes:gson.jar burp.test.SyntheticCollectionGenerator
+ *           collection.json requests [environment.json] [seed]
+ */
+public class SyntheticCollectionGenerator {
+    public long seed = 1;
+    public int requests = 1000;
+    public int requestsPerFolder = 50;
+    public int folderDepth = 2;          // Folder levels above each request; 0 puts requests at the top
+    public int folderBranching = 4;      // Subfolders per folder below the top level
+    public int hosts = 5;                // Distinct {{hostN}} base URLs
+    public int variablePool = 50;        // Distinct {{varN}} names used in templated fields
+    public double variableDensity = 0.3; // Chance each templatable field uses a variable
+    public double graphqlShare = 0.1;
+    public double formdataShare = 0.1;
+    public double urlencodedShare = 0.1;
+    public double rawShare = 0.4;        // The rest are GET requests without a body
+    public String[] authTypes = { "none", "bearer", "basic", "apikey" };
+    public double environmentCoverage = 1.0; // Share of variables the environment file defines
+    public String[] baseUrls = null;     // Values of {{hostN}}, reused in turn; null for apiN.example.com
+
+    private static final String[] RESOURCES = { "users", "orders", "products", "invoices", "sessions",
+        "accounts", "reports", "files", "teams", "events" };
+    private static final String[] WRITE_METHODS = { "POST", "PUT", "PATCH" };
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SyntheticCollectionGenerator <collection.json> <requests> [environment.json] [seed]");
+            System.exit(2);
+        }
+        SyntheticCollectionGenerator generator = new SyntheticCollectionGenerator();
+        generator.requests = Integer.parseInt(args[1]);
+        if (args.length > 3) {
+            generator.seed = Long.parseLong(args[3]);
+        }
+        long start = System.nanoTime();
+        generator.write(new File(args[0]));
+        if (args.length > 2) {
+            generator.writeEnvironment(new File(args[2]));
+        }
+        System.out.printf("Wrote %d requests to %s in %.1f s%n", generator.requests, args[0],
+            (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Writes the collection to a temp file deleted on exit.
+     */
+    public File writeTemp() throws IOException {
+        File file = File.createTempFile("synthetic-collection-" + requests + "-", ".json");
+        file.deleteOnExit();
+        write(file);
+        return file;
+    }
+
+    public void write(File file) throws IOException {
+        try (Writer out = open(file)) {
+            write(out);
+        }
+    }
+
+    public void write(Writer out) throws IOException {
+        Random random = new Random(seed);
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject();
+        json.name("info").beginObject()
+            .name("name").value("Synthetic " + requests + " (seed " + seed + ")")
+            .name("schema").value("https://schema.getpostman.com/json/collection/v2.1.0/collection.json")
+            .endObject();
+
+        json.name("item").beginArray();
+        int[] openPath = new int[0];
+        int perFolder = Math.max(1, requestsPerFolder);
+        for (int i = 0; i < requests; i++) {
+            if (folderDepth > 0 && i % perFolder == 0) {
+                // Close the folders the next leaf doesn't share with the previous one, then open its own
+                int[] path = folderPath(i / perFolder);
+                int common = 0;
+                while (common < openPath.length && openPath[common] == path[common]) {
+                    common++;
+                }
+                for (int level = openPath.length; level > common; level--) {
+                    json.endArray().endObject();
+                }
+                for (int level = common; level < path.length; level++) {
+                    json.beginObject().name("name").value(folderName(path, level)).name("item").beginArray();
+                }
+                openPath = path;
+            }
+            request(json, random, i);
+        }
+        for (int level = 0; level < openPath.length; level++) {
+            json.endArray().endObject();
+        }
+        json.endArray();
+
+        json.name("variable").beginArray();
+        for (int h = 0; h < hosts; h++) {
+            variable(json, "host" + h, baseUrls != null && baseUrls.length > 0 ?
+                baseUrls[h % baseUrls.length] : "https://api" + h + ".example.com");
+        }
+        json.endArray();
+        json.endObject();
+        json.flush();
+    }
+
+    /**
+     * Writes an environment defining the variables the collection uses, except for the share left
+     * out by environmentCoverage.
+     */
+    public void writeEnvironment(File file) throws IOException {
+        Random random = new Random(seed ^ 0x5DEECE66DL);
+        try (JsonWriter json = new JsonWriter(open(file))) {
+            json.beginObject();
+            json.name("id").value("synthetic-" + seed);
+            json.name("name").value("Synthetic environment (seed " + seed + ")");
+            json.name("values").beginArray();
+            environmentValue(json, "token", "synthetic-token-" + seed);
+            environmentValue(json, "username", "synthetic-user");
+            environmentValue(json, "password", "synthetic-password");
+            environmentValue(json, "apiKey", "synthetic-key-" + seed);
+            for (int v = 0; v < variablePool; v++) {
+                if (random.nextDouble() < environmentCoverage) {
+                    environmentValue(json, "var" + v, "value-" + v);
+                }
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    // Folder indexes from the top level down; the top level has as many folders as needed
+    private int[] folderPath(int leaf) {
+        int[] path = new int[folderDepth];
+        for (int level = folderDepth - 1; level > 0; level--) {
+            path[level] = leaf % folderBranching;
+            leaf /= folderBranching;
+        }
+        path[0] = leaf;
+        return path;
+    }
+
+    private static String folderName(int[] path, int level) {
+        StringBuilder name = new StringBuilder(level == 0 ? "Area " : "Group ");
+        for (int i = 0; i <= level; i++) {
+            name.append(i > 0 ? "." : "").append(path[i] + 1);
+        }
+        return name.toString();
+    }
+
+    private void request(JsonWriter json, Random random, int index) throws IOException {
+        String resource = RESOURCES[random.nextInt(RESOURCES.length)];
+        double kind = random.nextDouble();
+        String mode;
+        if (kind < graphqlShare) {
+            mode = "graphql";
+        } else if (kind < graphqlShare + formdataShare) {
+            mode = "formdata";
+        } else if (kind < graphqlShare + formdataShare + urlencodedShare) {
+            mode = "urlencoded";
+        } else if (kind < graphqlShare + formdataShare + urlencodedShare + rawShare) {
+            mode = "raw";
+        } else {
+            mode = null;
+        }
+        String method = "graphql".equals(mode) ? "POST" : mode == null ?
+            (random.nextInt(10) == 0 ? "DELETE" : "GET") : WRITE_METHODS[random.nextInt(WRITE_METHODS.length)];
+
+        json.beginObject();
+        json.name("name").value(method + " " + resource + " " + index);
+        json.name("request").beginObject();
+        json.name("method").value(method);
+
+        json.name("header").beginArray();
+        header(json, "Accept", "application/json");
+        header(json, "X-Request-Id", field(random, "req-" + index));
+        if (random.nextInt(4) == 0) {
+            header(json, "X-Tenant", field(random, "tenant-" + random.nextInt(20)));
+        }
+        json.endArray();
+
+        String host = hosts > 0 ? "{{host" + random.nextInt(hosts) + "}}" : "https://api.example.com";
+        String url = "graphql".equals(mode) ? host + "/graphql" :
+            host + "/api/v1/" + resource + "/" + field(random, String.valueOf(random.nextInt(100000))) +
+            "?page=" + field(random, String.valueOf(1 + random.nextInt(10))) + "&size=20";
+        json.name("url").value(url);
+
+        String auth = authTypes.length > 0 ? authTypes[random.nextInt(authTypes.length)] : "none";
+        if (!"none".equals(auth)) {
+            auth(json, auth);
+        }
+        if (mode != null) {
+            json.name("body");
+            body(json, random, mode, resource, index);
+        }
+        json.endObject();
+        json.endObject();
+    }
+
+    private void body(JsonWriter json, Random random, String mode, String resource, int index) throws IOException {
+        json.beginObject().name("mode").value(mode);
+        switch (mode) {
+            case "raw":
+                StringBuilder raw = new StringBuilder("{\"id\": ").append(index);
+                int fields = 2 + random.nextInt(6);
+                for (int f = 0; f < fields; f++) {
+                    raw.append(", \"field").append(f).append("\": \"")
+                       .append(field(random, resource + "-" + random.nextInt(1000))).append('"');
+                }
+                raw.append('}');
+                json.name("raw").value(raw.toString());
+                json.name("options").beginObject().name("raw").beginObject()
+                    .name("language").value("json").endObject().endObject();
+                break;
+            case "formdata":
+            case "urlencoded":
+                json.name(mode).beginArray();
+                int parts = 1 + random.nextInt(5);
+                for (int p = 0; p < parts; p++) {
+                    json.beginObject().name("key").value("field" + p)
+                        .name("value").value(field(random, "value-" + random.nextInt(1000)));
+                    if ("formdata".equals(mode)) {
+                        json.name("type").value("text");
+                    }
+                    json.endObject();
+                }
+                json.endArray();
+                break;
+            default: // graphql
+                json.name("graphql").beginObject()
+                    .name("query").value("query Get" + Character.toUpperCase(resource.charAt(0)) +
+                        resource.substring(1) + "($id: ID!, $first: Int) { " + resource +
+                        "(id: $id) { id name items(first: $first) { id createdAt } } }")
+                    .name("variables").value("{\"id\": \"" + field(random, String.valueOf(index)) +
+                        "\", \"first\": " + (1 + random.nextInt(50)) + "}")
+                    .endObject();
+                break;
+        }
+        json.endObject();
+    }
+
+    private static void auth(JsonWriter json, String type) throws IOException {
+        json.name("auth").beginObject().name("type").value(type);
+        json.name(type).beginArray();
+        switch (type) {
+            case "bearer":
+                authAttribute(json, "token", "{{token}}");
+                break;
+            case "basic":
+                authAttribute(json, "username", "{{username}}");
+                authAttribute(json, "password", "{{password}}");
+                break;
+            case "apikey":
+                authAttribute(json, "key", "X-API-Key");
+                authAttribute(json, "value", "{{apiKey}}");
+                break;
+            default:
+                break;
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    // A literal value, or at variableDensity a {{variable}} from the pool
+    private String field(Random random, String literal) {
+        if (variablePool > 0 && random.nextDouble() < variableDensity) {
+            return "{{var" + random.nextInt(variablePool) + "}}";
+        }
+        return literal;
+    }
+
+    private static Writer open(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private static void header(JsonWriter json, String key, String value) throws IOException {
+        json.beginObject().name("key").value(key).name("value").value(value).endObject();
+    }
+
+    private static void authAttribute(JsonWriter json, String key, String value) throws IOException {
+        json.beginObject().name("key").value(key).name("value").value(value).name("type").value("string").endObject();
+    }
+
+    private static void variable(JsonWriter json, String key, String value) throws IOException {
+        json.beginObject().name("key").value(key).name("value").value(value).endObject();
+    }
+
+    private static void environmentValue(JsonWriter json, String key, String value) throws IOException {
+        json.beginObject().name("key").value(key).name("value").value(value)
+            .name("enabled").value(true).name("type").value("default").endObject();
+    }
+}
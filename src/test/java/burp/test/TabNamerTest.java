@@ -0,0 +1,88 @@
+package burp.test;
+
+import burp.utils.TabNamer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Simple test to verify TabNamer hands out unique names quickly, concurrently and in bounded memory
+ */
+public class TabNamerTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing TabNamer class...");
+
+        // Folder-aware base names
+        assert TabNamer.baseName("Users/Get item", "Get item").equals("Users / Get item");
+        assert TabNamer.baseName("API/v2/Orders/Get item", "Get item").equals("Orders / Get item");
+        assert TabNamer.baseName("Get item", "Get item").equals("Get item");
+        assert TabNamer.baseName(null, "Get item").equals("Get item");
+        assert TabNamer.baseName("Users/", "").equals("Request");
+
+        // Numbering
+        TabNamer namer = new TabNamer();
+        String first = namer.nextName("Get item");
+        String second = namer.nextName("Get item");
+        String third = namer.nextName("Get item");
+        assert first.equals("Get item") : first;
+        assert second.equals("Get item (1)") : second;
+        assert third.equals("Get item (2)") : third;
+
+        // A request literally named like a numbered one never collides
+        String literalOne = namer.nextName("Get item (1)");
+        String literalSeven = namer.nextName("Get item (7)");
+        assert literalOne.equals("Get item (1) (1)") : literalOne;
+        assert literalSeven.equals("Get item (7)") : literalSeven;
+        for (int i = 3; i < 7; i++) {
+            String name = namer.nextName("Get item");
+            assert name.equals("Get item (" + i + ")") : name;
+        }
+        String skipped = namer.nextName("Get item");
+        assert skipped.equals("Get item (8)") : skipped;
+
+        // Thousands of identical names stay linear
+        TabNamer bulk = new TabNamer();
+        long start = System.nanoTime();
+        for (int i = 0; i < 200000; i++) {
+            bulk.nextName("Get item");
+        }
+        String last = bulk.nextName("Get item");
+        long elapsedMs = (System.nanoTime() - start) / 1000000;
+        assert last.equals("Get item (200000)") : last;
+        assert elapsedMs < 2000 : elapsedMs;
+
+        // Unique under concurrent dispatch
+        TabNamer shared = new TabNamer();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                List<String> names = new ArrayList<>();
+                for (int i = 0; i < 5000; i++) {
+                    names.add(shared.nextName("Get item"));
+                }
+                return names;
+            }));
+        }
+        Set<String> all = new HashSet<>();
+        for (Future<List<String>> future : futures) {
+            all.addAll(future.get());
+        }
+        executor.shutdown();
+        assert all.size() == 40000 : all.size();
+
+        // Memory is bounded by the number of base names tracked
+        TabNamer bounded = new TabNamer(100);
+        for (int i = 0; i < 10000; i++) {
+            bounded.nextName("Request " + i);
+        }
+        assert bounded.size() == 100 : bounded.size();
+
+        System.out.println("✓ All tests passed!");
+    }
+}
@@ -0,0 +1,92 @@
+package burp.test;
+
+import burp.utils.TabThrottle;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Simple test to verify TabThrottle paces tabs in batches, waits for a busy UI and caps each import
+ */
+public class TabThrottleTest {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Testing TabThrottle class...");
+
+        // A batch opens at once, then tabs follow at the configured rate
+        TabThrottle paced = new TabThrottle(20, 5, 0, () -> false, () -> false);
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            boolean opened = paced.acquire();
+            assert opened;
+        }
+        assert elapsedMs(start) < 40 : elapsedMs(start);
+        for (int i = 0; i < 4; i++) {
+            boolean opened = paced.acquire();
+            assert opened;
+        }
+        long elapsed = elapsedMs(start);
+        assert elapsed >= 180 && elapsed < 600 : elapsed;
+        assert paced.getOpenedCount() == 9;
+
+        // Opening waits while the UI is busy
+        AtomicBoolean busy = new AtomicBoolean(true);
+        TabThrottle waiting = new TabThrottle(0, 1, 0, busy::get, () -> false);
+        new Thread(() -> {
+            try {
+                Thread.sleep(150);
+            } catch (InterruptedException e) {
+                // Ignore
+            }
+            busy.set(false);
+        }).start();
+        start = System.nanoTime();
+        boolean openedAfterBusy = waiting.acquire();
+        assert openedAfterBusy;
+        assert elapsedMs(start) >= 140 : elapsedMs(start);
+        assert waiting.getPausedMillis() >= 140;
+
+        // Cancelling while paused gives up
+        TabThrottle stuck = new TabThrottle(0, 1, 0, () -> true, () -> true);
+        try {
+            stuck.acquire();
+            assert false : "waited past cancel";
+        } catch (CancellationException e) {
+            // Expected
+        }
+
+        // The cap holds, also under concurrent callers
+        TabThrottle capped = new TabThrottle(0, 1, 100, () -> false, () -> false);
+        Thread[] threads = new Thread[4];
+        int[] grantedPerThread = new int[threads.length];
+        for (int t = 0; t < threads.length; t++) {
+            int index = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 50; i++) {
+                        if (capped.acquire()) {
+                            grantedPerThread[index]++;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    // Ignore
+                }
+            });
+            threads[t].start();
+        }
+        int granted = 0;
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].join();
+            granted += grantedPerThread[t];
+        }
+        assert granted == 100 : granted;
+        assert capped.getOpenedCount() == 100;
+        boolean openedPastCap = capped.acquire();
+        assert !openedPastCap;
+
+        System.out.println("✓ All tests passed!");
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000000;
+    }
+}